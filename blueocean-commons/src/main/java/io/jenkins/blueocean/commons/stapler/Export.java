@@ -22,6 +22,7 @@ import org.kohsuke.stapler.StaplerResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.servlet.ServletException;
 import java.io.IOException;
@@ -156,23 +157,66 @@ public class Export {
             pruner = new ByDepth(1 - depth);
         }
 
-        DataWriter dw = flavor.createDataWriter(exposedBean, w, config);
-        if (exposedBean instanceof Object[]) {
+        writeBean(exposedBean, pruner, flavor.createDataWriter(exposedBean, w, config));
+
+        if(pad!=null) w.write(')');
+        w.close();
+    }
+
+    /**
+     * Serialize the supplied object to JSON as {@link #doJson(StaplerRequest, StaplerResponse, Object)} does for a
+     * request with the given {@code depth} parameter and no {@code tree} parameter.
+     * @param bean The object to serialize.
+     * @param depth The depth parameter.
+     * @return The JSON as a {@link String}.
+     * @throws IOException Error serializing model object.
+     */
+    @Nonnull
+    public static String toJson(@Nonnull Object bean, int depth) throws IOException {
+        try (StringWriter writer = new StringWriter()) {
+            ExportConfig exportConfig = createExportConfig().withFlavor(Flavor.JSON).withSkipIfFail(true);
+            writeBean(bean, new ByDepth(1 - depth), Flavor.JSON.createDataWriter(bean, writer, exportConfig));
+            writer.flush();
+            return writer.toString();
+        }
+    }
+
+    /**
+     * Serialize the supplied object to JSON and write to the supplied {@link Writer} as
+     * {@link #doJson(StaplerRequest, StaplerResponse, Object)} does for a request with the given {@code tree} and
+     * {@code depth} parameters, for responses written outside of the request thread.
+     * @param bean The object to serialize.
+     * @param tree The tree parameter, {@code depth} is ignored if given.
+     * @param depth The depth parameter.
+     * @param writer The writer to output to.
+     * @throws IOException Error serializing model object.
+     * @throws IllegalArgumentException Malformed tree expression.
+     */
+    public static void toJson(@Nonnull Object bean, @CheckForNull String tree, int depth, @Nonnull Writer writer) throws IOException {
+        TreePruner pruner = tree != null ? new NamedPathPruner(tree) : new ByDepth(1 - depth);
+        ExportConfig exportConfig = createExportConfig().withFlavor(Flavor.JSON).withSkipIfFail(true);
+        writeBean(bean, pruner, Flavor.JSON.createDataWriter(bean, writer, exportConfig));
+        writer.flush();
+    }
+
+    private static void writeBean(Object bean, TreePruner pruner, DataWriter dw) throws IOException {
+        if (bean instanceof Object[]) {
             // TODO: extend the contract of DataWriter to capture this
             // TODO: make this work with XML flavor (or at least reject this better)
             dw.startArray();
-            for (Object item : (Object[])exposedBean)
+            for (Object item : (Object[])bean)
                 writeOne(pruner, dw, item);
             dw.endArray();
         } else {
-            writeOne(pruner, dw, exposedBean);
+            writeOne(pruner, dw, bean);
         }
-
-        if(pad!=null) w.write(')');
-        w.close();
     }
 
     private static void writeOne(TreePruner pruner, DataWriter dw, Object item) throws IOException {
+        if (item instanceof SerializedBean) {
+            dw.valueJson(((SerializedBean) item).getJson());
+            return;
+        }
         Model p = MODEL_BUILDER.get(item.getClass());
         p.writeTo(item, pruner, dw);
     }
@@ -0,0 +1,15 @@
+package io.jenkins.blueocean.commons.stapler;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A bean already serialized to JSON, e.g. from a cache. {@link Export} writes the JSON as is in place of the bean when
+ * it is served, or is an element of an array served, regardless of the tree and depth parameters.
+ */
+public interface SerializedBean {
+    /**
+     * @return the bean serialized as {@link Export#toJson(Object)} does
+     */
+    @Nonnull
+    String getJson();
+}
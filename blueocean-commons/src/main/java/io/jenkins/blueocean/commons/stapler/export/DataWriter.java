@@ -53,6 +53,15 @@ public interface DataWriter {
     void value(String v) throws IOException;
     void valueNull() throws IOException;
 
+    /**
+     * Writes a value already serialized to JSON as is.
+     *
+     * @throws UnsupportedOperationException unless this writes JSON
+     */
+    default void valueJson(String json) throws IOException {
+        throw new UnsupportedOperationException("Not a JSON writer");
+    }
+
     void startArray() throws IOException;
     void endArray() throws IOException;
 
@@ -123,6 +123,11 @@ class JSONDataWriter implements DataWriter {
         data("null");
     }
 
+    @Override
+    public void valueJson(String json) throws IOException {
+        data(json);
+    }
+
     private void open(char symbol) throws IOException {
         comma();
         out.write(symbol);
@@ -26,16 +26,26 @@ package io.jenkins.blueocean.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.ExtensionListListener;
 import hudson.PluginWrapper;
+import hudson.Util;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Descriptor;
+import io.jenkins.blueocean.rest.ApiRoutable;
 import io.jenkins.blueocean.rest.model.BlueExtensionClass;
 import io.jenkins.blueocean.rest.model.BlueExtensionClassContainer;
 import jenkins.model.Jenkins;
 import net.sf.json.JSONArray;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -47,16 +57,16 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Utility class for gathering {@code jenkins-js-extension} data.
+ * <p>
+ * Also exposes the data at {@code /blue/rest/js-extensions/}, with an {@code ETag} so that browsers can revalidate it.
  */
 @Extension
 @Restricted(NoExternalUse.class)
 @SuppressWarnings({"rawtypes","unchecked"})
-public class JenkinsJSExtensions {
+public class JenkinsJSExtensions implements ApiRoutable {
 
     private static  final Logger LOGGER = LoggerFactory.getLogger(JenkinsJSExtensions.class);
 
@@ -67,55 +77,85 @@ public class JenkinsJSExtensions {
     private static final ObjectMapper mapper = new ObjectMapper();
 
     /**
-     * The list of active pluginCache "as we know it". Used to determine if pluginCache have
-     * been installed, uninstalled, deactivated etc.
-     * <p>
-     * We only do this because there's no jenkins mechanism for "listening" to
-     * changes in the active plugin list.
+     * The current extensions data. Immutable, dropped as a whole when a plugin is loaded.
      */
-    private static final List<PluginWrapper> pluginCache = new CopyOnWriteArrayList<>();
+    private static volatile Snapshot snapshot;
 
-    private static final Map<String, Object> jsExtensionCache = new ConcurrentHashMap<>();
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getUrlName() {
+        return "js-extensions";
+    }
+
+    /**
+     * Serve the extensions data, or 304 if the browser copy is still current.
+     */
+    public void doIndex(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        Snapshot current = getSnapshot();
+        // Replaces the no-store default set by ApiHead, the browser may keep a copy but must revalidate it
+        rsp.setHeader("Cache-Control", "no-cache");
+        rsp.setHeader("ETag", current.getETag());
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null && ifNoneMatch.contains(current.getETag())) {
+            rsp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        rsp.setContentType("application/json; charset=UTF-8");
+        rsp.getWriter().write(current.getJson());
+    }
 
     /**
-     * Return the actual data, from /js-extensions
+     * Get the current extensions data, pre-rendered.
      */
-    public static JSONArray getExtensionsData() {
-        Object jsExtensionData = getJenkinsJSExtensionData();
-        JSONArray jsExtensionDataJson = JSONArray.fromObject(jsExtensionData);
-        return jsExtensionDataJson;
+    public static Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = refreshSnapshot();
+        }
+        return current;
     }
 
-    /*protected*/ static Collection<Object> getJenkinsJSExtensionData() {
-        refreshCacheIfNeeded();
-        return jsExtensionCache.values();
+    /**
+     * Drop the current extensions data, the next {@link #getSnapshot()} reads it again.
+     */
+    synchronized static void invalidate() {
+        snapshot = null;
+    }
+
+    @Initializer(after = InitMilestone.EXTENSIONS_AUGMENTED)
+    public static void init() {
+        // Plugins can't be removed or disabled without a restart, only added by a dynamic load. That refreshes
+        // every extension list, and the descriptor list changes for any plugin that contributes a Describable.
+        ExtensionList.lookup(Descriptor.class).addListener(new ExtensionListListener() {
+            @Override
+            public void onChange() {
+                invalidate();
+            }
+        });
     }
 
     private static String getGav(Map ext){
         return (String) ext.get(PLUGIN_ID);
     }
 
-    private static void refreshCacheIfNeeded(){
-        List<PluginWrapper> latestPlugins = Jenkins.getInstance().getPluginManager().getPlugins();
-        if(!latestPlugins.equals(pluginCache)){
-            refreshCache(latestPlugins);
+    private synchronized static Snapshot refreshSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = new Snapshot(readExtensionData(Jenkins.getInstance().getPluginManager().getPlugins()));
+            snapshot = current;
         }
+        return current;
     }
-    private synchronized static void refreshCache(List<PluginWrapper> latestPlugins){
-        if(!latestPlugins.equals(pluginCache)) {
-            pluginCache.clear();
-            pluginCache.addAll(latestPlugins);
-            refreshCache(pluginCache);
-        }
-        for (PluginWrapper pluginWrapper : pluginCache) {
+
+    private static Collection<Object> readExtensionData(List<PluginWrapper> plugins) {
+        Map<String, Object> jsExtensionData = new LinkedHashMap<>();
+        for (PluginWrapper pluginWrapper : plugins) {
             //skip if not active
             if (!pluginWrapper.isActive()) {
                 continue;
             }
-            //skip probing plugin if already read
-            if (jsExtensionCache.get(pluginWrapper.getLongName()) != null) {
-                continue;
-            }
             try {
                 Enumeration<URL> dataResources = pluginWrapper.classLoader.getResources("jenkins-js-extension.json");
                 boolean hasDefinedExtensions = false;
@@ -164,7 +204,7 @@ public class JenkinsJSExtensions {
                         }
 
                         extensionData.put(PLUGIN_VER, pluginWrapper.getVersion());
-                        jsExtensionCache.put(pluginId, mergeObjects(extensionData));
+                        jsExtensionData.put(pluginId, mergeObjects(extensionData));
                         hasDefinedExtensions = true;
                     }
                 }
@@ -177,12 +217,40 @@ public class JenkinsJSExtensions {
                     extensionData.put(PLUGIN_ID, pluginWrapper.getShortName());
                     extensionData.put(PLUGIN_VER, pluginWrapper.getVersion());
                     extensionData.put(PLUGIN_EXT, Collections.emptyList());
-                    jsExtensionCache.put(pluginWrapper.getShortName(), mergeObjects(extensionData));
+                    jsExtensionData.put(pluginWrapper.getShortName(), mergeObjects(extensionData));
                 }
             } catch (IOException e) {
                 LOGGER.error(String.format("Error locating jenkins-js-extension.json for plugin %s", pluginWrapper.getLongName()));
             }
         }
+        return Collections.unmodifiableCollection(new ArrayList<>(jsExtensionData.values()));
+    }
+
+    /**
+     * Extensions data of the installed plugins, rendered once as JSON text with a content hash.
+     */
+    public static final class Snapshot {
+        private final String json;
+        private final String etag;
+
+        Snapshot(Collection<Object> data) {
+            this.json = JSONArray.fromObject(data).toString();
+            this.etag = '"' + Util.getDigestOf(json) + '"';
+        }
+
+        /**
+         * @return the extensions data as a JSON array
+         */
+        public String getJson() {
+            return json;
+        }
+
+        /**
+         * @return a strong ETag of {@link #getJson()}
+         */
+        public String getETag() {
+            return etag;
+        }
     }
 
     //
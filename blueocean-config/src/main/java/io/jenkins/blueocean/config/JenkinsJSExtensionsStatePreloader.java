@@ -22,6 +22,6 @@ public class JenkinsJSExtensionsStatePreloader extends PageStatePreloader {
      */
     @Override
     public String getStateJson() {
-        return JenkinsJSExtensions.getExtensionsData().toString();
+        return JenkinsJSExtensions.getSnapshot().getJson();
     }
 }
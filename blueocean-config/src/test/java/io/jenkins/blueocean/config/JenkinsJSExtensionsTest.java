@@ -0,0 +1,65 @@
+package io.jenkins.blueocean.config;
+
+import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebResponse;
+import hudson.ExtensionList;
+import hudson.model.Descriptor;
+import hudson.model.FreeStyleProject;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.net.URL;
+
+import static org.junit.Assert.*;
+
+public class JenkinsJSExtensionsTest {
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void extensionsServedWithETag() throws Exception {
+        JenkinsRule.WebClient webClient = j.createWebClient();
+        URL url = new URL(j.getURL(), "blue/rest/js-extensions/");
+        WebResponse first = webClient.loadWebResponse(new WebRequest(url));
+        assertEquals(200, first.getStatusCode());
+        assertEquals("no-cache", first.getResponseHeaderValue("Cache-Control"));
+        String etag = first.getResponseHeaderValue("ETag");
+        assertEquals(JenkinsJSExtensions.getSnapshot().getETag(), etag);
+
+        JSONArray extensions = JSONArray.fromObject(first.getContentAsString());
+        JSONObject config = null;
+        for (Object o : extensions) {
+            if ("blueocean-config".equals(((JSONObject) o).get("hpiPluginId"))) {
+                config = (JSONObject) o;
+            }
+        }
+        assertNotNull("every plugin has an entry", config);
+
+        WebRequest revalidate = new WebRequest(url);
+        revalidate.setAdditionalHeader("If-None-Match", etag);
+        WebResponse notModified = webClient.loadWebResponse(revalidate);
+        assertEquals(304, notModified.getStatusCode());
+        assertEquals("", notModified.getContentAsString());
+
+        WebRequest stale = new WebRequest(url);
+        stale.setAdditionalHeader("If-None-Match", "\"stale\"");
+        assertEquals(200, webClient.loadWebResponse(stale).getStatusCode());
+    }
+
+    @Test
+    public void snapshotReadOnce() throws Exception {
+        JenkinsJSExtensions.Snapshot snapshot = JenkinsJSExtensions.getSnapshot();
+        assertSame(snapshot, JenkinsJSExtensions.getSnapshot());
+        assertEquals(snapshot.getJson(), new JenkinsJSExtensionsStatePreloader().getStateJson());
+
+        // what a dynamically loaded plugin does to the descriptor list
+        ExtensionList.lookup(Descriptor.class).add(j.jenkins.getDescriptorOrDie(FreeStyleProject.class));
+        JenkinsJSExtensions.Snapshot reloaded = JenkinsJSExtensions.getSnapshot();
+        assertNotSame(snapshot, reloaded);
+        // same plugins, same content
+        assertEquals(snapshot.getETag(), reloaded.getETag());
+    }
+}
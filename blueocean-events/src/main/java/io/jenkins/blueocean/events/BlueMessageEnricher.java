@@ -23,15 +23,17 @@
  */
 package io.jenkins.blueocean.events;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import hudson.Extension;
 import hudson.model.Item;
 import hudson.model.ItemGroup;
 import hudson.model.Queue;
+import hudson.model.queue.QueueListener;
 import io.jenkins.blueocean.rest.factory.organization.OrganizationFactory;
 import io.jenkins.blueocean.rest.hal.Link;
 import io.jenkins.blueocean.rest.hal.LinkResolver;
 import io.jenkins.blueocean.rest.model.BlueOrganization;
-import io.jenkins.blueocean.rest.model.BlueQueueItem;
 import io.jenkins.blueocean.service.embedded.rest.AbstractPipelineImpl;
 import io.jenkins.blueocean.service.embedded.rest.QueueUtil;
 import jenkins.model.Jenkins;
@@ -57,6 +59,19 @@ public class BlueMessageEnricher extends MessageEnricher {
 
     private static final Logger LOGGER = Logger.getLogger(BlueMessageEnricher.class.getName());
 
+    /**
+     * Expected build number cache maximum number of entries. Default 10000.
+     */
+    static final long EXPECTED_BUILD_NUMBER_CACHE_MAX_SIZE = Long.getLong("BLUE_MESSAGE_EXPECTED_BUILD_NUMBER_CACHE_MAX_SIZE", 10000);
+
+    /**
+     * Expected build numbers of the queued items, keyed by queue id. The number doesn't change while the item waits:
+     * when an earlier item of the same job starts, the next build number goes up as the item moves up.
+     */
+    static final Cache<Long, Integer> EXPECTED_BUILD_NUMBERS = CacheBuilder.newBuilder()
+            .maximumSize(EXPECTED_BUILD_NUMBER_CACHE_MAX_SIZE)
+            .build();
+
     enum BlueEventProps {
         blueocean_job_rest_url,
         blueocean_job_pipeline_name,
@@ -83,6 +98,7 @@ public class BlueMessageEnricher extends MessageEnricher {
                 return;
             }
 
+            // resolved from the link cache of the resolver
             Link jobUrl = LinkResolver.resolveLink(jobChannelItem);
             if (jobUrl == null) {
                 return;
@@ -109,14 +125,19 @@ public class BlueMessageEnricher extends MessageEnricher {
                     return;
                 }
                 final long queueId = Long.parseLong(queueIdStr);
-                Queue.Item queueItem = Jenkins.getInstance().getQueue().getItem(queueId);
-                if (queueItem == null) {
-                    return;
+                Integer expectedBuildNumber = EXPECTED_BUILD_NUMBERS.getIfPresent(queueId);
+                if (expectedBuildNumber == null) {
+                    if (Jenkins.getInstance().getQueue().getItem(queueId) == null) {
+                        return;
+                    }
+                    int computed = QueueUtil.getExpectedBuildNumber(queueId, (hudson.model.Job) jobChannelItem);
+                    if (computed >= 0) {
+                        expectedBuildNumber = computed;
+                        EXPECTED_BUILD_NUMBERS.put(queueId, expectedBuildNumber);
+                    }
                 }
-                hudson.model.Job job = (hudson.model.Job) jobChannelItem;
-                BlueQueueItem blueQueueItem = QueueUtil.getQueuedItem(null, queueItem, job);
-                if (blueQueueItem != null) {
-                    jobChannelMessage.set(BlueEventProps.blueocean_queue_item_expected_build_number, Integer.toString(blueQueueItem.getExpectedBuildNumber()));
+                if (expectedBuildNumber != null) {
+                    jobChannelMessage.set(BlueEventProps.blueocean_queue_item_expected_build_number, Integer.toString(expectedBuildNumber));
                 } else {
                     // If build is already running, we simply take the run id and pass it on
                     if(message.get("job_run_status") != null){
@@ -130,4 +151,12 @@ public class BlueMessageEnricher extends MessageEnricher {
 
         }
     }
+
+    @Extension
+    public static class ExpectedBuildNumberInvalidator extends QueueListener {
+        @Override
+        public void onLeft(Queue.LeftItem li) {
+            EXPECTED_BUILD_NUMBERS.invalidate(li.getId());
+        }
+    }
 }
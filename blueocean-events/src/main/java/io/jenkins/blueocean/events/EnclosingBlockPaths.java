@@ -0,0 +1,105 @@
+package io.jenkins.blueocean.events;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.graph.BlockEndNode;
+import org.jenkinsci.plugins.workflow.graph.BlockStartNode;
+import org.jenkinsci.plugins.workflow.graph.FlowEndNode;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Incrementally tracks the event context path (ids of all enclosing blocks, outermost first, joined with "/")
+ * of every open block of a running pipeline.
+ *
+ * Fed from {@link PipelineEventListener#onNewHead(FlowNode)}: a block start registers its path as its enclosing
+ * block's path plus its own id, a block end forgets it. Looking up the context of a node is then a single map
+ * read of its enclosing block, instead of walking {@link FlowNode#getAllEnclosingIds()}.
+ */
+final class EnclosingBlockPaths {
+
+    private final Cache<FlowExecution, ConcurrentMap<String, String>> paths = CacheBuilder.newBuilder()
+                                                                               .weakKeys()
+                                                                               .build();
+
+    /**
+     * Must be called for each new head, before {@link #contextOf(FlowNode)} or {@link #pathOf(FlowNode)}.
+     */
+    void onNewHead(@Nonnull FlowNode flowNode) {
+        if (flowNode instanceof BlockStartNode) {
+            blockPaths(flowNode.getExecution()).put(flowNode.getId(), append(contextOf(flowNode), flowNode.getId()));
+        }
+    }
+
+    /**
+     * Must be called for each new head, after its event context has been computed.
+     */
+    void afterNewHead(@Nonnull FlowNode flowNode) {
+        if (flowNode instanceof FlowEndNode) {
+            paths.invalidate(flowNode.getExecution());
+        } else if (flowNode instanceof BlockEndNode) {
+            blockPaths(flowNode.getExecution()).remove(((BlockEndNode) flowNode).getStartNode().getId());
+        }
+    }
+
+    /**
+     * @return path of the enclosing blocks of the given node, empty if there are none
+     */
+    @Nonnull String contextOf(@Nonnull FlowNode flowNode) {
+        String enclosingId = flowNode.getEnclosingId();
+        if (enclosingId == null) {
+            return "";
+        }
+        String path = blockPaths(flowNode.getExecution()).get(enclosingId);
+        if (path == null) {
+            // Not seen as a new head, e.g. resumed after restart. Compute it once, the hard way.
+            path = toPath(flowNode.getAllEnclosingIds());
+            blockPaths(flowNode.getExecution()).put(enclosingId, path);
+        }
+        return path;
+    }
+
+    /**
+     * @return path of the given block start node, including its own id
+     */
+    @Nonnull String pathOf(@Nonnull FlowNode blockStart) {
+        String path = blockPaths(blockStart.getExecution()).get(blockStart.getId());
+        if (path == null) {
+            path = append(contextOf(blockStart), blockStart.getId());
+        }
+        return path;
+    }
+
+    private ConcurrentMap<String, String> blockPaths(FlowExecution execution) {
+        try {
+            return paths.get(execution, ConcurrentHashMap::new);
+        } catch (ExecutionException e) {
+            // ConcurrentHashMap constructor does not throw
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String append(String path, String id) {
+        return path.isEmpty() ? id : path + "/" + id;
+    }
+
+    /**
+     * @param enclosingIds enclosing block ids, innermost first
+     */
+    private static String toPath(List<String> enclosingIds) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = enclosingIds.size() - 1; i >= 0; i--) {
+            if (builder.length() > 0) {
+                builder.append("/");
+            }
+            builder.append(enclosingIds.get(i));
+        }
+        return builder.toString();
+    }
+}
@@ -2,15 +2,12 @@ package io.jenkins.blueocean.events;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.collect.Lists;
 import hudson.Extension;
 import hudson.model.Queue;
 import hudson.model.Run;
 import io.jenkins.blueocean.rest.impl.pipeline.PipelineInputStepListener;
 import io.jenkins.blueocean.rest.impl.pipeline.PipelineNodeUtil;
 import java.io.IOException;
-import java.util.Collection;
-import java.util.List;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -66,57 +63,76 @@ public class PipelineEventListener implements GraphListener {
     private final ConcurrentMap<FlowExecution, String> currentStageId = currentStageIdCache.asMap();
 
 
+    private final EnclosingBlockPaths blockPaths = new EnclosingBlockPaths();
+
     @Override
-    public void onNewHead(FlowNode flowNode) {
+    public void onNewHead(final FlowNode flowNode) {
+        blockPaths.onNewHead(flowNode);
+        try {
+            publishNewHead(flowNode);
+        } finally {
+            blockPaths.afterNewHead(flowNode);
+        }
+    }
+
+    private void publishNewHead(final FlowNode flowNode) {
+        final FlowExecution execution = flowNode.getExecution();
         // test whether we have a stage node
         if (PipelineNodeUtil.isStage(flowNode)) {
-            List<String> branch = getBranch(flowNode);
             if(flowNode.getDisplayName()!=null) {
-                currentStageName.put(flowNode.getExecution(), flowNode.getDisplayName());
+                currentStageName.put(execution, flowNode.getDisplayName());
             }
             if(flowNode.getId()!=null) {
-                currentStageId.put( flowNode.getExecution(), flowNode.getId() );
+                currentStageId.put(execution, flowNode.getId() );
             }
-            publishEvent(newMessage(PipelineEventChannel.Event.pipeline_stage, flowNode, branch));
+            enqueue(PipelineEventChannel.Event.pipeline_stage, flowNode, blockPaths.contextOf(flowNode), false);
         } else if (flowNode instanceof StepStartNode) {
             if (flowNode.getAction(BodyInvocationAction.class) != null) {
-                List<String> branch = getBranch(flowNode);
-                branch.add(flowNode.getId());
-                publishEvent(newMessage(PipelineEventChannel.Event.pipeline_block_start, flowNode, branch));
+                enqueue(PipelineEventChannel.Event.pipeline_block_start, flowNode, blockPaths.pathOf(flowNode), false);
             } else if (flowNode.getPersistentAction(QueueItemAction.class) != null) {
                 // Make sure we fire an event for the start of node blocks.
-                List<String> branch = getBranch(flowNode);
-                publishEvent(newMessage(PipelineEventChannel.Event.pipeline_step, flowNode, branch));
+                enqueue(PipelineEventChannel.Event.pipeline_step, flowNode, blockPaths.contextOf(flowNode), false);
             }
         } else if (flowNode instanceof StepAtomNode) {
-            List<String> branch = getBranch(flowNode);
-            publishEvent(newMessage(PipelineEventChannel.Event.pipeline_step, flowNode, branch));
+            // Plain steps can come in bursts (e.g. sh/echo in a loop), only the latest one per branch needs
+            // publishing. Input steps are not merged, their event tells the UI the run is paused.
+            boolean coalescable = !(((StepAtomNode) flowNode).getDescriptor() instanceof InputStep.DescriptorImpl);
+            enqueue(PipelineEventChannel.Event.pipeline_step, flowNode, blockPaths.contextOf(flowNode), coalescable);
         } else if (flowNode instanceof StepEndNode) {
             if (flowNode.getAction(BodyInvocationAction.class) != null) {
                 FlowNode startNode = ((StepEndNode) flowNode).getStartNode();
-                String startNodeId = startNode.getId();
-                List<String> branch = getBranch(startNode);
-                branch.add(startNodeId);
-                publishEvent(newMessage(PipelineEventChannel.Event.pipeline_block_end, flowNode, branch));
+                enqueue(PipelineEventChannel.Event.pipeline_block_end, flowNode, blockPaths.pathOf(startNode), false);
             }
         } else if (flowNode instanceof FlowEndNode) {
-            publishEvent(newMessage(PipelineEventChannel.Event.pipeline_end, flowNode.getExecution()));
+            publishEvent(PipelineEventChannel.Event.pipeline_end, execution);
         }
     }
 
-    /* package: so that we can unit test it */ List<String> getBranch(FlowNode flowNode) {
-        return Lists.reverse(flowNode.getAllEnclosingIds());
-    }
-
-    private String toPath(Collection<String> branch) {
-        StringBuilder builder = new StringBuilder();
-        for(String leaf: branch){
-            if(builder.length() > 0) {
-                builder.append("/");
+    /**
+     * Enqueue a FlowNode event on the {@link PipelineEventPublisher}. The current stage and event context are
+     * captured now, on the CPS VM thread, everything else is computed on the publisher thread. Coalescable events are
+     * merged with later ones of the same enclosing blocks, i.e. the same parallel branch.
+     */
+    private void enqueue(final PipelineEventChannel.Event event, final FlowNode flowNode, final String context,
+                         boolean coalescable) {
+        final FlowExecution execution = flowNode.getExecution();
+        final String stageName = currentStageName.get(execution);
+        final String stageId = currentStageId.get(execution);
+        PipelineEventPublisher.MessageFactory factory = new PipelineEventPublisher.MessageFactory() {
+            @Override
+            public Message create() {
+                return newMessage(event, flowNode, context, stageName, stageId);
             }
-            builder.append(leaf);
+        };
+        if (coalescable) {
+            PipelineEventPublisher.get().enqueueCoalescable(execution, context, factory);
+        } else {
+            PipelineEventPublisher.get().enqueue(execution, factory);
         }
-        return builder.toString();
+    }
+
+    /* package: so that we can unit test it */ String getContextPath(FlowNode flowNode) {
+        return blockPaths.contextOf(flowNode);
     }
 
     private static @CheckForNull Run<?, ?> runFor(FlowExecution exec) {
@@ -146,15 +162,14 @@ public class PipelineEventListener implements GraphListener {
         return message;
     }
 
-    private Message newMessage(PipelineEventChannel.Event event, FlowNode flowNode, Collection<String> branch) {
+    private Message newMessage(PipelineEventChannel.Event event, FlowNode flowNode, String context,
+                               @CheckForNull String stageName, @CheckForNull String stageId) {
         Message message = newMessage(event, flowNode.getExecution());
 
         message.set(PipelineEventChannel.EventProps.pipeline_step_flownode_id, flowNode.getId());
-        message.set(PipelineEventChannel.EventProps.pipeline_context, toPath(branch));
-        if (currentStageName != null) {
-            message.set(PipelineEventChannel.EventProps.pipeline_step_stage_name, currentStageName.get(flowNode.getExecution()));
-            message.set(PipelineEventChannel.EventProps.pipeline_step_stage_id, currentStageId.get(flowNode.getExecution()));
-        }
+        message.set(PipelineEventChannel.EventProps.pipeline_context, context);
+        message.set(PipelineEventChannel.EventProps.pipeline_step_stage_name, stageName);
+        message.set(PipelineEventChannel.EventProps.pipeline_step_stage_id, stageId);
         if (flowNode instanceof StepNode) {
             StepNode stepNode = (StepNode) flowNode;
             StepDescriptor stepDescriptor = stepNode.getDescriptor();
@@ -191,12 +206,17 @@ public class PipelineEventListener implements GraphListener {
         return message;
     }
 
-    private static void publishEvent(Message message) {
-        try {
-            PubsubBus.getBus().publish(message);
-        } catch (MessageException e) {
-            LOGGER.log(Level.SEVERE, "Unexpected error publishing pipeline FlowNode event.", e);
-        }
+    /**
+     * Publish a run level pipeline event through the {@link PipelineEventPublisher} so that it keeps its order
+     * relative to the FlowNode events of the same run.
+     */
+    private static void publishEvent(final PipelineEventChannel.Event event, final FlowExecution execution) {
+        PipelineEventPublisher.get().enqueue(execution, new PipelineEventPublisher.MessageFactory() {
+            @Override
+            public Message create() {
+                return newMessage(event, execution);
+            }
+        });
     }
 
     private static void publishJobEvent(@Nonnull Run<?,?> run, @Nonnull Events.JobChannel event) {
@@ -215,7 +235,7 @@ public class PipelineEventListener implements GraphListener {
 
         @Override
         public void onRunning(FlowExecution execution) {
-            publishEvent(newMessage(PipelineEventChannel.Event.pipeline_start, execution));
+            publishEvent(PipelineEventChannel.Event.pipeline_start, execution);
         }
 
     }
@@ -224,7 +244,23 @@ public class PipelineEventListener implements GraphListener {
     public static class InputStepPublisher implements PipelineInputStepListener {
 
         @Override
-        public void onStepContinue(InputStep inputStep, WorkflowRun run) {
+        public void onStepContinue(InputStep inputStep, final WorkflowRun run) {
+            FlowExecution execution = run.getExecution();
+            if (execution == null) {
+                publishUnpaused(run);
+                return;
+            }
+            // go through the publisher so that we can't overtake a queued paused event
+            PipelineEventPublisher.get().enqueue(execution, new PipelineEventPublisher.MessageFactory() {
+                @Override
+                public Message create() {
+                    publishUnpaused(run);
+                    return null;
+                }
+            });
+        }
+
+        private static void publishUnpaused(WorkflowRun run) {
             // fire an unpaused event in case the input step has received its input
             try {
                 PubsubBus.getBus().publish(new RunMessage(run)
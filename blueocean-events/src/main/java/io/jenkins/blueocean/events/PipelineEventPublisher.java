@@ -0,0 +1,250 @@
+package io.jenkins.blueocean.events;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import org.jenkinsci.plugins.pubsub.Message;
+import org.jenkinsci.plugins.pubsub.MessageException;
+import org.jenkinsci.plugins.pubsub.PubsubBus;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded, asynchronous publisher for pipeline FlowNode events.
+ *
+ * {@link PipelineEventListener} runs on the CPS VM thread, so it only enqueues a {@link MessageFactory} here.
+ * Message enrichment and {@link PubsubBus#publish(Message)} happen on a single dispatcher thread.
+ *
+ * Coalescable events (plain step events) for the same branch of a run that arrive within
+ * {@link #COALESCE_WINDOW_MILLIS} are merged so that only the latest one is published. Any other event for that run
+ * first flushes the pending step events of all its branches, so stage, block, start and end events keep their order.
+ * <p>
+ * Enqueueing never blocks the CPS VM thread. Only step events are bounded, by {@link #QUEUE_SIZE}: once that many are
+ * queued, new ones are dropped, as the next event of their run refreshes the UI anyway. Other events, such as stage,
+ * block and pipeline end events, are never dropped. Drops are logged, at most once per {@link #REPORT_INTERVAL_MILLIS}.
+ *
+ * @see #getDroppedEventCount()
+ * @see #getMergedEventCount()
+ */
+final class PipelineEventPublisher {
+
+    private static final Logger LOGGER = Logger.getLogger(PipelineEventPublisher.class.getName());
+
+    static final String QUEUE_SIZE_KEY = "blueocean.events.pipeline.queueSize";
+    static final String COALESCE_WINDOW_KEY = "blueocean.events.pipeline.coalesceWindow";
+
+    static final int QUEUE_SIZE = Integer.getInteger(QUEUE_SIZE_KEY, 10000);
+    static final long COALESCE_WINDOW_MILLIS = Integer.getInteger(COALESCE_WINDOW_KEY, 100);
+
+    private static final long REPORT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final PipelineEventPublisher INSTANCE = new PipelineEventPublisher();
+
+    private final BlockingQueue<PendingEvent> queue = new LinkedBlockingQueue<>();
+
+    /** Number of step events in {@link #queue} */
+    private final AtomicInteger queuedSteps = new AtomicInteger();
+
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(
+        new NamingThreadFactory(new DaemonThreadFactory(), "Blue Ocean pipeline event publisher"));
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * Coalescable events waiting for their window to elapse, keyed by run and branch.
+     * Insertion order is deadline order since a merged event keeps the deadline of the event it replaces.
+     * Only touched by the dispatcher thread.
+     */
+    private final Map<Object, PendingEvent> pending = new LinkedHashMap<>();
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong lastReport = new AtomicLong();
+
+    private PipelineEventPublisher() {}
+
+    static PipelineEventPublisher get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Creates the message to publish. Invoked on the dispatcher thread.
+     */
+    interface MessageFactory {
+        @CheckForNull Message create();
+    }
+
+    /**
+     * Enqueue an event that is published in order with the other events of its run.
+     *
+     * @param run identifies the run the event belongs to, typically the {@code FlowExecution}
+     * @param factory creates the message on the dispatcher thread
+     */
+    void enqueue(@Nonnull Object run, @Nonnull MessageFactory factory) {
+        offer(new PendingEvent(run, null, factory));
+    }
+
+    /**
+     * Enqueue an event that may be merged with later coalescable events of the same branch.
+     *
+     * @param run identifies the run the event belongs to, typically the {@code FlowExecution}
+     * @param branch identifies the branch of the run the event belongs to, e.g. its enclosing blocks
+     * @param factory creates the message on the dispatcher thread
+     */
+    void enqueueCoalescable(@Nonnull Object run, @Nonnull Object branch, @Nonnull MessageFactory factory) {
+        // Losing a step event is harmless, the next event for the run refreshes the UI anyway
+        if (queuedSteps.incrementAndGet() > QUEUE_SIZE) {
+            queuedSteps.decrementAndGet();
+            dropped.incrementAndGet();
+            reportDropped();
+            return;
+        }
+        offer(new PendingEvent(run, Arrays.asList(run, branch), factory));
+    }
+
+    private void offer(PendingEvent event) {
+        if (started.compareAndSet(false, true)) {
+            dispatcher.execute(this::dispatch);
+        }
+        queue.offer(event);
+    }
+
+    private void reportDropped() {
+        long now = System.currentTimeMillis();
+        long last = lastReport.get();
+        if (now - last >= REPORT_INTERVAL_MILLIS && lastReport.compareAndSet(last, now)) {
+            LOGGER.log(Level.WARNING, "Pipeline step events are coming in faster than they can be published, {0} were "
+                       + "dropped so far and {1} merged. See {2} to queue more of them.",
+                       new Object[]{dropped.get(), merged.get(), QUEUE_SIZE_KEY});
+        }
+    }
+
+    /**
+     * @return number of step events dropped because too many were queued
+     */
+    long getDroppedEventCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return number of step events merged into a later step event of the same branch
+     */
+    long getMergedEventCount() {
+        return merged.get();
+    }
+
+    /**
+     * @return number of messages handed to the {@link PubsubBus}
+     */
+    long getPublishedEventCount() {
+        return published.get();
+    }
+
+    private void dispatch() {
+        while (true) {
+            try {
+                PendingEvent next;
+                PendingEvent first = pending.isEmpty() ? null : pending.values().iterator().next();
+                if (first == null) {
+                    next = queue.take();
+                } else {
+                    next = queue.poll(Math.max(0, first.deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                }
+                if (next != null) {
+                    if (next.coalesceKey != null) {
+                        queuedSteps.decrementAndGet();
+                    }
+                    handle(next);
+                }
+                flushExpired(System.nanoTime());
+            } catch (InterruptedException e) {
+                LOGGER.log(Level.FINE, "Pipeline event publisher interrupted, exiting", e);
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Unexpected error dispatching pipeline FlowNode event.", e);
+            }
+        }
+    }
+
+    private void handle(PendingEvent event) {
+        if (event.coalesceKey != null) {
+            PendingEvent previous = pending.get(event.coalesceKey);
+            if (previous != null) {
+                event.deadline = previous.deadline;
+                merged.incrementAndGet();
+            }
+            pending.put(event.coalesceKey, event);
+        } else {
+            Iterator<PendingEvent> it = pending.values().iterator();
+            while (it.hasNext()) {
+                PendingEvent previous = it.next();
+                if (previous.run.equals(event.run)) {
+                    it.remove();
+                    publish(previous);
+                }
+            }
+            publish(event);
+        }
+    }
+
+    private void flushExpired(long now) {
+        Iterator<PendingEvent> it = pending.values().iterator();
+        while (it.hasNext()) {
+            PendingEvent event = it.next();
+            if (event.deadline - now > 0) {
+                return;
+            }
+            it.remove();
+            publish(event);
+        }
+    }
+
+    private void publish(PendingEvent event) {
+        Message message;
+        try {
+            message = event.factory.create();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unable to create pipeline FlowNode event.", e);
+            return;
+        }
+        if (message == null) {
+            return;
+        }
+        try {
+            PubsubBus.getBus().publish(message);
+            published.incrementAndGet();
+        } catch (MessageException e) {
+            LOGGER.log(Level.SEVERE, "Unexpected error publishing pipeline FlowNode event.", e);
+        }
+    }
+
+    private static final class PendingEvent {
+        private final Object run;
+        /** Run and branch of a coalescable event, null for ordered events */
+        @CheckForNull private final Object coalesceKey;
+        private final MessageFactory factory;
+        private long deadline;
+
+        PendingEvent(Object run, @CheckForNull Object coalesceKey, MessageFactory factory) {
+            this.run = run;
+            this.coalesceKey = coalesceKey;
+            this.factory = factory;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(COALESCE_WINDOW_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package io.jenkins.blueocean.events;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Items;
+import hudson.model.Queue;
+import jenkins.branch.BranchProperty;
+import jenkins.branch.BranchSource;
+import jenkins.branch.DefaultBranchPropertyStrategy;
+import jenkins.plugins.git.GitSCMSource;
+import jenkins.plugins.git.GitSampleRepoRule;
+import org.jenkinsci.plugins.pubsub.JobMessage;
+import org.jenkinsci.plugins.pubsub.Message;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockFolder;
+
+import static io.jenkins.blueocean.events.BlueMessageEnricher.BlueEventProps.*;
+import static org.junit.Assert.*;
+
+public class BlueMessageEnricherTest {
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Rule
+    public GitSampleRepoRule sampleRepo = new GitSampleRepoRule();
+
+    private final BlueMessageEnricher enricher = new BlueMessageEnricher();
+
+    @Test
+    public void renameAndMoveUpdateJobUrl() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject("p1");
+        Message message = enrich(new JobMessage(p));
+        assertEquals("/blue/rest/organizations/jenkins/pipelines/p1/", message.get(blueocean_job_rest_url));
+        assertEquals("p1", message.get(blueocean_job_pipeline_name));
+
+        p.renameTo("p2");
+        message = enrich(new JobMessage(p));
+        assertEquals("/blue/rest/organizations/jenkins/pipelines/p2/", message.get(blueocean_job_rest_url));
+        assertEquals("p2", message.get(blueocean_job_pipeline_name));
+
+        MockFolder folder = j.createFolder("f");
+        p = Items.move(p, folder);
+        message = enrich(new JobMessage(p));
+        assertEquals("/blue/rest/organizations/jenkins/pipelines/f/pipelines/p2/", message.get(blueocean_job_rest_url));
+        assertEquals("f/p2", message.get(blueocean_job_pipeline_name));
+    }
+
+    @Test
+    public void renamingMultiBranchProjectInvalidatesBranches() throws Exception {
+        sampleRepo.init();
+        sampleRepo.write("Jenkinsfile", "echo 'hello'");
+        sampleRepo.git("add", "Jenkinsfile");
+        sampleRepo.git("commit", "--all", "--message=flow");
+
+        WorkflowMultiBranchProject mp = j.jenkins.createProject(WorkflowMultiBranchProject.class, "mp1");
+        mp.getSourcesList().add(new BranchSource(new GitSCMSource(null, sampleRepo.toString(), "", "*", "", false),
+                                                 new DefaultBranchPropertyStrategy(new BranchProperty[0])));
+        mp.scheduleBuild2(0).getFuture().get();
+        j.waitUntilNoActivity();
+        WorkflowJob master = mp.getItem("master");
+        assertNotNull(master);
+
+        Message message = enrich(new JobMessage(master));
+        assertEquals("/blue/rest/organizations/jenkins/pipelines/mp1/branches/master/", message.get(blueocean_job_rest_url));
+        assertEquals("mp1", message.get(blueocean_job_pipeline_name));
+        assertEquals("master", message.get(blueocean_job_branch_name));
+
+        mp.renameTo("mp2");
+        message = enrich(new JobMessage(master));
+        assertEquals("/blue/rest/organizations/jenkins/pipelines/mp2/branches/master/", message.get(blueocean_job_rest_url));
+        assertEquals("mp2", message.get(blueocean_job_pipeline_name));
+        assertEquals("master", message.get(blueocean_job_branch_name));
+    }
+
+    @Test
+    public void expectedBuildNumberOfQueuedItem() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject("p1");
+        p.scheduleBuild2(300);
+        Queue.Item item = j.jenkins.getQueue().getItem(p);
+        assertNotNull(item);
+
+        Message message = new JobMessage(p).set("job_run_queueId", Long.toString(item.getId()));
+        enrich(message);
+        assertEquals("1", message.get(blueocean_queue_item_expected_build_number));
+        assertEquals(Integer.valueOf(1), BlueMessageEnricher.EXPECTED_BUILD_NUMBERS.getIfPresent(item.getId()));
+
+        j.jenkins.getQueue().cancel(item);
+        assertNull(BlueMessageEnricher.EXPECTED_BUILD_NUMBERS.getIfPresent(item.getId()));
+    }
+
+    @Test
+    public void noExpectedBuildNumberWithoutQueueItem() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject("p1");
+
+        Message message = new JobMessage(p)
+            .set("job_run_queueId", "123456")
+            .set("job_run_status", "RUNNING")
+            .set("jenkins_object_id", "1");
+        enrich(message);
+        assertEquals("/blue/rest/organizations/jenkins/pipelines/p1/", message.get(blueocean_job_rest_url));
+        assertNull(message.get(blueocean_queue_item_expected_build_number));
+    }
+
+    private Message enrich(Message message) {
+        enricher.enrich(message);
+        return message;
+    }
+}
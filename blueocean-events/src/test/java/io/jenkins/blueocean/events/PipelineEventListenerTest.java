@@ -4,9 +4,11 @@ import com.google.common.collect.Lists;
 import hudson.model.Result;
 import io.jenkins.blueocean.rest.impl.pipeline.NodeGraphBuilder;
 import io.jenkins.blueocean.rest.impl.pipeline.PipelineBaseTest;
+import java.util.Comparator;
 import java.util.List;
 import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.graphanalysis.DepthFirstScanner;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.junit.Assert;
@@ -40,6 +42,40 @@ public class PipelineEventListenerTest extends PipelineBaseTest{
         Assert.assertEquals("Branch: branch1", parallels.get(0).getDisplayName());
 
         Assert.assertEquals(Lists.newArrayList("2","3","4","5","6","8"),
-                new PipelineEventListener().getBranch(parallels.get(0)));
+                getBranchOf(parallels.get(0)));
+        Assert.assertEquals("2/3/4/5/6/8", new PipelineEventListener().getContextPath(parallels.get(0)));
+    }
+
+    @Test
+    public void testIncrementalContextPath() throws Exception {
+        String script = "node {\n" +
+                "    stage('one') {\n" +
+                "        parallel('branch1':{\n" +
+                "          echo 'branch1'\n" +
+                "        }, 'branch2': {\n" +
+                "          echo 'branch2'\n" +
+                "        })\n" +
+                "    }\n" +
+                "}";
+        WorkflowJob job1 = j.jenkins.createProject(WorkflowJob.class, "pipeline1");
+        job1.setDefinition(new CpsFlowDefinition(script));
+        WorkflowRun b1 = job1.scheduleBuild2(0).get();
+        j.assertBuildStatus(Result.SUCCESS, b1);
+
+        List<FlowNode> nodes = new DepthFirstScanner().allNodes(b1.getExecution());
+        nodes.sort(Comparator.comparingInt(n -> Integer.parseInt(n.getId())));
+
+        // Replay the graph in creation order, as onNewHead would see it
+        EnclosingBlockPaths blockPaths = new EnclosingBlockPaths();
+        for (FlowNode node : nodes) {
+            blockPaths.onNewHead(node);
+            String expected = String.join("/", getBranchOf(node));
+            Assert.assertEquals("context of node " + node.getId(), expected, blockPaths.contextOf(node));
+            blockPaths.afterNewHead(node);
+        }
+    }
+
+    private static List<String> getBranchOf(FlowNode node) {
+        return Lists.reverse(node.getAllEnclosingIds());
     }
 }
@@ -0,0 +1,124 @@
+package io.jenkins.blueocean.events;
+
+import org.jenkinsci.plugins.pubsub.Message;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PipelineEventPublisherTest {
+
+    @Test
+    public void coalescesStepEventsAndKeepsOrder() throws Exception {
+        PipelineEventPublisher publisher = PipelineEventPublisher.get();
+        long mergedBefore = publisher.getMergedEventCount();
+
+        final List<String> created = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        Object run = new Object();
+
+        publisher.enqueue(run, factory(created, "stage", null));
+        for (int i = 0; i < 50; i++) {
+            publisher.enqueueCoalescable(run, "branch", factory(created, "step" + i, null));
+        }
+        publisher.enqueue(run, factory(created, "end", done));
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals("stage", created.get(0));
+        Assert.assertEquals("end", created.get(created.size() - 1));
+        Assert.assertTrue(created.contains("step49"));
+        // the 50 steps collapse into at most a handful of published events
+        Assert.assertEquals(50, created.size() - 2 + (publisher.getMergedEventCount() - mergedBefore));
+    }
+
+    @Test
+    public void flushesPendingStepAfterWindow() throws Exception {
+        PipelineEventPublisher publisher = PipelineEventPublisher.get();
+        final List<String> created = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        publisher.enqueueCoalescable(new Object(), "branch", factory(created, "step", done));
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals("step", created.get(0));
+    }
+
+    @Test
+    public void keepsLatestStepEventOfEachBranch() throws Exception {
+        PipelineEventPublisher publisher = PipelineEventPublisher.get();
+        final List<String> created = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        Object run = new Object();
+
+        for (int i = 0; i < 20; i++) {
+            publisher.enqueueCoalescable(run, "branch-a", factory(created, "a" + i, null));
+            publisher.enqueueCoalescable(run, "branch-b", factory(created, "b" + i, null));
+        }
+        publisher.enqueue(run, factory(created, "end", done));
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        // step events of one branch do not hide those of the other
+        Assert.assertTrue(created.contains("a19"));
+        Assert.assertTrue(created.contains("b19"));
+        Assert.assertEquals("end", created.get(created.size() - 1));
+    }
+
+    @Test
+    public void neverDropsOrderedEvents() throws Exception {
+        PipelineEventPublisher publisher = PipelineEventPublisher.get();
+        long droppedBefore = publisher.getDroppedEventCount();
+        final List<String> created = new CopyOnWriteArrayList<>();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        Object run = new Object();
+
+        // hold the dispatcher so that the queue fills up
+        publisher.enqueue(run, new PipelineEventPublisher.MessageFactory() {
+            @Override
+            public Message create() {
+                blocked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+        });
+        Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < PipelineEventPublisher.QUEUE_SIZE + 100; i++) {
+            publisher.enqueueCoalescable(run, "branch", factory(created, "step", null));
+        }
+        for (int i = 0; i < 100; i++) {
+            publisher.enqueue(run, factory(created, "ordered" + i, i == 99 ? done : null));
+        }
+        Assert.assertEquals(100, publisher.getDroppedEventCount() - droppedBefore);
+        release.countDown();
+
+        Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+        int previous = -1;
+        for (int i = 0; i < 100; i++) {
+            int index = created.indexOf("ordered" + i);
+            Assert.assertTrue("ordered" + i, index > previous);
+            previous = index;
+        }
+    }
+
+    private static PipelineEventPublisher.MessageFactory factory(final List<String> created, final String name,
+                                                                 final CountDownLatch latch) {
+        return new PipelineEventPublisher.MessageFactory() {
+            @Override
+            public Message create() {
+                created.add(name);
+                if (latch != null) {
+                    latch.countDown();
+                }
+                return null;
+            }
+        };
+    }
+}
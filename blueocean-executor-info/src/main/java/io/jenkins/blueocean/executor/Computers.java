@@ -1,15 +1,10 @@
 package io.jenkins.blueocean.executor;
 
 import hudson.Extension;
-import hudson.model.AbstractBuild;
-import hudson.model.Computer;
-import hudson.model.Executor;
-import hudson.model.Item;
-import hudson.model.Queue;
+import hudson.Util;
 import hudson.model.Run;
-import hudson.model.queue.SubTask;
+import io.jenkins.blueocean.commons.ServiceException;
 import io.jenkins.blueocean.rest.OrganizationRoute;
-import io.jenkins.blueocean.rest.factory.BluePipelineFactory;
 import io.jenkins.blueocean.rest.factory.BlueRunFactory;
 import io.jenkins.blueocean.rest.hal.Link;
 import io.jenkins.blueocean.rest.model.BlueOrganization;
@@ -20,15 +15,19 @@ import io.jenkins.blueocean.rest.model.Resource;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import jenkins.model.Jenkins;
-import org.jenkinsci.plugins.workflow.job.WorkflowRun;
-import org.jenkinsci.plugins.workflow.support.steps.ExecutorStepExecution;
+import javax.annotation.CheckForNull;
 import org.kohsuke.stapler.Ancestor;
 import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.export.Exported;
 import org.kohsuke.stapler.export.ExportedBean;
 
 /**
+ * Computers and what their executors are doing, served from the {@link ExecutorSnapshot}.
+ * <p>
+ * With a {@code since} parameter, only the computers changed since that version are served, along with the names of
+ * the removed ones, unless {@link #isIncremental()} is false.
+ *
  * @author kzantow
  */
 @Extension
@@ -51,26 +50,94 @@ public class Computers extends Resource implements OrganizationRoute {
         return organization;
     }
     
+    /**
+     * @return version of the computers served, pass it as {@code since} to only get the changes of the next version
+     */
+    @Exported
+    public long getVersion() {
+        return getSnapshot().getVersion();
+    }
+
+    /**
+     * @return whether only the computers changed since the version given by the {@code since} parameter are served.
+     * Otherwise all computers are.
+     */
+    @Exported
+    public boolean isIncremental() {
+        Long since = getSince();
+        return since != null && getSnapshot().knowsChangesSince(since);
+    }
+
     @Exported(inline=true)
     public ComputerInfo[] getComputers() throws Exception {
+        ExecutorSnapshot.Snapshot snapshot = getSnapshot();
+        List<ExecutorSnapshot.ComputerState> computers = isIncremental()
+            ? snapshot.getComputersChangedSince(getSince())
+            : snapshot.getComputers();
         List<ComputerInfo> info = new ArrayList<>();
-        Jenkins j = Jenkins.getInstance();
-        for (Computer c : j.getComputers()) {
+        for (ExecutorSnapshot.ComputerState c : computers) {
             info.add(new ComputerInfo(getLink(), c));
         }
         return info.toArray(new ComputerInfo[info.size()]);
     }
 
+    /**
+     * @return names of the computers removed since the version given by the {@code since} parameter
+     */
+    @Exported
+    public String[] getRemovedComputers() {
+        if (!isIncremental()) {
+            return new String[0];
+        }
+        List<String> removed = getSnapshot().getComputersRemovedSince(getSince());
+        return removed.toArray(new String[removed.size()]);
+    }
+
+    /**
+     * Same snapshot for the whole request, so that the version matches the computers served
+     */
+    private static ExecutorSnapshot.Snapshot getSnapshot() {
+        StaplerRequest request = Stapler.getCurrentRequest();
+        String attribute = ExecutorSnapshot.Snapshot.class.getName();
+        ExecutorSnapshot.Snapshot snapshot = (ExecutorSnapshot.Snapshot) request.getAttribute(attribute);
+        if (snapshot == null) {
+            snapshot = ExecutorSnapshot.get();
+            request.setAttribute(attribute, snapshot);
+        }
+        return snapshot;
+    }
+
+    @CheckForNull
+    private static Long getSince() {
+        String since = Util.fixEmptyAndTrim(Stapler.getCurrentRequest().getParameter("since"));
+        if (since == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(since);
+        } catch (NumberFormatException e) {
+            throw new ServiceException.BadRequestException("since must be a version number: " + since);
+        }
+    }
+
     @ExportedBean
     public static class ComputerInfo extends Resource {
         final Link parent;
-        Computer computer;
+        final ExecutorSnapshot.ComputerState computer;
 
-        public ComputerInfo(Link parent, Computer computer) {
+        public ComputerInfo(Link parent, ExecutorSnapshot.ComputerState computer) {
             this.parent = parent;
             this.computer = computer;
         }
 
+        /**
+         * @return name of the computer, empty for the master, to match the computers of incremental responses
+         */
+        @Exported
+        public String getName() {
+            return computer.getName();
+        }
+
         @Exported
         public String getDisplayName() {
             return computer.getDisplayName();
@@ -79,10 +146,8 @@ public class Computers extends Resource implements OrganizationRoute {
         @Exported(inline=true)
         public Container<ExecutorInfo> getExecutors() {
             final List<ExecutorInfo> out = new ArrayList<>();
-            if (computer != null) {
-                for (Executor e : computer.getExecutors()) {
-                    out.add(new ExecutorInfo(this, e));
-                }
+            for (ExecutorSnapshot.ExecutorState e : computer.getExecutors()) {
+                out.add(new ExecutorInfo(this, e));
             }
             return new Container() {
                 @Override
@@ -111,8 +176,8 @@ public class Computers extends Resource implements OrganizationRoute {
     @ExportedBean
     public static class ExecutorInfo extends Resource {
         final Resource parent;
-        final Executor executor;
-        private ExecutorInfo(Resource parent, Executor executor) {
+        final ExecutorSnapshot.ExecutorState executor;
+        private ExecutorInfo(Resource parent, ExecutorSnapshot.ExecutorState executor) {
             this.parent = parent;
             this.executor = executor;
         }
@@ -134,25 +199,9 @@ public class Computers extends Resource implements OrganizationRoute {
 
         @Exported(inline=true)
         public BlueRun getRun() {
-            Queue.Executable e = executor.getCurrentExecutable();
-            if (e == null) {
-                return null;
-            }
-            Run r = null;
-            SubTask subTask = e.getParent();
-            if (subTask instanceof ExecutorStepExecution.PlaceholderTask) {
-                ExecutorStepExecution.PlaceholderTask task = (ExecutorStepExecution.PlaceholderTask)subTask;
-                r = task.run();
-            }
-            if (e instanceof WorkflowRun) {
-                r = (WorkflowRun)e;
-            }
-            if (e instanceof AbstractBuild) {
-                r = (AbstractBuild)e;
-            }
-            if (r != null) {
-                Item pipelineJobItem = r.getParent();
-                BluePipeline pipeline = (BluePipeline)BluePipelineFactory.resolve(pipelineJobItem); //BluePipelineFactory.getPipelineInstance(item, getOrganization());
+            Run r = executor.getRun();
+            BluePipeline pipeline = executor.getPipeline();
+            if (r != null && pipeline != null) {
                 return BlueRunFactory.getRun(r, pipeline);
             }
             return null;
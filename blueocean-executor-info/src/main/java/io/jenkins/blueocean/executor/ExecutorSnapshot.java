@@ -0,0 +1,414 @@
+package io.jenkins.blueocean.executor;
+
+import com.google.common.annotations.VisibleForTesting;
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.Executor;
+import hudson.model.Queue;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import hudson.model.queue.QueueListener;
+import hudson.model.queue.SubTask;
+import hudson.slaves.ComputerListener;
+import hudson.slaves.OfflineCause;
+import io.jenkins.blueocean.rest.factory.BluePipelineFactory;
+import io.jenkins.blueocean.rest.model.BluePipeline;
+import io.jenkins.blueocean.rest.model.Resource;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.workflow.support.steps.ExecutorStepExecution;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the executors of each computer are doing, refreshed when computers, runs or the queue change rather than on
+ * every request.
+ * <p>
+ * Every change bumps the {@link Snapshot#getVersion() version}. Each computer remembers the version it last changed in
+ * and removed computers are remembered for a while, so that clients polling the executor widget can ask for the
+ * changes since the version they have, see {@link Computers}.
+ */
+@Restricted(NoExternalUse.class)
+public final class ExecutorSnapshot {
+
+    /**
+     * Maximum age of a snapshot in milliseconds. Not every executor change fires an event, e.g. a node block picking up
+     * its executor after leaving the queue, so an older snapshot is refreshed anyway.
+     */
+    static final long MAX_AGE = Long.getLong("blueocean.executors.snapshotMaxAge", 5000);
+
+    /**
+     * Number of removed computers remembered to answer requests for changes.
+     */
+    static final int MAX_REMOVED = Integer.getInteger("blueocean.executors.maxRemovedComputers", 1000);
+
+    private static final Object LOCK = new Object();
+
+    private static volatile boolean dirty = true;
+
+    /**
+     * Starts from the current time, so that versions clients got before a restart are most likely older than
+     * {@link Snapshot#oldestVersion}.
+     */
+    private static volatile Snapshot current = new Snapshot(System.currentTimeMillis());
+
+    private ExecutorSnapshot() {}
+
+    /**
+     * @return up to date snapshot
+     */
+    @Nonnull
+    public static Snapshot get() {
+        Snapshot snapshot = current;
+        if (dirty || System.currentTimeMillis() - snapshot.timestamp > MAX_AGE) {
+            snapshot = refresh();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Refresh the snapshot on next read.
+     */
+    static void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * @return whether the snapshot is refreshed on next read because something changed
+     */
+    @VisibleForTesting
+    static boolean isDirty() {
+        return dirty;
+    }
+
+    private static Snapshot refresh() {
+        synchronized (LOCK) {
+            Snapshot previous = current;
+            if (!dirty && System.currentTimeMillis() - previous.timestamp <= MAX_AGE) {
+                // refreshed by another thread in the meantime
+                return previous;
+            }
+            dirty = false;
+
+            long version = previous.version + 1;
+            boolean changed = false;
+            Map<String, ComputerState> previousByName = new HashMap<>();
+            for (ComputerState computer : previous.computers) {
+                previousByName.put(computer.name, computer);
+            }
+            List<ComputerState> computers = new ArrayList<>();
+            for (Computer c : Jenkins.getInstance().getComputers()) {
+                ComputerState computer = new ComputerState(version, c);
+                ComputerState old = previousByName.remove(computer.name);
+                if (old != null && old.sameAs(computer)) {
+                    // keep the previous version, and the pipelines already resolved
+                    computer = old;
+                } else {
+                    changed = true;
+                }
+                computers.add(computer);
+            }
+
+            Map<String, Long> removed = new LinkedHashMap<>(previous.removed);
+            for (ComputerState computer : computers) {
+                removed.remove(computer.name);
+            }
+            for (String name : previousByName.keySet()) {
+                removed.put(name, version);
+                changed = true;
+            }
+            long oldestVersion = previous.oldestVersion;
+            Iterator<Map.Entry<String, Long>> it = removed.entrySet().iterator();
+            while (removed.size() > MAX_REMOVED && it.hasNext()) {
+                // clients that have not seen this removal cannot be answered with changes any more
+                oldestVersion = Math.max(oldestVersion, it.next().getValue());
+                it.remove();
+            }
+
+            current = changed
+                ? new Snapshot(version, oldestVersion, Collections.unmodifiableList(computers),
+                               Collections.unmodifiableMap(removed))
+                : new Snapshot(previous.version, previous.oldestVersion, previous.computers, previous.removed);
+            return current;
+        }
+    }
+
+    /**
+     * @return the run the executor works on, either directly or through a node block, or {@code null}
+     */
+    @CheckForNull
+    static Run<?, ?> getRun(@Nonnull Executor executor) {
+        Queue.Executable e = executor.getCurrentExecutable();
+        if (e == null) {
+            return null;
+        }
+        Run<?, ?> r = null;
+        SubTask subTask = e.getParent();
+        if (subTask instanceof ExecutorStepExecution.PlaceholderTask) {
+            r = ((ExecutorStepExecution.PlaceholderTask) subTask).run();
+        }
+        if (e instanceof Run) {
+            r = (Run<?, ?>) e;
+        }
+        return r;
+    }
+
+    /**
+     * Immutable state of all computers at some version.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final long oldestVersion;
+        private final long timestamp;
+        private final List<ComputerState> computers;
+        /** Version each removed computer was removed in, by name, oldest first */
+        private final Map<String, Long> removed;
+
+        private Snapshot(long version) {
+            this(version, version, Collections.<ComputerState>emptyList(), Collections.<String, Long>emptyMap());
+        }
+
+        private Snapshot(long version, long oldestVersion, List<ComputerState> computers, Map<String, Long> removed) {
+            this.version = version;
+            this.oldestVersion = oldestVersion;
+            this.timestamp = System.currentTimeMillis();
+            this.computers = computers;
+            this.removed = removed;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return whether the changes since the given version are known. They are not for versions of an earlier
+         * Jenkins session, or when too many computers were removed since.
+         */
+        public boolean knowsChangesSince(long since) {
+            return since >= oldestVersion && since <= version;
+        }
+
+        /**
+         * @return all computers, in the order of {@link Jenkins#getComputers()}
+         */
+        @Nonnull
+        public List<ComputerState> getComputers() {
+            return computers;
+        }
+
+        /**
+         * @return computers added or changed since the given version
+         */
+        @Nonnull
+        public List<ComputerState> getComputersChangedSince(long since) {
+            List<ComputerState> changed = new ArrayList<>();
+            for (ComputerState computer : computers) {
+                if (computer.version > since) {
+                    changed.add(computer);
+                }
+            }
+            return changed;
+        }
+
+        /**
+         * @return names of the computers removed since the given version
+         */
+        @Nonnull
+        public List<String> getComputersRemovedSince(long since) {
+            List<String> names = new ArrayList<>();
+            for (Map.Entry<String, Long> entry : removed.entrySet()) {
+                if (entry.getValue() > since) {
+                    names.add(entry.getKey());
+                }
+            }
+            return names;
+        }
+    }
+
+    public static final class ComputerState {
+        private final long version;
+        private final String name;
+        private final String displayName;
+        private final List<ExecutorState> executors;
+
+        private ComputerState(long version, Computer computer) {
+            this.version = version;
+            this.name = computer.getName();
+            this.displayName = computer.getDisplayName();
+            List<ExecutorState> executors = new ArrayList<>();
+            for (Executor executor : computer.getExecutors()) {
+                executors.add(new ExecutorState(executor));
+            }
+            this.executors = Collections.unmodifiableList(executors);
+        }
+
+        private boolean sameAs(ComputerState that) {
+            if (!displayName.equals(that.displayName) || executors.size() != that.executors.size()) {
+                return false;
+            }
+            for (int i = 0; i < executors.size(); i++) {
+                if (!executors.get(i).sameAs(that.executors.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return version this computer last changed in
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return name of the computer, empty for the master
+         */
+        @Nonnull
+        public String getName() {
+            return name;
+        }
+
+        @Nonnull
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Nonnull
+        public List<ExecutorState> getExecutors() {
+            return executors;
+        }
+    }
+
+    public static final class ExecutorState {
+        private final String displayName;
+        private final boolean idle;
+        private final Run<?, ?> run;
+        /**
+         * What clients show of the run, the computer changes when any of it does so that incremental responses
+         * serve the run again
+         */
+        private final boolean building;
+        private final Result result;
+        private volatile BluePipeline pipeline;
+
+        private ExecutorState(Executor executor) {
+            this.displayName = executor.getDisplayName();
+            this.idle = executor.isIdle();
+            this.run = getRun(executor);
+            this.building = run != null && run.isLogUpdated();
+            this.result = run != null ? run.getResult() : null;
+        }
+
+        private boolean sameAs(ExecutorState that) {
+            return displayName.equals(that.displayName) && idle == that.idle && run == that.run
+                && building == that.building && result == that.result;
+        }
+
+        @Nonnull
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public boolean isIdle() {
+            return idle;
+        }
+
+        @CheckForNull
+        public Run<?, ?> getRun() {
+            return run;
+        }
+
+        /**
+         * @return result of the run when the snapshot was taken, {@code null} while it is not known yet
+         */
+        @CheckForNull
+        public Result getResult() {
+            return result;
+        }
+
+        /**
+         * @return pipeline of the run, resolved once per run
+         */
+        @CheckForNull
+        public BluePipeline getPipeline() {
+            if (run == null) {
+                return null;
+            }
+            BluePipeline p = pipeline;
+            if (p == null) {
+                Resource resource = BluePipelineFactory.resolve(run.getParent());
+                if (resource instanceof BluePipeline) {
+                    p = pipeline = (BluePipeline) resource;
+                }
+            }
+            return p;
+        }
+    }
+
+    @Extension
+    public static class ComputerListenerImpl extends ComputerListener {
+        @Override
+        public void onOnline(Computer c, TaskListener listener) {
+            invalidate();
+        }
+
+        @Override
+        public void onOffline(@Nonnull Computer c, @CheckForNull OfflineCause cause) {
+            invalidate();
+        }
+
+        @Override
+        public void onTemporarilyOnline(Computer c) {
+            invalidate();
+        }
+
+        @Override
+        public void onTemporarilyOffline(Computer c, OfflineCause cause) {
+            invalidate();
+        }
+
+        @Override
+        public void onConfigurationChange() {
+            invalidate();
+        }
+    }
+
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onStarted(Run<?, ?> run, TaskListener listener) {
+            invalidate();
+        }
+
+        @Override
+        public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+            invalidate();
+        }
+
+        @Override
+        public void onFinalized(Run<?, ?> run) {
+            invalidate();
+        }
+    }
+
+    @Extension
+    public static class QueueListenerImpl extends QueueListener {
+        @Override
+        public void onLeft(Queue.LeftItem li) {
+            // e.g. node blocks of pipelines, which have no run events
+            invalidate();
+        }
+    }
+}
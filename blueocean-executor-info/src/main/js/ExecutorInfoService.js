@@ -8,6 +8,8 @@ export class ExecutorInfoService {
     @observable
     computers;
 
+    version;
+
     constructor() {
         this.fetchExecutorInfo();
         sseConnection.subscribe('pipeline', event => {
@@ -26,10 +28,33 @@ export class ExecutorInfoService {
     }
 
     fetchExecutorInfo() {
-        Fetch.fetchJSON(`${UrlConfig.getRestBaseURL()}/organizations/${AppConfig.getOrganizationName()}/computers/`)
+        const since = this.version === undefined ? '' : `?since=${this.version}`;
+        Fetch.fetchJSON(`${UrlConfig.getRestBaseURL()}/organizations/${AppConfig.getOrganizationName()}/computers/${since}`)
         .then(response => {
-            this.setComputers(response.computers);
+            this.version = response.version;
+            if (response.incremental) {
+                this.setComputers(this.mergeComputers(response));
+            } else {
+                this.setComputers(response.computers);
+            }
+        });
+    }
+
+    // Applies the computers changed and removed since the last fetch, keeping the order of the server
+    mergeComputers(response) {
+        const changed = {};
+        response.computers.forEach(computer => {
+            changed[computer.name] = computer;
         });
+        const merged = (this.computers || [])
+            .filter(computer => response.removedComputers.indexOf(computer.name) < 0)
+            .map(computer => {
+                const update = changed[computer.name];
+                delete changed[computer.name];
+                return update || computer;
+            });
+        Object.keys(changed).forEach(name => merged.push(changed[name]));
+        return merged;
     }
 }
 
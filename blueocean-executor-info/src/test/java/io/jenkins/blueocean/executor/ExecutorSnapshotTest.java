@@ -0,0 +1,189 @@
+package io.jenkins.blueocean.executor;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Label;
+import hudson.model.Queue;
+import hudson.model.Result;
+import hudson.slaves.DumbSlave;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.test.steps.SemaphoreStep;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ExecutorSnapshotTest {
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void changesSinceVersion() throws Exception {
+        long initial = refresh().getVersion();
+
+        DumbSlave agent = j.createOnlineSlave();
+        ExecutorSnapshot.Snapshot added = refresh();
+        assertTrue(added.getVersion() > initial);
+        assertTrue(added.knowsChangesSince(initial));
+        assertEquals(Collections.singletonList(agent.getNodeName()), names(added.getComputersChangedSince(initial)));
+        assertTrue(added.getComputersRemovedSince(initial).isEmpty());
+
+        // nothing changed, same version
+        ExecutorSnapshot.Snapshot unchanged = refresh();
+        assertEquals(added.getVersion(), unchanged.getVersion());
+        assertTrue(unchanged.getComputersChangedSince(added.getVersion()).isEmpty());
+
+        WorkflowJob p = j.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition(
+            "node('master') { semaphore 'wait'; currentBuild.result = 'UNSTABLE'; semaphore 'result' }", true));
+        WorkflowRun b = p.scheduleBuild2(0).waitForStart();
+        SemaphoreStep.waitForStart("wait/1", b);
+        ExecutorSnapshot.Snapshot running = refresh();
+        assertEquals(Collections.singletonList(""), names(running.getComputersChangedSince(unchanged.getVersion())));
+        assertNull(runningOn(running, b).getResult());
+
+        // same run on the same executor, but its result changed
+        SemaphoreStep.success("wait/1", null);
+        SemaphoreStep.waitForStart("result/1", b);
+        ExecutorSnapshot.Snapshot unstable = refresh();
+        assertEquals(Collections.singletonList(""), names(unstable.getComputersChangedSince(running.getVersion())));
+        assertEquals(Result.UNSTABLE, runningOn(unstable, b).getResult());
+
+        j.jenkins.removeNode(agent);
+        ExecutorSnapshot.Snapshot removed = refresh();
+        assertEquals(Collections.singletonList(agent.getNodeName()), removed.getComputersRemovedSince(unstable.getVersion()));
+        assertEquals(Collections.singletonList(agent.getNodeName()), removed.getComputersRemovedSince(initial));
+        assertTrue(removed.getComputersRemovedSince(removed.getVersion()).isEmpty());
+        assertFalse(names(removed.getComputers()).contains(agent.getNodeName()));
+
+        SemaphoreStep.success("result/1", null);
+        j.assertBuildStatus(Result.UNSTABLE, j.waitForCompletion(b));
+    }
+
+    @Test
+    public void unknownVersions() throws Exception {
+        ExecutorSnapshot.Snapshot snapshot = refresh();
+        assertTrue(snapshot.knowsChangesSince(snapshot.getVersion()));
+        assertFalse(snapshot.knowsChangesSince(snapshot.getVersion() + 1));
+        assertFalse(snapshot.knowsChangesSince(0));
+    }
+
+    @Test
+    public void computerChangesInvalidate() throws Exception {
+        DumbSlave agent = j.createOnlineSlave();
+        ExecutorSnapshot.get();
+        assertFalse(ExecutorSnapshot.isDirty());
+
+        agent.toComputer().setTemporarilyOffline(true, null);
+        assertTrue(ExecutorSnapshot.isDirty());
+        assertTrue(ExecutorSnapshot.get().getComputers().size() > 1);
+        assertFalse(ExecutorSnapshot.isDirty());
+
+        j.jenkins.removeNode(agent);
+        assertTrue(ExecutorSnapshot.isDirty());
+        assertFalse(names(ExecutorSnapshot.get().getComputers()).contains(agent.getNodeName()));
+    }
+
+    @Test
+    public void runChangesInvalidate() throws Exception {
+        WorkflowJob p = j.jenkins.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("node('master') { semaphore 'wait' }", true));
+        WorkflowRun b = p.scheduleBuild2(0).waitForStart();
+        SemaphoreStep.waitForStart("wait/1", b);
+        ExecutorSnapshot.Snapshot running = ExecutorSnapshot.get();
+        assertFalse(ExecutorSnapshot.isDirty());
+        assertNull(runningOn(running, b).getResult());
+
+        SemaphoreStep.success("wait/1", null);
+        j.assertBuildStatusSuccess(j.waitForCompletion(b));
+        assertTrue(ExecutorSnapshot.isDirty());
+        ExecutorSnapshot.Snapshot completed = ExecutorSnapshot.get();
+        assertTrue(completed.getVersion() > running.getVersion());
+    }
+
+    @Test
+    public void queueChangesInvalidate() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject("p");
+        p.setAssignedLabel(Label.get("nowhere"));
+        p.scheduleBuild2(0);
+        Queue.Item item = j.jenkins.getQueue().getItem(p);
+        assertNotNull(item);
+        ExecutorSnapshot.get();
+        assertFalse(ExecutorSnapshot.isDirty());
+
+        j.jenkins.getQueue().cancel(item);
+        assertTrue(ExecutorSnapshot.isDirty());
+    }
+
+    @Test
+    public void changesSinceOverRest() throws Exception {
+        JSONObject all = computers(null);
+        assertFalse(all.getBoolean("incremental"));
+        assertTrue(all.getJSONArray("removedComputers").isEmpty());
+        long initial = all.getLong("version");
+        assertEquals(names(ExecutorSnapshot.get().getComputers()), jsonNames(all.getJSONArray("computers")));
+
+        DumbSlave agent = j.createOnlineSlave();
+        JSONObject added = computers(initial);
+        assertTrue(added.getBoolean("incremental"));
+        assertEquals(Collections.singletonList(agent.getNodeName()), jsonNames(added.getJSONArray("computers")));
+        assertTrue(added.getJSONArray("removedComputers").isEmpty());
+
+        j.jenkins.removeNode(agent);
+        JSONObject removed = computers(added.getLong("version"));
+        assertTrue(removed.getBoolean("incremental"));
+        assertTrue(removed.getJSONArray("computers").isEmpty());
+        assertEquals(Collections.singletonList(agent.getNodeName()), new ArrayList<Object>(removed.getJSONArray("removedComputers")));
+
+        // unknown versions get all computers
+        JSONObject unknown = computers(removed.getLong("version") + 1);
+        assertFalse(unknown.getBoolean("incremental"));
+        assertEquals(names(ExecutorSnapshot.get().getComputers()), jsonNames(unknown.getJSONArray("computers")));
+    }
+
+    private JSONObject computers(Long since) throws Exception {
+        String path = "blue/rest/organizations/jenkins/computers/" + (since == null ? "" : "?since=" + since);
+        return JSONObject.fromObject(j.createWebClient().goTo(path, "application/json").getWebResponse().getContentAsString());
+    }
+
+    private static List<String> jsonNames(JSONArray computers) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < computers.size(); i++) {
+            names.add(computers.getJSONObject(i).getString("name"));
+        }
+        return names;
+    }
+
+    private static ExecutorSnapshot.Snapshot refresh() {
+        ExecutorSnapshot.invalidate();
+        return ExecutorSnapshot.get();
+    }
+
+    private static ExecutorSnapshot.ExecutorState runningOn(ExecutorSnapshot.Snapshot snapshot, WorkflowRun run) {
+        for (ExecutorSnapshot.ComputerState computer : snapshot.getComputers()) {
+            for (ExecutorSnapshot.ExecutorState executor : computer.getExecutors()) {
+                if (executor.getRun() == run) {
+                    return executor;
+                }
+            }
+        }
+        fail("no executor runs " + run);
+        return null;
+    }
+
+    private static List<String> names(List<ExecutorSnapshot.ComputerState> computers) {
+        List<String> names = new ArrayList<>();
+        for (ExecutorSnapshot.ComputerState computer : computers) {
+            names.add(computer.getName());
+        }
+        return names;
+    }
+}
@@ -23,8 +23,11 @@
  */
 package io.jenkins.blueocean.i18n;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import hudson.Extension;
 import hudson.PluginWrapper;
+import hudson.Util;
 import hudson.util.HttpResponses;
 import io.jenkins.blueocean.rest.ApiRoutable;
 import jenkins.model.Jenkins;
@@ -39,6 +42,7 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
@@ -46,13 +50,12 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Internationalization REST (ish) API for Blue Ocean.
@@ -65,14 +68,16 @@ public class BlueI18n implements ApiRoutable {
     private static final Logger LOGGER = Logger.getLogger(BlueI18n.class.getName());
 
     /**
-     * Failed lookup cache entry.
+     * Bundle cache maximum number of entries. Default 1000.
      */
-    private static final JSONObject BUNDLE_404 = new JSONObject();
+    static final long BUNDLE_CACHE_MAX_SIZE = Long.getLong("BLUEOCEAN_I18N_BUNDLE_CACHE_MAX_SIZE", 1000);
 
     /**
-     * Bundle cache.
+     * Bundle cache. Least recently used entries are evicted first.
      */
-    private Map<BundleParams, BundleCacheEntry> bundleCache = new ConcurrentHashMap<>();
+    private final Cache<BundleParams, BundleCacheEntry> bundleCache = CacheBuilder.newBuilder()
+        .maximumSize(BUNDLE_CACHE_MAX_SIZE)
+        .build();
 
     /**
      * {@inheritDoc}
@@ -109,22 +114,19 @@ public class BlueI18n implements ApiRoutable {
                 locale = request.getLocale();
             }
 
-            BundleCacheEntry bundleCacheEntry = bundleCache.get(bundleParams);
+            BundleCacheEntry bundleCacheEntry = bundleCache.getIfPresent(bundleParams);
 
-            JSONObject bundle;
-            if (bundleCacheEntry == null) {
-                bundle = getBundle(bundleParams, locale);
-                if (bundle == null) {
-                    bundle = BUNDLE_404;
-                }
+            // A different plugin instance means the plugin was installed or upgraded since the entry was created
+            if (bundleCacheEntry == null || bundleCacheEntry.bundleParams.getPlugin() != bundleParams.getPlugin()) {
+                JSONObject bundle = getBundle(bundleParams, locale);
                 bundleCacheEntry = new BundleCacheEntry(bundle, bundleParams);
                 bundleCache.put(bundleParams, bundleCacheEntry);
             }
 
-            if (bundleCacheEntry.bundleData == BUNDLE_404) {
+            if (bundleCacheEntry.isNotFound()) {
                 return JSONObjectResponse.errorJson("Unknown plugin or resource bundle: " + bundleParams.toString(), HttpServletResponse.SC_NOT_FOUND);
             } else {
-                return JSONObjectResponse.okJson(bundleCacheEntry);
+                return new BundleResponse(bundleCacheEntry);
             }
         } catch (Exception e) {
             return HttpResponses.errorJSON(e.getMessage());
@@ -326,14 +328,152 @@ public class BlueI18n implements ApiRoutable {
         }
     }
 
-    private static class BundleCacheEntry {
-        private final JSONObject bundleData;
+    /**
+     * A bundle response, serialized once: UTF-8 bytes, gzipped bytes and a strong ETag.
+     */
+    static class BundleCacheEntry {
         private final BundleParams bundleParams;
         private final long timestamp = System.currentTimeMillis();
+        private final byte[] bytes;
+        private final byte[] gzipBytes;
+        private final String etag;
 
-        public BundleCacheEntry(JSONObject bundleData, BundleParams bundleParams) {
-            this.bundleData = bundleData;
+        BundleCacheEntry(@CheckForNull JSONObject bundleData, BundleParams bundleParams) throws IOException {
             this.bundleParams = bundleParams;
+            if (bundleData == null) {
+                this.bytes = null;
+                this.gzipBytes = null;
+                this.etag = null;
+                return;
+            }
+
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("data", bundleData);
+            jsonObject.put("status", "ok");
+            // Set pugin version info that can be used by the browser to
+            // determine if it wants to use the resource bundle, or not.
+            // The versions may not match (in theory - should never happen),
+            // in which case the browser might not want to use the bundle data.
+            jsonObject.put("plugin-version-requested", bundleParams.pluginVersion);
+            PluginWrapper pluginWrapper = bundleParams.getPlugin();
+            if(pluginWrapper != null) {
+                jsonObject.put("plugin-version-actual", pluginWrapper.getVersion());
+            }
+
+            // The tag only covers the bundle content, a rebuilt entry for the same bundle keeps it
+            this.etag = '"' + Util.getDigestOf(jsonObject.toString()) + '"';
+            jsonObject.put("cache-timestamp", timestamp);
+
+            this.bytes = jsonObject.toString().getBytes(JSONObjectResponse.UTF8);
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(bytes.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(bytes);
+            }
+            this.gzipBytes = gzipped.toByteArray();
+        }
+
+        boolean isNotFound() {
+            return bytes == null;
+        }
+
+        String getETag() {
+            return etag;
+        }
+    }
+
+    static class BundleResponse implements HttpResponse {
+
+        private final BundleCacheEntry bundleCacheEntry;
+
+        BundleResponse(BundleCacheEntry bundleCacheEntry) {
+            this.bundleCacheEntry = bundleCacheEntry;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void generateResponse(StaplerRequest req, StaplerResponse rsp, Object node) throws IOException, ServletException {
+            BundleParams bundleParams = bundleCacheEntry.bundleParams;
+            if (bundleParams.isBrowserCacheable()) {
+                // Set the expiry to one year.
+                rsp.setHeader("Cache-Control", "public, max-age=31536000");
+            } else if (!bundleParams.isMatchingPluginVersionInstalled()) {
+                // This should never really happen if things are installed properly
+                // and the UI is coded up properly, with proper access to the installed
+                // plugin version.
+                PluginWrapper pluginWrapper = bundleParams.getPlugin();
+                LOGGER.log(Level.WARNING, String.format("Unexpected request for Blue Ocean i18n resource bundle '%s'. Installed plugin version '%s' does not match.",
+                    bundleParams, pluginWrapper!= null ? pluginWrapper.getVersion() : "unknown"));
+            }
+            rsp.setHeader("ETag", bundleCacheEntry.etag);
+            rsp.setHeader("Vary", "Accept-Encoding");
+
+            if (matchesETag(req.getHeader("If-None-Match"), bundleCacheEntry.etag)) {
+                rsp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            rsp.setStatus(HttpServletResponse.SC_OK);
+            rsp.setContentType("application/json; charset=UTF-8");
+            byte[] bytes = bundleCacheEntry.bytes;
+            if (acceptsGzip(req.getHeader("Accept-Encoding"))) {
+                rsp.setHeader("Content-Encoding", "gzip");
+                bytes = bundleCacheEntry.gzipBytes;
+            }
+            rsp.setContentLength(bytes.length);
+            rsp.getOutputStream().write(bytes);
+        }
+
+        /**
+         * Whether the {@code Accept-Encoding} header allows gzip, i.e. lists it or {@code *} with a non-zero quality.
+         */
+        static boolean acceptsGzip(@CheckForNull String acceptEncoding) {
+            if (acceptEncoding == null) {
+                return false;
+            }
+            Float gzip = null;
+            Float any = null;
+            for (String candidate : acceptEncoding.split(",")) {
+                String[] params = candidate.split(";");
+                String coding = params[0].trim().toLowerCase(Locale.ENGLISH);
+                float quality = 1;
+                for (int i = 1; i < params.length; i++) {
+                    String param = params[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            quality = Float.parseFloat(param.substring(2).trim());
+                        } catch (NumberFormatException e) {
+                            quality = 0;
+                        }
+                    }
+                }
+                if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                    gzip = quality;
+                } else if (coding.equals("*")) {
+                    any = quality;
+                }
+            }
+            if (gzip != null) {
+                return gzip > 0;
+            }
+            return any != null && any > 0;
+        }
+
+        static boolean matchesETag(@CheckForNull String ifNoneMatch, @Nonnull String etag) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                candidate = candidate.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 
@@ -342,18 +482,8 @@ public class BlueI18n implements ApiRoutable {
         private static final Charset UTF8 = Charset.forName("UTF-8");
 
         private final JSONObject jsonObject = new JSONObject();
-        private BundleCacheEntry bundleCacheEntry;
         private int statusCode = HttpServletResponse.SC_OK;
 
-        private static JSONObjectResponse okJson(BundleCacheEntry bundleCacheEntry) {
-            JSONObjectResponse response = new JSONObjectResponse();
-            response.bundleCacheEntry = bundleCacheEntry;
-            response.jsonObject.put("data", bundleCacheEntry.bundleData);
-            response.jsonObject.put("status", "ok");
-            response.jsonObject.put("cache-timestamp", bundleCacheEntry.timestamp);
-            return response;
-        }
-
         private static JSONObjectResponse errorJson(String message, int errorCode) {
             JSONObjectResponse response = new JSONObjectResponse();
             response.jsonObject.put("status", "error");
@@ -369,29 +499,6 @@ public class BlueI18n implements ApiRoutable {
         public void generateResponse(StaplerRequest req, StaplerResponse rsp, Object node) throws IOException, ServletException {
             rsp.setStatus(statusCode);
             rsp.setContentType("application/json; charset=UTF-8");
-            if (bundleCacheEntry != null) {
-                // Set pugin version info that can be used by the browser to
-                // determine if it wants to use the resource bundle, or not.
-                // The versions may not match (in theory - should never happen),
-                // in which case the browser might not want to use the bundle data.
-                jsonObject.put("plugin-version-requested", bundleCacheEntry.bundleParams.pluginVersion);
-                PluginWrapper pluginWrapper = bundleCacheEntry.bundleParams.getPlugin();
-                if(pluginWrapper != null) {
-                    jsonObject.put("plugin-version-actual", pluginWrapper.getVersion());
-                }
-
-                if (bundleCacheEntry.bundleParams.isBrowserCacheable()) {
-                    // Set the expiry to one year.
-                    rsp.setHeader("Cache-Control", "public, max-age=31536000");
-                } else if (!bundleCacheEntry.bundleParams.isMatchingPluginVersionInstalled()) {
-                    // This should never really happen if things are installed properly
-                    // and the UI is coded up properly, with proper access to the installed
-                    // plugin version.
-                    LOGGER.log(Level.WARNING, String.format("Unexpected request for Blue Ocean i18n resource bundle '%s'. Installed plugin version '%s' does not match.",
-                        bundleCacheEntry.bundleParams, pluginWrapper!= null ? pluginWrapper.getVersion() : "unknown"));
-                }
-            }
-
             byte[] bytes = jsonObject.toString().getBytes(UTF8);
             rsp.setContentLength(bytes.length);
             rsp.getOutputStream().write(bytes);
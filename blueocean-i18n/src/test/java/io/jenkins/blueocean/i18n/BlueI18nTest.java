@@ -113,4 +113,29 @@ public class BlueI18nTest {
         Assert.assertNotEquals(BlueI18n.getBundleParameters("pluginx/1.0/pluginx.bundle/en"), BlueI18n.getBundleParameters("pluginx/1.0/pluginx.bundle/"));
         Assert.assertNotEquals(BlueI18n.getBundleParameters("pluginx/1.0/pluginx.bundle/en"), BlueI18n.getBundleParameters("pluginx/1.0/pluginx.bundle/en_EN"));
     }
+
+    @Test
+    public void test_BundleResponse_matchesETag() {
+        Assert.assertFalse(BlueI18n.BundleResponse.matchesETag(null, "\"abc\""));
+        Assert.assertFalse(BlueI18n.BundleResponse.matchesETag("\"abd\"", "\"abc\""));
+        Assert.assertTrue(BlueI18n.BundleResponse.matchesETag("\"abc\"", "\"abc\""));
+        Assert.assertTrue(BlueI18n.BundleResponse.matchesETag("W/\"abc\"", "\"abc\""));
+        Assert.assertTrue(BlueI18n.BundleResponse.matchesETag("\"xyz\", \"abc\"", "\"abc\""));
+        Assert.assertTrue(BlueI18n.BundleResponse.matchesETag("*", "\"abc\""));
+    }
+
+    @Test
+    public void test_BundleResponse_acceptsGzip() {
+        Assert.assertFalse(BlueI18n.BundleResponse.acceptsGzip(null));
+        Assert.assertFalse(BlueI18n.BundleResponse.acceptsGzip("identity"));
+        Assert.assertTrue(BlueI18n.BundleResponse.acceptsGzip("gzip"));
+        Assert.assertTrue(BlueI18n.BundleResponse.acceptsGzip("deflate, GZIP;q=0.5"));
+        Assert.assertTrue(BlueI18n.BundleResponse.acceptsGzip("x-gzip"));
+        Assert.assertFalse(BlueI18n.BundleResponse.acceptsGzip("gzip;q=0"));
+        Assert.assertFalse(BlueI18n.BundleResponse.acceptsGzip("deflate, gzip ; q=0.0"));
+        Assert.assertTrue(BlueI18n.BundleResponse.acceptsGzip("*"));
+        Assert.assertFalse(BlueI18n.BundleResponse.acceptsGzip("*;q=0"));
+        Assert.assertFalse(BlueI18n.BundleResponse.acceptsGzip("gzip;q=0, *"));
+        Assert.assertFalse(BlueI18n.BundleResponse.acceptsGzip("gzip;q=x"));
+    }
 }
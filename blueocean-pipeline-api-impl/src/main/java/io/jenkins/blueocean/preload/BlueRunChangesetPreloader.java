@@ -49,6 +49,14 @@ public class BlueRunChangesetPreloader extends RESTFetchPreloader {
 
     private static final Logger LOGGER = Logger.getLogger(PipelineActivityStatePreloader.class.getName());
 
+    @Override
+    protected Item getCacheableItem(@Nonnull BlueUrlTokenizer blueUrl) {
+        if (!blueUrl.lastPartIs(BlueUrlTokenizer.UrlPart.PIPELINE_RUN_DETAIL_TAB, "changes")) {
+            return null;
+        }
+        return getPipelineItem(blueUrl);
+    }
+
     @Override
     protected FetchData getFetchData(@Nonnull BlueUrlTokenizer blueUrl) {
 
@@ -140,12 +140,18 @@ public class BlueUrlTokenizer {
         PIPELINE_RUN_DETAIL_TAB,
     }
 
+    private static final String REQUEST_ATTRIBUTE = BlueUrlTokenizer.class.getName();
+    private static final Object NOT_A_BLUE_URL = new Object();
+
     private BlueUrlTokenizer() {
     }
 
     /**
      * Parse the {@link Stapler#getCurrentRequest() current Stapler request} and return a {@link BlueUrlTokenizer} instance
      * iff the URL is a Blue Ocean UI URL.
+     * <p>
+     * The URL is parsed only once per request, e.g. for all {@link io.jenkins.blueocean.commons.PageStatePreloader}s
+     * of a page.
      *
      * @return A {@link BlueUrlTokenizer} instance iff the URL is a Blue Ocean UI URL, otherwise {@code null}.
      * @throws IllegalStateException Called outside the scope of an active {@link StaplerRequest}.
@@ -158,12 +164,18 @@ public class BlueUrlTokenizer {
             throw new IllegalStateException("Illegal call to BlueoceanUrl.parseCurrentRequest outside the scope of an active StaplerRequest.");
         }
 
-        String path = currentRequest.getOriginalRequestURI();
-        String contextPath = currentRequest.getContextPath();
+        Object parsed = currentRequest.getAttribute(REQUEST_ATTRIBUTE);
+        if (parsed == null) {
+            String path = currentRequest.getOriginalRequestURI();
+            String contextPath = currentRequest.getContextPath();
 
-        path = path.substring(contextPath.length());
+            path = path.substring(contextPath.length());
 
-        return parse(path);
+            BlueUrlTokenizer blueUrl = parse(path);
+            parsed = blueUrl != null ? blueUrl : NOT_A_BLUE_URL;
+            currentRequest.setAttribute(REQUEST_ATTRIBUTE, parsed);
+        }
+        return parsed instanceof BlueUrlTokenizer ? (BlueUrlTokenizer) parsed : null;
     }
 
     /**
@@ -273,6 +285,14 @@ public class BlueUrlTokenizer {
         return false;
     }
 
+    /**
+     * @return the parsed parts, e.g. for use in cache keys
+     */
+    @Override
+    public String toString() {
+        return urlParts.toString();
+    }
+
     private static String urlDecode(String string) {
         try {
             return URLDecoder.decode(string, "UTF-8");
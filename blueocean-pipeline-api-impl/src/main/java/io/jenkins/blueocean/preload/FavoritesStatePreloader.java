@@ -25,22 +25,19 @@ package io.jenkins.blueocean.preload;
 
 import hudson.Extension;
 import hudson.model.User;
-import io.jenkins.blueocean.commons.stapler.Export;
-import io.jenkins.blueocean.rest.Reachable;
 import io.jenkins.blueocean.rest.factory.organization.OrganizationFactory;
-import io.jenkins.blueocean.rest.model.BlueFavorite;
 import io.jenkins.blueocean.rest.model.BlueFavoriteContainer;
 import io.jenkins.blueocean.rest.model.BlueOrganization;
+import io.jenkins.blueocean.service.embedded.rest.FavoriteCardCache;
 import io.jenkins.blueocean.service.embedded.rest.UserImpl;
-import net.sf.json.JSONArray;
-import net.sf.json.JSONObject;
+import org.apache.commons.lang.StringUtils;
 
 import javax.annotation.Nonnull;
 
 import com.google.common.collect.Iterables;
 
 import java.io.IOException;
-import java.util.Iterator;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -73,21 +70,17 @@ public class FavoritesStatePreloader extends RESTFetchPreloader {
                 BlueFavoriteContainer favoritesContainer = blueUser.getFavorites();
 
                 if (favoritesContainer != null) {
-                    JSONArray favorites = new JSONArray();
-                    // Limit the number of favorites to return to a sane amount
-                    Iterator<BlueFavorite> favoritesIterator = favoritesContainer.iterator(0, DEFAULT_LIMIT);
-
-                    while (favoritesIterator.hasNext()) {
-                        Reachable favorite = favoritesIterator.next();
-                        try {
-                            favorites.add(JSONObject.fromObject(Export.toJson(favorite)));
-                        } catch (IOException e) {
-                            LOGGER.log(Level.FINE, String.format("Unable to preload favorites for User '%s'. Serialization error.", jenkinsUser.getFullName()), e);
-                            return null;
-                        }
+                    List<String> favorites;
+                    try {
+                        // Limit the number of favorites to return to a sane amount
+                        favorites = FavoriteCardCache.getCards(jenkinsUser, 0, DEFAULT_LIMIT);
+                    } catch (IOException e) {
+                        LOGGER.log(Level.FINE, String.format("Unable to preload favorites for User '%s'. Serialization error.", jenkinsUser.getFullName()), e);
+                        return null;
                     }
 
-                    return new FetchData(favoritesContainer.getLink().getHref() + "?start=0&limit=" + DEFAULT_LIMIT, favorites.toString());
+                    return new FetchData(favoritesContainer.getLink().getHref() + "?start=0&limit=" + DEFAULT_LIMIT,
+                                         "[" + StringUtils.join(favorites, ',') + "]");
                 }
             }
         }
@@ -0,0 +1,194 @@
+package io.jenkins.blueocean.preload;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hudson.Extension;
+import hudson.model.AbstractItem;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.User;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import hudson.plugins.favorite.listener.FavoriteListener;
+import hudson.security.Permission;
+import io.jenkins.blueocean.preload.RESTFetchPreloader.FetchData;
+import io.jenkins.blueocean.service.embedded.rest.AbstractPipelineImpl;
+import io.jenkins.blueocean.service.embedded.util.PermissionCache;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Short lived cache of {@link RESTFetchPreloader} payloads, shared by all users with the same permissions on the item.
+ * <p>
+ * Entries are keyed by item full name, preloader, page and the permissions on the item and its children, and dropped
+ * when the item or one of its descendants is created, changes, is favorited or has a run started, completed or deleted.
+ */
+@Restricted(NoExternalUse.class)
+public final class FetchDataCache {
+
+    private static final Logger LOGGER = Logger.getLogger(FetchDataCache.class.getName());
+
+    /**
+     * Preloaded payload time to live in seconds. Default 5, 0 disables the cache.
+     */
+    static final long FETCH_DATA_CACHE_TTL = Long.getLong("blueocean.preload.cache.ttl", 5);
+
+    /**
+     * Preloaded payload cache maximum number of entries. Default 1000.
+     */
+    static final long FETCH_DATA_CACHE_MAX_SIZE = Long.getLong("blueocean.preload.cache.maxSize", 1000);
+
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * Permissions exposed by the pipeline REST models, see {@link AbstractPipelineImpl#getPermissions(AbstractItem)}.
+     */
+    private static final Permission[] FINGERPRINT_PERMISSIONS = {
+        Item.CREATE, Item.CONFIGURE, Item.READ, Item.BUILD, Item.CANCEL
+    };
+
+    private static final Cache<String, FetchData> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(FETCH_DATA_CACHE_MAX_SIZE)
+            .expireAfterWrite(FETCH_DATA_CACHE_TTL, TimeUnit.SECONDS)
+            .build();
+
+    private FetchDataCache() {}
+
+    /**
+     * Get the payload from the cache or compute it.
+     *
+     * @param preloader computing the data
+     * @param blueUrl page being preloaded
+     * @param item the payload is about
+     * @param loader computes the payload
+     * @return the payload, or {@code null} if there is nothing to preload
+     */
+    @CheckForNull
+    static FetchData get(@Nonnull RESTFetchPreloader preloader, @Nonnull BlueUrlTokenizer blueUrl,
+                         @Nonnull Item item, @Nonnull Callable<FetchData> loader) throws Exception {
+        if (FETCH_DATA_CACHE_TTL <= 0) {
+            return loader.call();
+        }
+        String key = item.getFullName() + SEPARATOR + preloader.getClass().getName() + SEPARATOR
+            + blueUrl + SEPARATOR + permissionFingerprint(item);
+        FetchData fetchData = CACHE.getIfPresent(key);
+        if (fetchData == null) {
+            fetchData = loader.call();
+            if (fetchData != null) {
+                CACHE.put(key, fetchData);
+            }
+        }
+        return fetchData;
+    }
+
+    /**
+     * Identifies what the current user is allowed to see and do on the item, as reflected in the REST payloads. The
+     * payloads of a folder or multibranch pipeline also show its children, e.g. the branches' runs in its activity.
+     */
+    @VisibleForTesting
+    static String permissionFingerprint(Item item) {
+        StringBuilder fingerprint = new StringBuilder();
+        appendPermissions(fingerprint, item);
+        if (item instanceof ItemGroup) {
+            for (Item child : ((ItemGroup<?>) item).getItems()) {
+                fingerprint.append(SEPARATOR).append(child.getName()).append(SEPARATOR);
+                appendPermissions(fingerprint, child);
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    private static void appendPermissions(StringBuilder fingerprint, Item item) {
+        for (Permission permission : FINGERPRINT_PERMISSIONS) {
+            fingerprint.append(PermissionCache.hasPermission(item, permission) ? '1' : '0');
+        }
+    }
+
+    /**
+     * Drop entries about the item and its ancestors, e.g. a multibranch pipeline's activity shows its branches' runs.
+     */
+    static void invalidate(@CheckForNull Item item) {
+        while (item != null) {
+            String prefix = item.getFullName() + SEPARATOR;
+            for (String key : CACHE.asMap().keySet()) {
+                if (key.startsWith(prefix)) {
+                    CACHE.invalidate(key);
+                }
+            }
+            ItemGroup<?> parent = item.getParent();
+            item = parent instanceof Item ? (Item) parent : null;
+        }
+    }
+
+    private static void invalidateAll(String reason) {
+        LOGGER.log(Level.FINE, "Invalidating preloaded payloads: {0}", reason);
+        CACHE.invalidateAll();
+    }
+
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onStarted(Run<?, ?> run, TaskListener listener) {
+            invalidate(run.getParent());
+        }
+
+        @Override
+        public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+            invalidate(run.getParent());
+        }
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            invalidate(run.getParent());
+        }
+    }
+
+    @Extension
+    public static class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onCreated(Item item) {
+            invalidate(item);
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            invalidate(item);
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            invalidate(item);
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            invalidateAll("item moved from " + oldFullName + " to " + newFullName);
+        }
+    }
+
+    /**
+     * Favoriting doesn't change the pipeline payloads today, dropping them keeps it that way if it ever does.
+     */
+    @Extension
+    public static class FavoriteListenerImpl extends FavoriteListener {
+        @Override
+        public void onAddFavourite(Item item, User user) {
+            invalidate(item);
+        }
+
+        @Override
+        public void onRemoveFavourite(Item item, User user) {
+            invalidate(item);
+        }
+    }
+}
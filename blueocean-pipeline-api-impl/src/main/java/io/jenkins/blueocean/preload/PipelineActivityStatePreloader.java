@@ -53,6 +53,11 @@ public class PipelineActivityStatePreloader extends RESTFetchPreloader {
 
     private static final int DEFAULT_LIMIT = 26;
 
+    @Override
+    protected Item getCacheableItem(@Nonnull BlueUrlTokenizer blueUrl) {
+        return addPipelineRuns(blueUrl) ? getPipelineItem(blueUrl) : null;
+    }
+
     @Override
     protected FetchData getFetchData(@Nonnull BlueUrlTokenizer blueUrl) {
         BluePipeline pipeline = getPipeline(blueUrl);
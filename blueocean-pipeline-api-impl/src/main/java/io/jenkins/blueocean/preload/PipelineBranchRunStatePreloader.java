@@ -53,6 +53,15 @@ public class PipelineBranchRunStatePreloader extends RESTFetchPreloader {
 
     private static final Logger LOGGER = Logger.getLogger(PipelineBranchRunStatePreloader.class.getName());
 
+    @Override
+    protected Item getCacheableItem(@Nonnull BlueUrlTokenizer blueUrl) {
+        if (!blueUrl.hasPart(BlueUrlTokenizer.UrlPart.BRANCH) ||
+            !blueUrl.hasPart(BlueUrlTokenizer.UrlPart.PIPELINE_RUN_DETAIL_ID)) {
+            return null;
+        }
+        return getPipelineItem(blueUrl);
+    }
+
     @Override
     protected FetchData getFetchData(@Nonnull BlueUrlTokenizer blueUrl) {
         //
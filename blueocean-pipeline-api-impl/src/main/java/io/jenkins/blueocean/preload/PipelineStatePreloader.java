@@ -45,6 +45,11 @@ public class PipelineStatePreloader extends RESTFetchPreloader {
 
     private static final Logger LOGGER = Logger.getLogger(PipelineStatePreloader.class.getName());
 
+    @Override
+    protected Item getCacheableItem(@Nonnull BlueUrlTokenizer blueUrl) {
+        return getPipelineItem(blueUrl);
+    }
+
     @Override
     protected FetchData getFetchData(@Nonnull BlueUrlTokenizer blueUrl) {
         // e.g. /blue/organizations/jenkins/Pipeline (or a url on that)
@@ -23,12 +23,17 @@
  */
 package io.jenkins.blueocean.preload;
 
+import hudson.model.Item;
 import io.jenkins.blueocean.commons.PageStatePreloader;
+import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * REST prefetch data preloader.
@@ -39,6 +44,9 @@ import javax.annotation.Nonnull;
  * <p>
  * Create implementations of this class (and annotate with {@code @Extension}) for data that
  * we know is going to be needed by the page.
+ * <p>
+ * These preloaders run on the page request thread, as serializing REST models reads the current Stapler request,
+ * e.g. for links and tree parameters.
  *
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
  */
@@ -46,6 +54,8 @@ import javax.annotation.Nonnull;
 public abstract class RESTFetchPreloader extends PageStatePreloader
 {
 
+    private static final Logger LOGGER = Logger.getLogger(RESTFetchPreloader.class.getName());
+
     /**
      * {@inheritDoc}
      */
@@ -66,13 +76,49 @@ public abstract class RESTFetchPreloader extends PageStatePreloader
             return null;
         }
 
-        FetchData fetchData = getFetchData(blueUrl);
+        FetchData fetchData;
+        Item item = getCacheableItem(blueUrl);
+        if (item != null) {
+            try {
+                fetchData = FetchDataCache.get(this, blueUrl, item, () -> getFetchData(blueUrl));
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, String.format("Unable to preload data for '%s'.", item.getFullName()), e);
+                return null;
+            }
+        } else {
+            fetchData = getFetchData(blueUrl);
+        }
         if (fetchData != null) {
             return fetchData.toJSON();
         }
         return null;
     }
 
+    /**
+     * Get the item the preloaded data is about, if the data only depends on that item and the permissions the user
+     * has on it. The data is then shared with other users for a few seconds, see {@link FetchDataCache}.
+     *
+     * @param blueUrl The page URL
+     * @return The item, or {@code null} if the data is not cacheable (the default)
+     */
+    @CheckForNull
+    protected Item getCacheableItem(@Nonnull BlueUrlTokenizer blueUrl) {
+        return null;
+    }
+
+    /**
+     * Look up the item named by the {@link BlueUrlTokenizer.UrlPart#PIPELINE} part of the URL.
+     */
+    @CheckForNull
+    static Item getPipelineItem(@Nonnull BlueUrlTokenizer blueUrl) {
+        String pipelineFullName = blueUrl.getPart(BlueUrlTokenizer.UrlPart.PIPELINE);
+        if (pipelineFullName == null) {
+            return null;
+        }
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        return jenkins != null ? jenkins.getItemByFullName(pipelineFullName) : null;
+    }
+
     protected abstract FetchData getFetchData(@Nonnull BlueUrlTokenizer blueUrl);
 
     public static final class FetchData {
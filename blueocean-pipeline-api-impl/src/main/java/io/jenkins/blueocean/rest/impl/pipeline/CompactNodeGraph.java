@@ -0,0 +1,222 @@
+package io.jenkins.blueocean.rest.impl.pipeline;
+
+import io.jenkins.blueocean.rest.model.BlueRun;
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.pipelinegraphanalysis.TimingInfo;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, compact copy of a pipeline DAG as built by {@link PipelineNodeGraphVisitor}.
+ * <p>
+ * Nodes are numbered in the order of {@link NodeGraphBuilder#getPipelineNodes()}. Edges and parents are kept as
+ * primitive adjacency arrays, names are interned and status and timing are packed into primitive columns, so that
+ * graphs of completed runs can be kept around cheaply, see {@link NodeGraphBuilder.NodeGraphBuilderFactory#getCompactGraph}.
+ * No {@link FlowNode} is retained, {@link #getFlowNode(int, WorkflowRun)} loads it from the run when needed.
+ */
+public final class CompactNodeGraph {
+
+    private static final FlowNodeWrapper.NodeType[] TYPES = FlowNodeWrapper.NodeType.values();
+    private static final BlueRun.BlueRunResult[] RESULTS = BlueRun.BlueRunResult.values();
+    private static final BlueRun.BlueRunState[] STATES = BlueRun.BlueRunState.values();
+    private static final byte NONE = -1;
+
+    private final String[] ids;
+    private final String[] displayNames;
+    private final byte[] types;
+    private final byte[] results;
+    private final byte[] states;
+    private final long[] startTimes;
+    private final long[] durations;
+    private final long[] pauseDurations;
+
+    /** Edges of node {@code i} are {@code edgeTargets[edgeOffsets[i]]} to {@code edgeTargets[edgeOffsets[i + 1] - 1]} */
+    private final int[] edgeOffsets;
+    private final int[] edgeTargets;
+    /** Same layout as the edges */
+    private final int[] parentOffsets;
+    private final int[] parentTargets;
+
+    private final Map<String, Integer> indexById;
+
+    CompactNodeGraph(@Nonnull List<FlowNodeWrapper> nodes) {
+        int size = nodes.size();
+        Map<FlowNodeWrapper, Integer> index = new IdentityHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            index.put(nodes.get(i), i);
+        }
+        ids = new String[size];
+        displayNames = new String[size];
+        types = new byte[size];
+        results = new byte[size];
+        states = new byte[size];
+        startTimes = new long[size];
+        durations = new long[size];
+        pauseDurations = new long[size];
+        edgeOffsets = new int[size + 1];
+        parentOffsets = new int[size + 1];
+        int edgeCount = 0;
+        int parentCount = 0;
+        for (FlowNodeWrapper node : nodes) {
+            edgeCount += node.edges.size();
+            parentCount += node.getParents().size();
+        }
+        edgeTargets = new int[edgeCount];
+        parentTargets = new int[parentCount];
+        indexById = new HashMap<>(size * 2);
+
+        int edge = 0;
+        int parent = 0;
+        for (int i = 0; i < size; i++) {
+            FlowNodeWrapper node = nodes.get(i);
+            ids[i] = node.getId().intern();
+            displayNames[i] = node.getDisplayName().intern();
+            types[i] = (byte) node.getType().ordinal();
+            NodeRunStatus status = node.getStatus();
+            results[i] = status.result == null ? NONE : (byte) status.result.ordinal();
+            states[i] = status.state == null ? NONE : (byte) status.state.ordinal();
+            TimingInfo timing = node.getTiming();
+            startTimes[i] = timing.getStartTimeMillis();
+            durations[i] = timing.getTotalDurationMillis();
+            pauseDurations[i] = timing.getPauseDurationMillis();
+            edgeOffsets[i] = edge;
+            for (FlowNodeWrapper e : node.edges) {
+                edgeTargets[edge++] = indexOf(index, e);
+            }
+            parentOffsets[i] = parent;
+            for (FlowNodeWrapper p : node.getParents()) {
+                parentTargets[parent++] = indexOf(index, p);
+            }
+            indexById.putIfAbsent(ids[i], i);
+        }
+        edgeOffsets[size] = edge;
+        parentOffsets[size] = parent;
+    }
+
+    private static int indexOf(Map<FlowNodeWrapper, Integer> index, FlowNodeWrapper node) {
+        Integer i = index.get(node);
+        if (i == null) {
+            throw new IllegalArgumentException("Node " + node + " is not part of the graph");
+        }
+        return i;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return index of the first node with this id, or -1
+     */
+    public int indexOf(@Nonnull String id) {
+        Integer i = indexById.get(id);
+        return i == null ? -1 : i;
+    }
+
+    /**
+     * @return index of the first node with this display name whose first parent has the given display name, or -1
+     */
+    public int indexOfParentage(@Nonnull String displayName, @Nonnull String firstParentDisplayName) {
+        for (int i = 0; i < size(); i++) {
+            int parent = getFirstParent(i);
+            String parentName = parent < 0 ? "" : displayNames[parent];
+            if (displayNames[i].equals(displayName) && parentName.equals(firstParentDisplayName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Nonnull
+    public String getId(int i) {
+        return ids[i];
+    }
+
+    @Nonnull
+    public String getDisplayName(int i) {
+        return displayNames[i];
+    }
+
+    @Nonnull
+    public FlowNodeWrapper.NodeType getType(int i) {
+        return TYPES[types[i]];
+    }
+
+    @Nonnull
+    public NodeRunStatus getStatus(int i) {
+        return new NodeRunStatus(results[i] == NONE ? null : RESULTS[results[i]],
+                                 states[i] == NONE ? null : STATES[states[i]]);
+    }
+
+    @Nonnull
+    public TimingInfo getTiming(int i) {
+        return new TimingInfo(durations[i], pauseDurations[i], startTimes[i]);
+    }
+
+    @Nonnull
+    public int[] getEdges(int i) {
+        return slice(edgeTargets, edgeOffsets[i], edgeOffsets[i + 1]);
+    }
+
+    @Nonnull
+    public int[] getParents(int i) {
+        return slice(parentTargets, parentOffsets[i], parentOffsets[i + 1]);
+    }
+
+    /**
+     * @return index of the first parent, or -1
+     */
+    public int getFirstParent(int i) {
+        return parentOffsets[i] < parentOffsets[i + 1] ? parentTargets[parentOffsets[i]] : -1;
+    }
+
+    private static int[] slice(int[] array, int from, int to) {
+        int[] slice = new int[to - from];
+        System.arraycopy(array, from, slice, 0, slice.length);
+        return slice;
+    }
+
+    /**
+     * Same as {@link FlowNodeWrapper#probablySameNode(FlowNodeWrapper)}, between node {@code i} of this graph and the
+     * given node.
+     */
+    public boolean probablySameNode(int i, @CheckForNull FlowNodeWrapper that) {
+        while (true) {
+            if (that == null || getType(i) != that.getType() || !displayNames[i].equals(that.getDisplayName())) {
+                return false;
+            }
+            int parent = getFirstParent(i);
+            FlowNodeWrapper thatParent = that.getFirstParent();
+            if (parent < 0) {
+                return thatParent == null;
+            }
+            i = parent;
+            that = thatParent;
+        }
+    }
+
+    /**
+     * @param run the graph was built from
+     * @return the flow node of node {@code i}, or {@code null} if it cannot be loaded, e.g. synthetic stages
+     */
+    @CheckForNull
+    public FlowNode getFlowNode(int i, @Nonnull WorkflowRun run) {
+        FlowExecution execution = run.getExecution();
+        if (execution == null) {
+            return null;
+        }
+        try {
+            return execution.getNode(ids[i]);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -2,15 +2,10 @@ package io.jenkins.blueocean.rest.impl.pipeline;
 
 import hudson.Extension;
 import hudson.model.Queue;
-import hudson.model.Run;
-import io.jenkins.blueocean.rest.factory.BluePipelineFactory;
 import io.jenkins.blueocean.rest.hal.Link;
 import io.jenkins.blueocean.rest.hal.LinkResolver;
-import io.jenkins.blueocean.rest.model.BluePipeline;
 import io.jenkins.blueocean.rest.model.BluePipelineNode;
 import io.jenkins.blueocean.rest.model.BluePipelineStep;
-import io.jenkins.blueocean.rest.model.BlueRun;
-import io.jenkins.blueocean.rest.model.BlueRunContainer;
 import io.jenkins.blueocean.rest.model.Resource;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepAtomNode;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
@@ -32,14 +27,14 @@ public class LinkResolverImpl extends LinkResolver {
     public Link resolve(Object modelObject) {
         if (modelObject instanceof FlowNode) {
             FlowNode flowNode = (FlowNode) modelObject;
-            BlueRun r = resolveFlowNodeRun(flowNode);
+            Link r = resolveFlowNodeRun(flowNode);
             if (PipelineNodeUtil.isParallelBranch(flowNode) || PipelineNodeUtil.isStage(flowNode)) { // its Node
                 if (r != null) {
-                    return r.getLink().rel("nodes/" + flowNode.getId());
+                    return r.rel("nodes/" + flowNode.getId());
                 }
             } else if (flowNode instanceof StepAtomNode && !PipelineNodeUtil.isStage(flowNode)) {
                 if (r != null) {
-                    return r.getLink().rel("steps/" + flowNode.getId());
+                    return r.rel("steps/" + flowNode.getId());
                 }
             }
         }else if(modelObject instanceof BluePipelineNode || modelObject instanceof BluePipelineStep){
@@ -49,12 +44,13 @@ public class LinkResolverImpl extends LinkResolver {
     }
 
 
-    private BlueRun resolveFlowNodeRun(FlowNode flowNode) {
+    private Link resolveFlowNodeRun(FlowNode flowNode) {
         try {
             Queue.Executable executable = flowNode.getExecution().getOwner().getExecutable();
             if (executable != null && executable instanceof WorkflowRun) {
                 WorkflowRun run = (WorkflowRun) executable;
-                return (BlueRun) resolveRun(run);
+                // run links are resolved from the cached link of the job
+                return LinkResolver.resolveLink(run);
             }
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -63,14 +59,4 @@ public class LinkResolverImpl extends LinkResolver {
         }
         return null;
     }
-
-    private Resource resolveRun(Run run){
-        Resource resource = BluePipelineFactory.resolve(run.getParent());
-        if(resource instanceof BluePipeline){
-            BluePipeline pipeline = (BluePipeline) resource;
-            BlueRunContainer blueRunContainer = pipeline.getRuns();
-            return blueRunContainer == null ? null : blueRunContainer.get(run.getId());
-        }
-        return null;
-    }
 }
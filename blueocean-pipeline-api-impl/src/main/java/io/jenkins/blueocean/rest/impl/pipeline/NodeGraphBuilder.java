@@ -1,10 +1,15 @@
 package io.jenkins.blueocean.rest.impl.pipeline;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.jenkins.blueocean.rest.hal.Link;
 import io.jenkins.blueocean.rest.model.BluePipelineNode;
 import io.jenkins.blueocean.rest.model.BluePipelineStep;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -25,18 +30,58 @@ public interface NodeGraphBuilder {
     /** Gives all the steps in this pipeline */
     List<BluePipelineStep> getPipelineNodeSteps(Link parent);
 
+    /**
+     * Gives a window of the steps inside given nodeId, or of all the steps in this pipeline if nodeId is null.
+     * Only the steps in the window are wrapped.
+     *
+     * @param since if given, the window starts after the step with this id, and is empty if there is no such step
+     */
+    Iterator<BluePipelineStep> getPipelineNodeSteps(@Nullable String nodeId, @Nullable String since, int start, int limit, Link parent);
+
     /** Give the step for given id */
     BluePipelineStep getPipelineNodeStep(String id, Link parent);
 
     /** Create union of last successful run and this partial run */
     List<BluePipelineNode> union(List<FlowNodeWrapper> lastBuildGraph, Link parent);
 
+    /** Create union of last successful run, given as a compact graph, and this partial run */
+    List<BluePipelineNode> union(CompactNodeGraph lastBuildGraph, WorkflowRun lastBuild, Link parent);
+
     /** Factory to give pipeline DAG builder */
     // At this point we are not exposing NodeGraphBuilder as ExtensionPoint, its more of convenience to allow us
     // to use alternative implementation in future
     final class NodeGraphBuilderFactory{
+        /**
+         * Compact graphs of completed runs by run id and start time. Default maximum size 1000.
+         */
+        private static final Cache<String, CompactNodeGraph> COMPACT_GRAPHS = CacheBuilder.newBuilder()
+            .maximumSize(Long.getLong("blueocean.nodes.compactGraphCache.maxSize", 1000))
+            .build();
+
         public static NodeGraphBuilder getInstance(WorkflowRun run){
             return new PipelineNodeGraphVisitor(run);
         }
+
+        /**
+         * Gives the DAG graph of a completed run as a {@link CompactNodeGraph}, computed once. Only used for the past
+         * build a running pipeline's graph is merged with, the graph of the requested run itself is still built from
+         * {@link FlowNodeWrapper}s.
+         *
+         * @return the graph, or null if the run is still running
+         */
+        @CheckForNull
+        public static CompactNodeGraph getCompactGraph(WorkflowRun run){
+            if (run.isBuilding()) {
+                return null;
+            }
+            // a run of another job may get the same id once this job is deleted or renamed
+            String key = run.getExternalizableId() + '@' + run.getStartTimeInMillis();
+            CompactNodeGraph graph = COMPACT_GRAPHS.getIfPresent(key);
+            if (graph == null) {
+                graph = new CompactNodeGraph(getInstance(run).getPipelineNodes());
+                COMPACT_GRAPHS.put(key, graph);
+            }
+            return graph;
+        }
     }
 }
@@ -35,8 +35,13 @@ public class PipelineNodeContainerImpl extends BluePipelineNodeContainer {
             && job.getLastSuccessfulBuild() != null
             && Integer.parseInt(job.getLastSuccessfulBuild().getId()) < Integer.parseInt(run.getId())) {
 
-            NodeGraphBuilder pastBuildGraph = NodeGraphBuilder.NodeGraphBuilderFactory.getInstance(job.getLastSuccessfulBuild());
-            this.nodes = graphBuilder.union(pastBuildGraph.getPipelineNodes(), getLink());
+            WorkflowRun lastSuccessfulBuild = job.getLastSuccessfulBuild();
+            CompactNodeGraph pastBuildGraph = NodeGraphBuilder.NodeGraphBuilderFactory.getCompactGraph(lastSuccessfulBuild);
+            if (pastBuildGraph != null) {
+                this.nodes = graphBuilder.union(pastBuildGraph, lastSuccessfulBuild, getLink());
+            } else {
+                this.nodes = graphBuilder.union(NodeGraphBuilder.NodeGraphBuilderFactory.getInstance(lastSuccessfulBuild).getPipelineNodes(), getLink());
+            }
         } else {
             this.nodes = graphBuilder.getPipelineNodes(getLink());
         }
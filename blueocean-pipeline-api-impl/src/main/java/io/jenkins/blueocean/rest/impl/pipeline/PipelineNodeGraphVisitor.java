@@ -1,5 +1,7 @@
 package io.jenkins.blueocean.rest.impl.pipeline;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.model.Action;
 import io.jenkins.blueocean.rest.hal.Link;
@@ -80,6 +82,19 @@ public class PipelineNodeGraphVisitor extends StandardChunkVisitor implements No
 
     private static final Logger logger = LoggerFactory.getLogger(PipelineNodeGraphVisitor.class);
 
+    /**
+     * Number of node ids probed after a step to find the node following it, see {@link #findNext}
+     */
+    private static final int NEXT_NODE_PROBE_LIMIT = Integer.getInteger("blueocean.steps.nextNodeProbeLimit", 100);
+
+    /**
+     * Ordered step ids of completed runs, by run id, start time and node, so that windows of steps are served
+     * without walking the graph again. Default maximum size 1000.
+     */
+    private static final Cache<String, StepIndex> STEP_INDEXES = CacheBuilder.newBuilder()
+        .maximumSize(Long.getLong("blueocean.steps.indexCache.maxSize", 1000))
+        .build();
+
     private final boolean isNodeVisitorDumpEnabled = Boolean.getBoolean("NODE-DUMP-ENABLED") && logger.isDebugEnabled();
 
     private final Stack<FlowNode> nestedStages = new Stack<>();
@@ -105,12 +120,24 @@ public class PipelineNodeGraphVisitor extends StandardChunkVisitor implements No
 
     private final boolean declarative;
 
+    private boolean visited;
+
     public PipelineNodeGraphVisitor(WorkflowRun run) {
         this.run = run;
         this.inputAction = run.getAction(InputAction.class);
         this.pipelineActions = new HashSet<>();
         this.pendingActionsForBranches = new HashMap<>();
         declarative = run.getAction(ExecutionModelAction.class) != null;
+    }
+
+    /**
+     * Builds the DAG on first use, so that step lookups do not pay for it.
+     */
+    private void visit() {
+        if (visited) {
+            return;
+        }
+        visited = true;
         FlowExecution execution = run.getExecution();
         if (execution != null) {
             try {
@@ -586,11 +613,13 @@ public class PipelineNodeGraphVisitor extends StandardChunkVisitor implements No
 
     @Override
     public List<FlowNodeWrapper> getPipelineNodes() {
+        visit();
         return new ArrayList<>(nodes);
     }
 
     @Override
     public List<BluePipelineNode> getPipelineNodes(final Link parent) {
+        visit();
         return this.nodes.stream()
                          .map(n -> new PipelineNodeImpl(n, () -> parent, run))
                          .collect(Collectors.toList());
@@ -598,42 +627,140 @@ public class PipelineNodeGraphVisitor extends StandardChunkVisitor implements No
 
     @Override
     public List<BluePipelineStep> getPipelineNodeSteps(final String nodeId, Link parent) {
-        FlowExecution execution = run.getExecution();
-        if (execution == null) {
-            logger.debug(String.format("Pipeline %s, runid %s  has null execution", run.getParent().getName(), run.getId()));
-            return Collections.emptyList();
-        }
-        DepthFirstScanner depthFirstScanner = new DepthFirstScanner();
-        //If blocked scope, get the end node
-        FlowNode n = depthFirstScanner
-            .findFirstMatch(execution.getCurrentHeads(),
-                            input -> (input != null
-                                && input.getId().equals(nodeId)
-                                && (PipelineNodeUtil.isStage(input) || PipelineNodeUtil.isParallelBranch(input))));
-
-        if (n == null) { //if no node found or the node is not stage or parallel we return empty steps
-            return Collections.emptyList();
-        }
-        PipelineStepVisitor visitor = new PipelineStepVisitor(run, n);
-        ForkScanner.visitSimpleChunks(execution.getCurrentHeads(), visitor, new StageChunkFinder());
-        return visitor.getSteps()
+        return stepRefs(nodeId)
                       .stream()
-                      .map(node -> new PipelineStepImpl(node, parent))
+                      .map(step -> new PipelineStepImpl(step.get(), parent))
                       .collect(Collectors.toList());
     }
 
     @Override
     public List<BluePipelineStep> getPipelineNodeSteps(Link parent) {
+        return stepRefs(null)
+                      .stream()
+                      .map(step -> new PipelineStepImpl(step.get(), parent))
+                      .collect(Collectors.toList());
+    }
+
+    /**
+     * The steps of a completed run are looked up by id from its cached {@link StepIndex}, only a running run, or a
+     * step the lookup does not find, takes a walk of the graph.
+     */
+    @Override
+    public Iterator<BluePipelineStep> getPipelineNodeSteps(@Nullable String nodeId, @Nullable String since,
+                                                           int start, int limit, Link parent) {
+        List<PipelineStepVisitor.StepRef> steps = null;
+        StepIndex index = null;
+        // a run of another job may get the same id once this job is deleted or renamed
+        String key = run.getExternalizableId() + '@' + run.getStartTimeInMillis() + ':' + nodeId;
+        if (!run.isBuilding()) {
+            index = STEP_INDEXES.getIfPresent(key);
+        }
+        if (index == null) {
+            steps = stepRefs(nodeId);
+            index = new StepIndex(steps);
+            if (!run.isBuilding()) {
+                STEP_INDEXES.put(key, index);
+            }
+        }
+
+        int from = 0;
+        if (since != null) {
+            from = index.indexAfter(since);
+            if (from < 0) {
+                // nothing is known to come after a step that is not there
+                return Collections.emptyIterator();
+            }
+        }
+        from = (int) Math.min((long) from + Math.max(start, 0), index.size());
+        int to = (int) Math.min((long) from + Math.max(limit, 0), index.size());
+
+        // only the steps of the window get their status and timing computed
+        if (steps == null) {
+            FlowExecution execution = run.getExecution();
+            List<BluePipelineStep> window = new ArrayList<>(to - from);
+            for (int i = from; i < to && execution != null; i++) {
+                String id = index.get(i);
+                FlowNodeWrapper step = isNumericId(id) ? getStep(execution, id) : null;
+                if (step == null) {
+                    window = null;
+                    break;
+                }
+                window.add(new PipelineStepImpl(step, parent));
+            }
+            if (window != null && execution != null) {
+                return window.iterator();
+            }
+            steps = stepRefs(nodeId);
+        }
+        return steps.subList(Math.min(from, steps.size()), Math.min(to, steps.size()))
+                    .stream()
+                    .map(step -> (BluePipelineStep) new PipelineStepImpl(step.get(), parent))
+                    .iterator();
+    }
+
+    /**
+     * Step ids of a run or one of its nodes, in order.
+     */
+    static final class StepIndex {
+        private final String[] ids;
+        private final Map<String, Integer> positions;
+
+        StepIndex(List<PipelineStepVisitor.StepRef> steps) {
+            this.ids = new String[steps.size()];
+            this.positions = new HashMap<>(steps.size() * 2);
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = steps.get(i).getId();
+                positions.putIfAbsent(ids[i], i);
+            }
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        String get(int i) {
+            return ids[i];
+        }
+
+        /**
+         * @return index of the step following the given step, or -1 if there is no such step
+         */
+        int indexAfter(String id) {
+            Integer position = positions.get(id);
+            return position == null ? -1 : position + 1;
+        }
+    }
+
+    /**
+     * @param nodeId stage or parallel branch, or {@code null} for all steps of the run
+     * @return the steps, in order, not yet wrapped
+     */
+    private List<PipelineStepVisitor.StepRef> stepRefs(@Nullable String nodeId) {
         FlowExecution execution = run.getExecution();
         if (execution == null) {
+            logger.debug(String.format("Pipeline %s, runid %s  has null execution", run.getParent().getName(), run.getId()));
             return Collections.emptyList();
         }
-        PipelineStepVisitor visitor = new PipelineStepVisitor(run, null);
+        FlowNode n = null;
+        if (nodeId != null) {
+            if (isNumericId(nodeId)) {
+                try {
+                    n = execution.getNode(nodeId);
+                } catch (IOException e) {
+                    logger.warn("Failed to load node " + nodeId + " of run " + run.getExternalizableId(), e);
+                }
+            }
+            if (n != null && !PipelineNodeUtil.isStage(n) && !PipelineNodeUtil.isParallelBranch(n)) {
+                n = null;
+            }
+
+            if (n == null) { //if no node found or the node is not stage or parallel we return empty steps
+                return Collections.emptyList();
+            }
+        }
+        PipelineStepVisitor visitor = new PipelineStepVisitor(run, n);
         ForkScanner.visitSimpleChunks(execution.getCurrentHeads(), visitor, new StageChunkFinder());
-        return visitor.getSteps()
-                      .stream()
-                      .map(node -> new PipelineStepImpl(node, parent))
-                      .collect(Collectors.toList());
+        return visitor.getStepRefs();
     }
 
     @Override
@@ -642,15 +769,102 @@ public class PipelineNodeGraphVisitor extends StandardChunkVisitor implements No
         if (execution == null) {
             return null;
         }
-        PipelineStepVisitor visitor = new PipelineStepVisitor(run, null);
-        ForkScanner.visitSimpleChunks(execution.getCurrentHeads(), visitor, new StageChunkFinder());
-        FlowNodeWrapper node = visitor.getStep(id);
+        if (!isNumericId(id)) {
+            // not a CPS node id, e.g. the fake step telling why a stage is blocked
+            PipelineStepVisitor visitor = new PipelineStepVisitor(run, null);
+            ForkScanner.visitSimpleChunks(execution.getCurrentHeads(), visitor, new StageChunkFinder());
+            FlowNodeWrapper node = visitor.getStep(id);
+            if (node == null) {
+                return null;
+            }
+            return new PipelineStepImpl(node, parent);
+        }
+        FlowNodeWrapper node = getStep(execution, id);
         if (node == null) {
             return null;
         }
         return new PipelineStepImpl(node, parent);
     }
 
+    /**
+     * Looks up a step by id and computes its status and timing from its neighbours, without walking the graph.
+     *
+     * @return the step, or {@code null} if there is no such step or {@link PipelineStepVisitor} would not list it
+     */
+    @CheckForNull
+    private FlowNodeWrapper getStep(@Nonnull FlowExecution execution, @Nonnull String id) {
+        FlowNode atomNode;
+        try {
+            atomNode = execution.getNode(id);
+        } catch (IOException e) {
+            logger.warn("Failed to load node " + id + " of run " + run.getExternalizableId(), e);
+            return null;
+        }
+        if (!(atomNode instanceof StepAtomNode)) {
+            return null;
+        }
+        for (FlowNode block : atomNode.getEnclosingBlocks()) {
+            if (PipelineNodeUtil.isSkippedStage(block)) {
+                return null;
+            }
+        }
+        FlowNode after = findNext(execution, atomNode);
+        FlowNodeWrapper step = PipelineStepVisitor.createStepWrapper(run, inputAction, (StepAtomNode) atomNode,
+                                                                      PauseAction.getPauseDuration(atomNode), after);
+        // Same as PipelineStepVisitor, a step directly followed by the end of a failed block gets its error
+        List<FlowNode> parents = atomNode.getParents();
+        if (after instanceof StepEndNode && ((StepEndNode) after).getError() != null
+            && !parents.isEmpty() && new NodeRunStatus(parents.get(0)).result != BlueRun.BlueRunResult.FAILURE) {
+            step.setBlockErrorAction(((StepEndNode) after).getError());
+        }
+        return step;
+    }
+
+    /**
+     * Find the node following the given node. CPS node ids are increasing integers, so the following node is the
+     * first node with a greater id having the given node as parent. It is usually the very next id, unless parallel
+     * branches ran meanwhile, so only the next {@link #NEXT_NODE_PROBE_LIMIT} ids are probed before walking the graph
+     * back from its heads.
+     *
+     * @return the following node, or {@code null} if the node is a head of the execution
+     */
+    @CheckForNull
+    private static FlowNode findNext(@Nonnull FlowExecution execution, @Nonnull FlowNode node) {
+        List<FlowNode> heads = execution.getCurrentHeads();
+        int last = 0;
+        for (FlowNode head : heads) {
+            if (head.equals(node)) {
+                return null;
+            }
+            if (isNumericId(head.getId())) {
+                last = Math.max(last, Integer.parseInt(head.getId()));
+            }
+        }
+        int id = Integer.parseInt(node.getId());
+        int probeLast = (int) Math.min(last, (long) id + NEXT_NODE_PROBE_LIMIT);
+        for (int i = id + 1; i <= probeLast; i++) {
+            FlowNode candidate;
+            try {
+                candidate = execution.getNode(Integer.toString(i));
+            } catch (IOException e) {
+                logger.warn("Failed to load node " + i, e);
+                continue;
+            }
+            if (candidate != null && candidate.getParentIds().contains(node.getId())) {
+                return candidate;
+            }
+        }
+        if (probeLast == last) {
+            return null;
+        }
+        return new DepthFirstScanner().findFirstMatch(heads, candidate -> candidate != null
+            && candidate.getParentIds().contains(node.getId()));
+    }
+
+    private static boolean isNumericId(String id) {
+        return StringUtils.isNumeric(id) && id.length() < 10;
+    }
+
     private static Optional<FlowNodeWrapper> findNodeWrapperByIdIn(String id, Collection<FlowNodeWrapper> nodes) {
         for (FlowNodeWrapper node : nodes) {
             if (node.getId().equals(id)) {
@@ -681,6 +895,7 @@ public class PipelineNodeGraphVisitor extends StandardChunkVisitor implements No
 
     @Override
     public List<BluePipelineNode> union(List<FlowNodeWrapper> previousNodes, final Link parent) {
+        visit();
 
         boolean graphsAreCompatible = true;
 
@@ -783,6 +998,65 @@ public class PipelineNodeGraphVisitor extends StandardChunkVisitor implements No
         return this.getPipelineNodes(parent);
     }
 
+    @Override
+    public List<BluePipelineNode> union(CompactNodeGraph previous, WorkflowRun previousRun, final Link parent) {
+        visit();
+
+        // The node for the current build corresponding to each node of the previous graph
+        FlowNodeWrapper[] newNodes = new FlowNodeWrapper[previous.size()];
+
+        // Start with the currently-executing nodes
+        for (FlowNodeWrapper currentNodeWrapper : nodes) {
+            int oldNode = previous.indexOf(currentNodeWrapper.getId());
+
+            // If we can't find the same node by ID, we will search via name + firstparent
+            if (oldNode < 0) {
+                FlowNodeWrapper firstParent = currentNodeWrapper.getFirstParent();
+                oldNode = previous.indexOfParentage(currentNodeWrapper.getDisplayName(),
+                                                    firstParent == null ? "" : firstParent.getDisplayName());
+            }
+
+            if (oldNode < 0 || !previous.probablySameNode(oldNode, currentNodeWrapper)) {
+                // Graphs not the same, user probably changed pipleine definition
+                return this.getPipelineNodes(parent);
+            }
+
+            // New wrapper object based on current execution
+            newNodes[oldNode] = new FlowNodeWrapper(
+                currentNodeWrapper.getNode(),
+                currentNodeWrapper.getStatus(),
+                currentNodeWrapper.getTiming(),
+                currentNodeWrapper.getInputStep(),
+                run
+            );
+        }
+
+        // Walk the old graph, create new wrappers for any stages not yet started
+        for (int i = 0; i < newNodes.length; i++) {
+            if (newNodes[i] == null) {
+                FlowNode oldNode = previous.getFlowNode(i, previousRun);
+                if (oldNode == null) {
+                    // e.g. a synthetic stage, only the full graph of the previous run has it
+                    return union(NodeGraphBuilderFactory.getInstance(previousRun).getPipelineNodes(), parent);
+                }
+                newNodes[i] = new FlowNodeWrapper(oldNode, new NodeRunStatus(null, null), new TimingInfo(), null, run);
+            }
+        }
+
+        // Re-create edges and parentage based on previous run, and keep the original order
+        ArrayList<BluePipelineNode> newList = new ArrayList<>(newNodes.length);
+        for (int i = 0; i < newNodes.length; i++) {
+            for (int edge : previous.getEdges(i)) {
+                newNodes[i].addEdge(newNodes[edge]);
+            }
+            for (int oldParent : previous.getParents(i)) {
+                newNodes[i].addParent(newNodes[oldParent]);
+            }
+            newList.add(new PipelineNodeImpl(newNodes[i], () -> parent, run));
+        }
+        return newList;
+    }
+
     private void captureOrphanParallelBranches() {
         if (!parallelBranches.isEmpty() && (firstExecuted == null
             || !PipelineNodeUtil.isStage(firstExecuted)
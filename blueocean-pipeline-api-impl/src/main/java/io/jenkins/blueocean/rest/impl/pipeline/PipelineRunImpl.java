@@ -11,15 +11,14 @@ import io.jenkins.blueocean.rest.annotation.Capability;
 import io.jenkins.blueocean.rest.factory.BlueRunFactory;
 import io.jenkins.blueocean.rest.impl.pipeline.BranchImpl.Branch;
 import io.jenkins.blueocean.rest.impl.pipeline.BranchImpl.PullRequest;
-import io.jenkins.blueocean.rest.model.BlueChangeSetEntry;
 import io.jenkins.blueocean.rest.model.BlueOrganization;
 import io.jenkins.blueocean.rest.model.BluePipelineNode;
 import io.jenkins.blueocean.rest.model.BluePipelineNodeContainer;
 import io.jenkins.blueocean.rest.model.BluePipelineStepContainer;
 import io.jenkins.blueocean.rest.model.BlueQueueItem;
 import io.jenkins.blueocean.rest.model.BlueRun;
-import io.jenkins.blueocean.rest.model.Container;
 import io.jenkins.blueocean.service.embedded.rest.AbstractRunImpl;
+import io.jenkins.blueocean.service.embedded.rest.ChangeSetIndex;
 import io.jenkins.blueocean.service.embedded.rest.QueueUtil;
 import io.jenkins.blueocean.service.embedded.rest.StoppableRun;
 import jenkins.model.Jenkins;
@@ -175,11 +174,7 @@ public class PipelineRunImpl extends AbstractRunImpl<WorkflowRun> {
     public String getCommitUrl() {
         String commitId = getCommitId();
         if (commitId != null) {
-            Container<BlueChangeSetEntry> changeSets = getChangeSet();
-            BlueChangeSetEntry entry = changeSets.get(commitId);
-            if (entry != null) {
-                return entry.getUrl();
-            }
+            return ChangeSetIndex.get(run).getCommitUrl(commitId);
         }
         return null;
     }
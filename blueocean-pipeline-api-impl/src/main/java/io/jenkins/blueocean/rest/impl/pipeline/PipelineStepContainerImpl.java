@@ -1,9 +1,12 @@
 package io.jenkins.blueocean.rest.impl.pipeline;
 
+import hudson.Util;
 import io.jenkins.blueocean.rest.hal.Link;
 import io.jenkins.blueocean.rest.model.BluePipelineStep;
 import io.jenkins.blueocean.rest.model.BluePipelineStepContainer;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest;
 
 import java.util.Iterator;
 
@@ -43,6 +46,18 @@ public class PipelineStepContainerImpl extends BluePipelineStepContainer {
             : builder.getPipelineNodeSteps(node.getId(), getLink()).iterator();
     }
 
+    /**
+     * Only the steps of the requested window are wrapped and serialized. The {@code since} query parameter, a step
+     * id, moves the window after that step, e.g. to fetch the steps added since the last poll of a running pipeline.
+     */
+    @Override
+    public Iterator<BluePipelineStep> iterator(int start, int limit) {
+        NodeGraphBuilder builder = NodeGraphBuilder.NodeGraphBuilderFactory.getInstance(run);
+        StaplerRequest request = Stapler.getCurrentRequest();
+        String since = request == null ? null : Util.fixEmptyAndTrim(request.getParameter("since"));
+        return builder.getPipelineNodeSteps(node == null ? null : node.getId(), since, start, limit, getLink());
+    }
+
     @Override
     public Link getLink() {
         return self;
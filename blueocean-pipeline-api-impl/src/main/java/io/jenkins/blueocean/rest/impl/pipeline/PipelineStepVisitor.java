@@ -14,6 +14,7 @@ import java.util.concurrent.TimeoutException;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.jenkinsci.plugins.workflow.actions.ErrorAction;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepAtomNode;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepEndNode;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepStartNode;
@@ -45,11 +46,11 @@ public class PipelineStepVisitor extends StandardChunkVisitor {
     private final FlowNode node;
     private final WorkflowRun run;
 
-    private final ArrayDeque<FlowNodeWrapper> steps = new ArrayDeque<>();
-    private final ArrayDeque<FlowNodeWrapper> preSteps = new ArrayDeque<>();
-    private final ArrayDeque<FlowNodeWrapper> postSteps = new ArrayDeque<>();
+    private final ArrayDeque<StepRef> steps = new ArrayDeque<>();
+    private final ArrayDeque<StepRef> preSteps = new ArrayDeque<>();
+    private final ArrayDeque<StepRef> postSteps = new ArrayDeque<>();
 
-    private final Map<String,FlowNodeWrapper> stepMap = new HashMap<>();
+    private final Map<String,StepRef> stepMap = new HashMap<>();
 
     private boolean stageStepsCollectionCompleted = false;
 
@@ -140,7 +141,7 @@ public class PipelineStepVisitor extends StandardChunkVisitor {
                 //Now add a step that indicates blockage cause
                 FlowNode step = new LocalAtomNode(chunk, cause);
 
-                FlowNodeWrapper stepNode = new FlowNodeWrapper(step, new NodeRunStatus(BlueRun.BlueRunResult.UNKNOWN, BlueRun.BlueRunState.QUEUED),new TimingInfo(), run);
+                StepRef stepNode = new StepRef(new FlowNodeWrapper(step, new NodeRunStatus(BlueRun.BlueRunResult.UNKNOWN, BlueRun.BlueRunState.QUEUED),new TimingInfo(), run));
                 steps.push(stepNode);
                 stepMap.put(step.getId(), stepNode);
             }
@@ -165,38 +166,14 @@ public class PipelineStepVisitor extends StandardChunkVisitor {
             long pause = PauseAction.getPauseDuration(atomNode);
             chunk.setPauseTimeMillis(chunk.getPauseTimeMillis()+pause);
 
-            TimingInfo times = StatusAndTiming.computeChunkTiming(run, pause, atomNode, atomNode, after);
-
-            if(times == null){
-                times = new TimingInfo();
-            }
-
-            NodeRunStatus status;
-            InputStep inputStep=null;
-            if(PipelineNodeUtil.isPausedForInputStep((StepAtomNode) atomNode, inputAction)){
-                status = new NodeRunStatus(BlueRun.BlueRunResult.UNKNOWN, BlueRun.BlueRunState.PAUSED);
-                try {
-                    for(InputStepExecution execution: inputAction.getExecutions()){
-                            FlowNode node = execution.getContext().get(FlowNode.class);
-                            if(node != null && node.equals(atomNode)){
-                                inputStep = execution.getInput();
-                                break;
-                            }
-                    }
-                } catch (IOException | InterruptedException | TimeoutException e) {
-                    logger.error("Error getting FlowNode from execution context: "+e.getMessage(), e);
-                }
-            }else{
-                 status = new NodeRunStatus(atomNode);
-            }
-
-            FlowNodeWrapper node = new FlowNodeWrapper(atomNode, status, times, inputStep, run);
+            // status and timing are computed only for the steps that get listed
+            StepRef node = new StepRef((StepAtomNode) atomNode, pause, after);
             if(PipelineNodeUtil.isPreSyntheticStage(currentStage)){
                 preSteps.push(node);
             }else if(PipelineNodeUtil.isPostSyntheticStage(currentStage)){
                 postSteps.push(node);
             }else {
-                if(!steps.contains(node)) {
+                if(steps.stream().noneMatch(step -> step.node.equals(atomNode))) {
                     steps.push(node);
                 }
             }
@@ -211,8 +188,57 @@ public class PipelineStepVisitor extends StandardChunkVisitor {
         }
     }
 
+    /**
+     * Wrap a step with its status and timing.
+     *
+     * @param run the step belongs to
+     * @param inputAction of the run
+     * @param atomNode the step
+     * @param pause pause duration of the step
+     * @param after node following the step, {@code null} if the step is still running
+     */
+    static FlowNodeWrapper createStepWrapper(@Nonnull WorkflowRun run, @Nullable InputAction inputAction,
+                                             @Nonnull StepAtomNode atomNode, long pause, @Nullable FlowNode after) {
+        TimingInfo times = StatusAndTiming.computeChunkTiming(run, pause, atomNode, atomNode, after);
+
+        if(times == null){
+            times = new TimingInfo();
+        }
+
+        NodeRunStatus status;
+        InputStep inputStep=null;
+        if(PipelineNodeUtil.isPausedForInputStep(atomNode, inputAction)){
+            status = new NodeRunStatus(BlueRun.BlueRunResult.UNKNOWN, BlueRun.BlueRunState.PAUSED);
+            try {
+                for(InputStepExecution execution: inputAction.getExecutions()){
+                        FlowNode node = execution.getContext().get(FlowNode.class);
+                        if(node != null && node.equals(atomNode)){
+                            inputStep = execution.getInput();
+                            break;
+                        }
+                }
+            } catch (IOException | InterruptedException | TimeoutException e) {
+                logger.error("Error getting FlowNode from execution context: "+e.getMessage(), e);
+            }
+        }else{
+             status = new NodeRunStatus(atomNode);
+        }
+        return new FlowNodeWrapper(atomNode, status, times, inputStep, run);
+    }
+
     public List<FlowNodeWrapper> getSteps(){
         List<FlowNodeWrapper> s = new ArrayList<>();
+        for (StepRef step : getStepRefs()) {
+            s.add(step.get());
+        }
+        return s;
+    }
+
+    /**
+     * @return the steps, in order, wrapped only when {@link StepRef#get()} is called
+     */
+    List<StepRef> getStepRefs(){
+        List<StepRef> s = new ArrayList<>();
         if(node != null){
             if(PipelineNodeUtil.isSkippedStage(node)){
                 return Collections.emptyList();
@@ -241,7 +267,8 @@ public class PipelineStepVisitor extends StandardChunkVisitor {
     }
 
     public FlowNodeWrapper getStep(String id){
-        return stepMap.get(id);
+        StepRef step = stepMap.get(id);
+        return step == null ? null : step.get();
     }
 
     private void resetSteps(){
@@ -249,6 +276,49 @@ public class PipelineStepVisitor extends StandardChunkVisitor {
         stepMap.clear();
     }
 
+    /**
+     * A step collected by the visitor. Its {@link FlowNodeWrapper} is created on first use, so that listing a window
+     * of the steps of a large pipeline does not compute status and timing of all of them.
+     */
+    final class StepRef {
+        private final FlowNode node;
+        private final long pause;
+        private final FlowNode after;
+        private ErrorAction blockErrorAction;
+        private FlowNodeWrapper wrapper;
+
+        StepRef(@Nonnull StepAtomNode node, long pause, @Nullable FlowNode after) {
+            this.node = node;
+            this.pause = pause;
+            this.after = after;
+        }
+
+        StepRef(@Nonnull FlowNodeWrapper wrapper) {
+            this.node = wrapper.getNode();
+            this.pause = 0;
+            this.after = null;
+            this.wrapper = wrapper;
+        }
+
+        String getId() {
+            return node.getId();
+        }
+
+        void setBlockErrorAction(ErrorAction blockErrorAction) {
+            this.blockErrorAction = blockErrorAction;
+        }
+
+        FlowNodeWrapper get() {
+            if (wrapper == null) {
+                wrapper = createStepWrapper(run, inputAction, (StepAtomNode) node, pause, after);
+                if (blockErrorAction != null) {
+                    wrapper.setBlockErrorAction(blockErrorAction);
+                }
+            }
+            return wrapper;
+        }
+    }
+
     static class LocalAtomNode extends AtomNode {
         private final String cause;
 
@@ -25,16 +25,24 @@ package io.jenkins.blueocean.preload;
 
 import hudson.model.FreeStyleBuild;
 import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import io.jenkins.blueocean.rest.factory.BlueOceanUrlMapper;
 import io.jenkins.blueocean.rest.impl.pipeline.PipelineBaseTest;
+import jenkins.model.Jenkins;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.junit.Assert;
 import org.junit.Test;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import org.jvnet.hudson.test.MockFolder;
 import org.xml.sax.SAXException;
 
 import java.io.IOException;
 import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
 
 /**
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
@@ -61,4 +69,51 @@ public class StatePreloaderTest extends PipelineBaseTest {
         Assert.assertTrue(script.contains(String.format("setState('prefetchdata.%s',", PipelineActivityStatePreloader.class.getSimpleName())));
         Assert.assertTrue(script.contains("\"restUrl\":\"/blue/rest/organizations/jenkins/pipelines/freestyle/runs/?start=0&limit=26\""));
     }
+
+    @Test
+    public void cachedActivityInvalidatedByNewRun() throws Exception {
+        FreeStyleProject freestyleProject = j.createProject(FreeStyleProject.class, "freestyle");
+        j.waitForCompletion(freestyleProject.scheduleBuild2(0).get());
+
+        BlueOceanUrlMapper mapper = BlueOceanUrlMapper.all().get(0);
+        String activityUrl = j.jenkins.getRootUrl() + mapper.getUrl(freestyleProject) + "/activity/";
+
+        String script = Jsoup.connect(activityUrl).get().select("head script").toString();
+        Assert.assertTrue(runId("1").matcher(script).find());
+        Assert.assertFalse(runId("2").matcher(script).find());
+
+        j.waitForCompletion(freestyleProject.scheduleBuild2(0).get());
+
+        script = Jsoup.connect(activityUrl).get().select("head script").toString();
+        Assert.assertTrue(runId("2").matcher(script).find());
+    }
+
+    @Test
+    public void cacheKeyedOnChildPermissions() throws Exception {
+        MockFolder folder = j.createFolder("f");
+        folder.createProject(FreeStyleProject.class, "a");
+        folder.createProject(FreeStyleProject.class, "b");
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+            .grant(Jenkins.READ).everywhere().to("alice", "bob")
+            .grant(Item.READ).onItems(folder, folder.getItem("a")).to("alice", "bob")
+            .grant(Item.READ).onItems(folder.getItem("b")).to("bob"));
+
+        String alice;
+        try (ACLContext ignored = ACL.as(User.get("alice").impersonate())) {
+            alice = FetchDataCache.permissionFingerprint(folder);
+        }
+        String bob;
+        try (ACLContext ignored = ACL.as(User.get("bob").impersonate())) {
+            bob = FetchDataCache.permissionFingerprint(folder);
+        }
+        // same permissions on the folder, not on its jobs
+        Assert.assertEquals(alice.substring(0, 5), bob.substring(0, 5));
+        Assert.assertNotEquals(alice, bob);
+    }
+
+    private static Pattern runId(String id) {
+        // the activity data may be embedded as a JSON string, with escaped quotes
+        return Pattern.compile("\\\\?\"id\\\\?\":\\\\?\"" + id + "\\\\?\"");
+    }
 }
@@ -12,12 +12,16 @@ import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.jenkinsci.plugins.workflow.test.steps.SemaphoreStep;
 import org.junit.Assert;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.jvnet.hudson.test.Issue;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
@@ -29,6 +33,7 @@ import static org.junit.Assert.assertEquals;
  * produce a working Pipeline DAG. Not for testing HTTP infrastructure or Stapler's JSON code.
  */
 public class GraphBuilderTest extends PipelineBaseTest {
+    private static final Logger LOGGER = Logger.getLogger(GraphBuilderTest.class.getName());
 
     @Test
     public void jenkins53311() throws Exception {
@@ -412,6 +417,72 @@ public class GraphBuilderTest extends PipelineBaseTest {
         assertEquals("Unexpected stages in graph", 4, nodes.size());
     }
 
+    @Test
+    public void compactGraph() throws Exception {
+        WorkflowRun run = createAndRunJob("JENKINS-56383", "JENKINS-56383.jenkinsfile");
+        List<FlowNodeWrapper> nodes = NodeGraphBuilder.NodeGraphBuilderFactory.getInstance(run).getPipelineNodes();
+        CompactNodeGraph graph = NodeGraphBuilder.NodeGraphBuilderFactory.getCompactGraph(run);
+        Assert.assertNotNull(graph);
+        Assert.assertSame(graph, NodeGraphBuilder.NodeGraphBuilderFactory.getCompactGraph(run));
+
+        assertEquals(nodes.size(), graph.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            FlowNodeWrapper node = nodes.get(i);
+            assertEquals(node.getId(), graph.getId(i));
+            assertEquals(node.getDisplayName(), graph.getDisplayName(i));
+            assertEquals(node.getType(), graph.getType(i));
+            assertEquals(node.getStatus().result, graph.getStatus(i).result);
+            assertEquals(node.getStatus().state, graph.getStatus(i).state);
+            assertEquals(node.getTiming().getStartTimeMillis(), graph.getTiming(i).getStartTimeMillis());
+            assertEquals(node.getTiming().getTotalDurationMillis(), graph.getTiming(i).getTotalDurationMillis());
+            assertEquals(node.edges.size(), graph.getEdges(i).length);
+            for (int e = 0; e < node.edges.size(); e++) {
+                assertEquals(node.edges.get(e).getId(), graph.getId(graph.getEdges(i)[e]));
+            }
+            assertEquals(node.getParents().size(), graph.getParents(i).length);
+            Assert.assertTrue(graph.probablySameNode(i, node));
+        }
+    }
+
+    /**
+     * Not a regression test, reports the heap used per node by {@link FlowNodeWrapper} graphs and by
+     * {@link CompactNodeGraph}, for graphs kept in memory. The flow nodes themselves are not counted, they are held
+     * by the execution anyway. Heap deltas depend on the JVM and on GC timing, so this is run by hand only.
+     */
+    @Test @Ignore("manual measurement, run explicitly")
+    public void compactGraphFootprint() throws Exception {
+        WorkflowRun run = createAndRunJob("JENKINS-56383", "JENKINS-56383.jenkinsfile");
+        int copies = 500;
+        int nodeCount = NodeGraphBuilder.NodeGraphBuilderFactory.getInstance(run).getPipelineNodes().size();
+
+        List<Object> graphs = new ArrayList<>(copies);
+        long before = usedHeap();
+        for (int i = 0; i < copies; i++) {
+            graphs.add(NodeGraphBuilder.NodeGraphBuilderFactory.getInstance(run).getPipelineNodes());
+        }
+        long wrapperBytes = (usedHeap() - before) / ((long) copies * nodeCount);
+        graphs.clear();
+
+        before = usedHeap();
+        for (int i = 0; i < copies; i++) {
+            graphs.add(new CompactNodeGraph(NodeGraphBuilder.NodeGraphBuilderFactory.getInstance(run).getPipelineNodes()));
+        }
+        long compactBytes = (usedHeap() - before) / ((long) copies * nodeCount);
+        graphs.clear();
+
+        LOGGER.log(Level.INFO, "Bytes per node: FlowNodeWrapper graph {0}, CompactNodeGraph {1}",
+                   new Object[]{wrapperBytes, compactBytes});
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
     /**
      * Builds a basic Pipeline where the overall graph structure (in terms of stages) is the same from one build
      * to the next, but there are differences in the number of FlowNodes (and thus different node IDs for
@@ -559,10 +630,29 @@ public class GraphBuilderTest extends PipelineBaseTest {
      */
     private List<FlowNodeWrapper> unionPipelineNodes(WorkflowRun b1, WorkflowRun b2) {
         List<FlowNodeWrapper> oldNodes = NodeGraphBuilder.NodeGraphBuilderFactory.getInstance(b1).getPipelineNodes();
-        return NodeGraphBuilder.NodeGraphBuilderFactory.getInstance(b2)
+        List<FlowNodeWrapper> union = NodeGraphBuilder.NodeGraphBuilderFactory.getInstance(b2)
                     .union(oldNodes, new Link("unused"))
                     .stream()
                     .map(bpn -> ((PipelineNodeImpl) bpn).getFlowNodeWrapper())
                     .collect(Collectors.toList());
+
+        // The union with the compact graph of the old build must be the same
+        CompactNodeGraph compact = NodeGraphBuilder.NodeGraphBuilderFactory.getCompactGraph(b1);
+        Assert.assertNotNull(compact);
+        List<FlowNodeWrapper> compactUnion = NodeGraphBuilder.NodeGraphBuilderFactory.getInstance(b2)
+                    .union(compact, b1, new Link("unused"))
+                    .stream()
+                    .map(bpn -> ((PipelineNodeImpl) bpn).getFlowNodeWrapper())
+                    .collect(Collectors.toList());
+        assertEquals(describe(union), describe(compactUnion));
+        return union;
+    }
+
+    private static List<String> describe(List<FlowNodeWrapper> nodes) {
+        return nodes.stream()
+                    .map(n -> n.getId() + " " + n.getDisplayName() + " " + n.getStatus().state + " " + n.getStatus().result
+                        + " edges=" + n.edges.stream().map(FlowNodeWrapper::getId).collect(Collectors.toList())
+                        + " parents=" + n.getParents().stream().map(FlowNodeWrapper::getId).collect(Collectors.toList()))
+                    .collect(Collectors.toList());
     }
 }
@@ -1660,6 +1660,87 @@ public class PipelineNodeTest extends PipelineBaseTest {
         Assert.assertNotNull(output);
     }
 
+    @Test
+    public void getPipelineStepsWindowTest() throws Exception {
+        WorkflowJob job1 = j.jenkins.createProject(WorkflowJob.class, "pipeline1");
+
+        job1.setDefinition(new CpsFlowDefinition("stage ('build') {\n" +
+                                                     "  for (int i = 0; i < 10; i++) {\n" +
+                                                     "    echo \"Step ${i}\"\n" +
+                                                     "  }\n" +
+                                                     "}", false));
+
+        WorkflowRun b1 = job1.scheduleBuild2(0).get();
+        j.assertBuildStatusSuccess(b1);
+
+        List<Map> all = get("/organizations/jenkins/pipelines/pipeline1/runs/1/steps/", List.class);
+        Assert.assertEquals(10, all.size());
+
+        List<Map> window = get("/organizations/jenkins/pipelines/pipeline1/runs/1/steps/?start=2&limit=3", List.class);
+        Assert.assertEquals(3, window.size());
+        Assert.assertEquals(all.get(2).get("id"), window.get(0).get("id"));
+        Assert.assertEquals(all.get(4).get("id"), window.get(2).get("id"));
+
+        List<Map> since = get("/organizations/jenkins/pipelines/pipeline1/runs/1/steps/?since=" + all.get(6).get("id"), List.class);
+        Assert.assertEquals(3, since.size());
+        Assert.assertEquals(all.get(7).get("id"), since.get(0).get("id"));
+
+        List<Map> nodes = get("/organizations/jenkins/pipelines/pipeline1/runs/1/nodes/", List.class);
+        List<Map> stageWindow = get("/organizations/jenkins/pipelines/pipeline1/runs/1/nodes/" + nodes.get(0).get("id")
+                                        + "/steps/?since=" + all.get(6).get("id") + "&limit=2", List.class);
+        Assert.assertEquals(2, stageWindow.size());
+        Assert.assertEquals(all.get(8).get("id"), stageWindow.get(1).get("id"));
+
+        // served from the step index of the completed run, same as the steps of the walk
+        List<Map> again = get("/organizations/jenkins/pipelines/pipeline1/runs/1/steps/?start=2&limit=3", List.class);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(all.get(2 + i).get("id"), again.get(i).get("id"));
+            Assert.assertEquals(all.get(2 + i).get("result"), again.get(i).get("result"));
+            Assert.assertEquals(all.get(2 + i).get("state"), again.get(i).get("state"));
+            Assert.assertEquals(all.get(2 + i).get("durationInMillis"), again.get(i).get("durationInMillis"));
+        }
+
+        List<Map> unknown = get("/organizations/jenkins/pipelines/pipeline1/runs/1/steps/?since=9999", List.class);
+        Assert.assertEquals(0, unknown.size());
+    }
+
+    @Test
+    public void getPipelineStepByIdMatchesStepsTest() throws Exception {
+        WorkflowJob job1 = j.jenkins.createProject(WorkflowJob.class, "pipeline1");
+
+        job1.setDefinition(new CpsFlowDefinition("stage ('build') {\n" +
+                                                     "  echo \"Building\"\n" +
+                                                     "}\n" +
+                                                     "stage ('test') {\n" +
+                                                     "  parallel 'unit':{\n" +
+                                                     "    echo \"Unit testing...\"\n" +
+                                                     "    sleep 1\n" +
+                                                     "  },'integration':{\n" +
+                                                     "    echo \"Integration testing...\"\n" +
+                                                     "  }\n" +
+                                                     "}\n" +
+                                                     "stage ('deploy') {\n" +
+                                                     "  catchError {\n" +
+                                                     "    error \"Deploy failed\"\n" +
+                                                     "  }\n" +
+                                                     "}", false));
+
+        WorkflowRun b1 = job1.scheduleBuild2(0).get();
+        j.assertBuildStatus(Result.FAILURE, b1);
+
+        List<Map> steps = get("/organizations/jenkins/pipelines/pipeline1/runs/1/steps/", List.class);
+        Assert.assertEquals(5, steps.size());
+        for (Map step : steps) {
+            Map resp = get("/organizations/jenkins/pipelines/pipeline1/runs/1/steps/" + step.get("id") + "/");
+            Assert.assertEquals(step.get("id"), resp.get("id"));
+            Assert.assertEquals(step.get("displayName"), resp.get("displayName"));
+            Assert.assertEquals(step.get("result"), resp.get("result"));
+            Assert.assertEquals(step.get("state"), resp.get("state"));
+            Assert.assertEquals(step.get("startTime"), resp.get("startTime"));
+            Assert.assertEquals(step.get("durationInMillis"), resp.get("durationInMillis"));
+        }
+    }
+
     @Test
     public void BlockStageNodesFailureTest1() throws Exception {
         WorkflowJob job1 = j.jenkins.createProject(WorkflowJob.class, "pipeline1");
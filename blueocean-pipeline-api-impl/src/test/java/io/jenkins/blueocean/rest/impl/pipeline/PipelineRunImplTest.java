@@ -103,5 +103,70 @@ public class PipelineRunImplTest extends PipelineBaseTest {
         Map<String, Object> runDetails = get("/organizations/jenkins/pipelines/" + p.getName() + "/runs/" + run3.getId() + "/");
         assertEquals(0, ((ArrayList) runDetails.get("changeSet")).size());
     }
-}
 
+    @Test
+    public void changelogFromReplayOfDeletedReplay() throws Exception {
+        String jenkinsFile = Resources.toString(Resources.getResource(getClass(), "mulitpleScms.jenkinsfile"), Charsets.UTF_8).replaceAll("%REPO1%", sampleRepo1.toString()).replaceAll("%REPO2%", sampleRepo2.toString());
+
+        WorkflowJob p = j.createProject(WorkflowJob.class, "project");
+        p.setDefinition(new CpsFlowDefinition(jenkinsFile, true));
+        p.save();
+
+        sampleRepo1.init();
+        sampleRepo2.init();
+
+        j.assertBuildStatus(Result.SUCCESS, p.scheduleBuild2(0));
+
+        updateREADME(sampleRepo1);
+        updateREADME(sampleRepo2);
+        TimeUnit.SECONDS.sleep(1);
+
+        Run run2 = j.assertBuildStatus(Result.SUCCESS, p.scheduleBuild2(0));
+        ReplayAction replayAction = run2.getAction(ReplayAction.class);
+        Run run3 = j.assertBuildStatus(Result.SUCCESS, replayAction.run(replayAction.getOriginalScript(), replayAction.getOriginalLoadedScripts()));
+        replayAction = run3.getAction(ReplayAction.class);
+        Run run4 = j.assertBuildStatus(Result.SUCCESS, replayAction.run(replayAction.getOriginalScript(), replayAction.getOriginalLoadedScripts()));
+
+        String runUrl = "/organizations/jenkins/pipelines/" + p.getName() + "/runs/" + run4.getId() + "/";
+        assertEquals(2, ((ArrayList) get(runUrl).get("changeSet")).size());
+
+        // the replay of a replay no longer resolves to the changesets of the first run
+        run3.delete();
+        assertEquals(0, ((ArrayList) get(runUrl).get("changeSet")).size());
+    }
+
+    @Test
+    public void changelogFromReplay() throws Exception {
+        String jenkinsFile = Resources.toString(Resources.getResource(getClass(), "mulitpleScms.jenkinsfile"), Charsets.UTF_8).replaceAll("%REPO1%", sampleRepo1.toString()).replaceAll("%REPO2%", sampleRepo2.toString());
+
+        WorkflowJob p = j.createProject(WorkflowJob.class, "project");
+        p.setDefinition(new CpsFlowDefinition(jenkinsFile, true));
+        p.save();
+
+        sampleRepo1.init();
+        sampleRepo2.init();
+
+        j.assertBuildStatus(Result.SUCCESS, p.scheduleBuild2(0));
+
+        updateREADME(sampleRepo1);
+        updateREADME(sampleRepo2);
+        TimeUnit.SECONDS.sleep(1);
+
+        Run run2 = j.assertBuildStatus(Result.SUCCESS, p.scheduleBuild2(0));
+
+        ReplayAction replayAction = run2.getAction(ReplayAction.class);
+        Run run3 = j.assertBuildStatus(Result.SUCCESS, replayAction.run(replayAction.getOriginalScript(), replayAction.getOriginalLoadedScripts()));
+
+        String runUrl = "/organizations/jenkins/pipelines/" + p.getName() + "/runs/" + run3.getId() + "/";
+        ArrayList changeSet = (ArrayList) get(runUrl).get("changeSet");
+        assertEquals(2, changeSet.size());
+
+        // looked up through the index of the replay
+        for (Object o : changeSet) {
+            String commitId = (String) ((Map) o).get("commitId");
+            Map<String, Object> entry = get(runUrl + "changeSet/" + commitId + "/");
+            assertEquals(commitId, entry.get("commitId"));
+            assertEquals(((Map) o).get("checkoutCount"), entry.get("checkoutCount"));
+        }
+    }
+}
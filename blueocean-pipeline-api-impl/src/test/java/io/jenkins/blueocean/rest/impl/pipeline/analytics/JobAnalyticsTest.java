@@ -2,13 +2,17 @@ package io.jenkins.blueocean.rest.impl.pipeline.analytics;
 
 import com.google.common.base.Charsets;
 import com.google.common.io.Resources;
+import hudson.ExtensionList;
 import hudson.matrix.MatrixProject;
 import hudson.model.CauseAction;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
 import hudson.model.Result;
 import io.jenkins.blueocean.analytics.Analytics;
 import io.jenkins.blueocean.rest.impl.pipeline.PipelineBaseTest;
 import io.jenkins.blueocean.service.embedded.analytics.AbstractAnalytics;
 import io.jenkins.blueocean.service.embedded.analytics.JobAnalytics;
+import io.jenkins.blueocean.service.embedded.analytics.JobAnalyticsCheck;
 import jenkins.branch.BranchProperty;
 import jenkins.branch.BranchSource;
 import jenkins.branch.DefaultBranchPropertyStrategy;
@@ -25,6 +29,7 @@ import org.jvnet.hudson.test.TestExtension;
 
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -81,7 +86,7 @@ public class JobAnalyticsTest extends PipelineBaseTest {
         Assert.assertNotNull(analytics);
 
         JobAnalytics jobAnalytics = new JobAnalytics();
-        jobAnalytics.calculateAndSend();
+        calculateAndSend(jobAnalytics, analytics);
 
         Assert.assertNotNull(analytics.lastReq);
         Assert.assertEquals("job_stats", analytics.lastReq.name);
@@ -96,6 +101,70 @@ public class JobAnalyticsTest extends PipelineBaseTest {
         Assert.assertEquals("other",0, properties.get("other"));
     }
 
+    @Test
+    public void testJobAnalyticsUpdatedIncrementally() throws Exception {
+        AnalyticsImpl analytics = (AnalyticsImpl)Analytics.get();
+        Assert.assertNotNull(analytics);
+
+        JobAnalytics jobAnalytics = new JobAnalytics();
+        calculateAndSend(jobAnalytics, analytics);
+        Assert.assertEquals("freestyle", 0, analytics.lastReq.properties.get("freestyle"));
+
+        FreeStyleProject freestyle1 = j.createFreeStyleProject("freestyle1");
+        j.createFreeStyleProject("freestyle2");
+        freestyle1.renameTo("freestyle3");
+        j.createProject(MatrixProject.class, "bob").delete();
+
+        // Declarative once it has run
+        WorkflowJob declarativeSingle = createWorkflowJobWithJenkinsfile(getClass(),"JobAnalyticsTest-declarative.jenkinsfile");
+        j.waitForCompletion(declarativeSingle.scheduleBuild2(0, new CauseAction()).waitForStart());
+
+        calculateAndSend(jobAnalytics, analytics);
+        Map<String, Object> properties = analytics.lastReq.properties;
+        Assert.assertEquals("freestyle", 2, properties.get("freestyle"));
+        Assert.assertEquals("matrix", 0, properties.get("matrix"));
+        Assert.assertEquals("singlePipelineDeclarative", 1, properties.get("singlePipelineDeclarative"));
+        Assert.assertEquals("singlePipelineScripted", 0, properties.get("singlePipelineScripted"));
+    }
+
+    @Test
+    public void testJobAnalyticsRecheckedWhenChecksChange() throws Exception {
+        AnalyticsImpl analytics = (AnalyticsImpl)Analytics.get();
+        Assert.assertNotNull(analytics);
+        j.createFreeStyleProject("freestyle1");
+
+        JobAnalytics jobAnalytics = new JobAnalytics();
+        calculateAndSend(jobAnalytics, analytics);
+        Assert.assertEquals("freestyle", 1, analytics.lastReq.properties.get("freestyle"));
+
+        // e.g. a plugin installed without restart
+        ExtensionList.lookup(JobAnalyticsCheck.class).add(0, new JobAnalyticsCheck() {
+            @Override
+            public String getName() {
+                return "custom";
+            }
+
+            @Override
+            public Boolean apply(Item item) {
+                return item instanceof FreeStyleProject;
+            }
+        });
+        calculateAndSend(jobAnalytics, analytics);
+        Assert.assertEquals("custom", 1, analytics.lastReq.properties.get("custom"));
+        Assert.assertEquals("freestyle", 0, analytics.lastReq.properties.get("freestyle"));
+    }
+
+    /**
+     * Events are sent asynchronously
+     */
+    private static void calculateAndSend(JobAnalytics jobAnalytics, AnalyticsImpl analytics) throws InterruptedException {
+        analytics.lastReq = null;
+        jobAnalytics.calculateAndSend();
+        Assert.assertTrue(AbstractAnalytics.awaitDispatched(30, TimeUnit.SECONDS));
+        Assert.assertNotNull(analytics.lastReq);
+        Assert.assertEquals("job_stats", analytics.lastReq.name);
+    }
+
     private void createMultiBranch(GitSampleRepoRule rule) throws Exception {
         WorkflowMultiBranchProject mp = j.createProject(WorkflowMultiBranchProject.class, UUID.randomUUID().toString());
         mp.getSourcesList().add(new BranchSource(new GitSCMSource(null, rule.toString(), "", "*", "", false),
@@ -114,7 +183,7 @@ public class JobAnalyticsTest extends PipelineBaseTest {
     @TestExtension
     public static class AnalyticsImpl extends AbstractAnalytics {
 
-        TrackRequest lastReq;
+        volatile TrackRequest lastReq;
 
         @Override
         protected void doTrack(String name, Map<String, Object> allProps) {
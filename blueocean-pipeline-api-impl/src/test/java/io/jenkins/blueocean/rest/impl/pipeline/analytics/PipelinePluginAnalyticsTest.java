@@ -87,7 +87,7 @@ public class PipelinePluginAnalyticsTest extends PipelineBaseTest {
     @TestExtension
     public static class AnalyticsImpl extends AbstractAnalytics {
 
-        TrackRequest lastReq;
+        volatile TrackRequest lastReq;
 
         @Override
         protected void doTrack(String name, Map<String, Object> allProps) {
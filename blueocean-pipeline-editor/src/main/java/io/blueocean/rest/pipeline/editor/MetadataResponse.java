@@ -0,0 +1,124 @@
+package io.blueocean.rest.pipeline.editor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hudson.Util;
+import io.jenkins.blueocean.commons.stapler.Export;
+import io.jenkins.blueocean.commons.stapler.TreeResponse;
+import org.kohsuke.stapler.CancelRequestHandlingException;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.interceptor.Interceptor;
+import org.kohsuke.stapler.interceptor.InterceptorAnnotation;
+
+import javax.annotation.Nonnull;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Like {@link TreeResponse}, for GET web methods returning an array that is cached by {@link PipelineMetadataService}.
+ * <p>
+ * The JSON representation is rendered once per array and depth parameter, and served with an {@code ETag} so that
+ * the browser can revalidate its copy with {@code If-None-Match}.
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+@InterceptorAnnotation(MetadataResponse.Processor.class)
+@interface MetadataResponse {
+    class Processor extends Interceptor {
+
+        /**
+         * Rendered JSON by depth, for each cached array. Weak keys compare by identity, so a rebuilt array gets
+         * rendered again, and renderings of dropped arrays go away with them.
+         */
+        private static final Cache<Object[], ConcurrentMap<Integer, Rendered>> RENDERED = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+        @Override
+        public Object invoke(StaplerRequest request, StaplerResponse response, Object instance, Object[] arguments)
+                throws IllegalAccessException, InvocationTargetException, ServletException {
+            if (!"GET".equals(request.getMethod())) {
+                throw new CancelRequestHandlingException();
+            }
+            final Object[] metadata = (Object[]) target.invoke(request, response, instance, arguments);
+            return new HttpResponse() {
+                @Override
+                public void generateResponse(StaplerRequest req, StaplerResponse rsp, Object node) throws IOException, ServletException {
+                    Integer depth = cacheableDepth(req);
+                    if (depth == null) {
+                        Export.doJson(req, rsp, metadata);
+                        return;
+                    }
+                    Rendered rendered = render(metadata, depth);
+                    // Replaces the no-store default set by ApiHead, the browser may keep a copy but must revalidate it
+                    rsp.setHeader("Cache-Control", "no-cache");
+                    rsp.setHeader("ETag", rendered.etag);
+                    String ifNoneMatch = req.getHeader("If-None-Match");
+                    if (ifNoneMatch != null && ifNoneMatch.contains(rendered.etag)) {
+                        rsp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                        return;
+                    }
+                    rsp.setContentType("application/json;charset=UTF-8");
+                    rsp.getCompressedWriter(req).append(rendered.json).close();
+                }
+            };
+        }
+
+        /**
+         * @return the depth parameter, or {@code null} if the request asks for a representation that is not cached
+         */
+        private static Integer cacheableDepth(StaplerRequest req) {
+            if (req.getParameter("tree") != null || req.getParameter("jsonp") != null || req.hasParameter("pretty")) {
+                return null;
+            }
+            String depth = req.getParameter("depth");
+            if (depth == null) {
+                return 0;
+            }
+            try {
+                return Integer.parseInt(depth);
+            } catch (NumberFormatException e) {
+                // let Export report it
+                return null;
+            }
+        }
+
+        static Rendered render(@Nonnull Object[] metadata, int depth) throws IOException {
+            ConcurrentMap<Integer, Rendered> byDepth;
+            try {
+                byDepth = RENDERED.get(metadata, ConcurrentHashMap::new);
+            } catch (ExecutionException e) {
+                // ConcurrentHashMap constructor does not throw
+                throw new IllegalStateException(e);
+            }
+            Rendered rendered = byDepth.get(depth);
+            if (rendered == null) {
+                rendered = new Rendered(Export.toJson(metadata, depth));
+                byDepth.put(depth, rendered);
+            }
+            return rendered;
+        }
+    }
+
+    final class Rendered {
+        final String json;
+        final String etag;
+
+        Rendered(String json) {
+            this.json = json;
+            this.etag = '"' + Util.getDigestOf(json) + '"';
+        }
+    }
+}
@@ -1,22 +1,34 @@
 package io.blueocean.rest.pipeline.editor;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import hudson.Extension;
 import hudson.ExtensionList;
+import hudson.ExtensionListListener;
 import hudson.FilePath;
 import hudson.Launcher;
+import hudson.XmlFile;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
 import hudson.model.Describable;
 import hudson.model.Descriptor;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import hudson.security.csrf.CrumbIssuer;
 import hudson.tasks.BuildWrapper;
 import hudson.tasks.Builder;
 import hudson.tasks.Publisher;
 import hudson.tools.ToolDescriptor;
 import hudson.tools.ToolInstallation;
-import io.jenkins.blueocean.commons.stapler.TreeResponse;
 import io.jenkins.blueocean.rest.ApiRoutable;
 import jenkins.model.Jenkins;
 import jenkins.tasks.SimpleBuildStep;
 import jenkins.tasks.SimpleBuildWrapper;
+import jenkins.util.Timer;
 import org.jenkinsci.plugins.pipeline.modeldefinition.agent.DeclarativeAgent;
 import org.jenkinsci.plugins.pipeline.modeldefinition.agent.DeclarativeAgentDescriptor;
 import org.jenkinsci.plugins.pipeline.modeldefinition.model.BuildCondition;
@@ -29,24 +41,45 @@ import org.kohsuke.stapler.NoStaplerConstructorException;
 import org.kohsuke.stapler.verb.GET;
 
 import javax.annotation.CheckForNull;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This provides and Blueocean REST API endpoint to obtain pipeline step metadata.
  *
  * TODO: this should be provided off of the organization endpoint:
  * e.g. /organization/:id/pipeline-metadata
+ *
+ * Metadata is computed in the background at startup and cached until the set of extensions or the tool
+ * installations change. The returned arrays are shared and must not be modified.
  */
 @Extension
 public class PipelineMetadataService implements ApiRoutable {
 
+    private static final Logger LOGGER = Logger.getLogger(PipelineMetadataService.class.getName());
+
     final static List<String> INCLUDED_ADVANCED_STEPS = Collections.unmodifiableList(Arrays.asList("catchError"));
 
+    /**
+     * Depth requested by the editor, rendered ahead of time.
+     */
+    private static final int EDITOR_DEPTH = 20;
+
+    /**
+     * Computed metadata arrays, by web method name. Each is computed outside of any map lock, requests for the same
+     * one wait for it.
+     */
+    private static final Cache<String, Object[]> METADATA = CacheBuilder.newBuilder().build();
+
     @Override
     public String getUrlName() {
         return "pipeline-metadata";
@@ -65,8 +98,12 @@ public class PipelineMetadataService implements ApiRoutable {
      * Function to return all {@link DeclarativeAgent}s present in the system when accessed through the REST API
      */
     @GET
-    @TreeResponse
+    @MetadataResponse
     public ExportedDescribableModel[] doAgentMetadata() {
+        return cached("agentMetadata", this::computeAgentMetadata);
+    }
+
+    private ExportedDescribableModel[] computeAgentMetadata() {
         List<ExportedDescribableModel> models = new ArrayList<>();
 
         for (DeclarativeAgentDescriptor d : DeclarativeAgentDescriptor.all()) {
@@ -90,8 +127,12 @@ public class PipelineMetadataService implements ApiRoutable {
      * pipeline scripts need: symbol and name to specify tools
      */
     @GET
-    @TreeResponse
+    @MetadataResponse
     public ExportedToolDescriptor[] doToolMetadata() {
+        return cached("toolMetadata", this::computeToolMetadata);
+    }
+
+    private ExportedToolDescriptor[] computeToolMetadata() {
         List<ExportedToolDescriptor> models = new ArrayList<>();
         for (ToolDescriptor<? extends ToolInstallation> d : ToolInstallation.all()) {
             ExportedToolDescriptor descriptor = new ExportedToolDescriptor(d.getDisplayName(), symbolForObject(d), d.getClass());
@@ -107,8 +148,12 @@ public class PipelineMetadataService implements ApiRoutable {
      * Function to return the names of all build conditions present in the system when accessed through the REST API
      */
     @GET
-    @TreeResponse
+    @MetadataResponse
     public ExportedBuildCondition[] doBuildConditions() {
+        return cached("buildConditions", this::computeBuildConditions);
+    }
+
+    private ExportedBuildCondition[] computeBuildConditions() {
         List<ExportedBuildCondition> exported = new ArrayList<>();
         for (BuildCondition c : BuildCondition.all()) {
             exported.add(new ExportedBuildCondition(symbolForObject(c), c.getDescription()));
@@ -128,8 +173,12 @@ public class PipelineMetadataService implements ApiRoutable {
      * Function to return all applicable step descriptors for the "wrappers" section.
      */
     @GET
-    @TreeResponse
+    @MetadataResponse
     public ExportedPipelineStep[] doWrapperMetadata() {
+        return cached("wrapperMetadata", this::computeWrapperMetadata);
+    }
+
+    private ExportedPipelineStep[] computeWrapperMetadata() {
         List<ExportedPipelineStep> wrappers = new ArrayList<>();
 
         for (StepDescriptor d : StepDescriptor.all()) {
@@ -148,8 +197,12 @@ public class PipelineMetadataService implements ApiRoutable {
      * Function to return all step descriptors present in the system when accessed through the REST API
      */
     @GET
-    @TreeResponse
+    @MetadataResponse
     public ExportedPipelineFunction[] doPipelineStepMetadata() {
+        return cached("pipelineStepMetadata", this::computePipelineStepMetadata);
+    }
+
+    private ExportedPipelineFunction[] computePipelineStepMetadata() {
         List<ExportedPipelineFunction> pd = new ArrayList<>();
         // POST to this with parameter names
         // e.g. json:{"time": "1", "unit": "NANOSECONDS", "stapler-class": "org.jenkinsci.plugins.workflow.steps.TimeoutStep", "$class": "org.jenkinsci.plugins.workflow.steps.TimeoutStep"}
@@ -178,6 +231,75 @@ public class PipelineMetadataService implements ApiRoutable {
         return pd.toArray(new ExportedPipelineFunction[pd.size()]);
     }
 
+    @SuppressWarnings("unchecked")
+    private static <T> T[] cached(String name, Supplier<T[]> compute) {
+        try {
+            return (T[]) METADATA.get(name, compute::get);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            // the computation can only throw unchecked
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Drop the cached metadata and compute it again in the background.
+     */
+    static void invalidate() {
+        METADATA.invalidateAll();
+        Timer.get().submit(PipelineMetadataService::warmUp);
+    }
+
+    private static void warmUp() {
+        PipelineMetadataService svc = ExtensionList.lookup(PipelineMetadataService.class).get(0);
+        try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+            MetadataResponse.Processor.render(svc.doAgentMetadata(), EDITOR_DEPTH);
+            MetadataResponse.Processor.render(svc.doToolMetadata(), EDITOR_DEPTH);
+            MetadataResponse.Processor.render(svc.doBuildConditions(), EDITOR_DEPTH);
+            MetadataResponse.Processor.render(svc.doWrapperMetadata(), EDITOR_DEPTH);
+            MetadataResponse.Processor.render(svc.doPipelineStepMetadata(), EDITOR_DEPTH);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unable to compute pipeline editor metadata", e);
+        }
+    }
+
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void init() {
+        ExtensionListListener listener = new ExtensionListListener() {
+            @Override
+            public void onChange() {
+                invalidate();
+            }
+        };
+        // extensions added by a dynamically loaded plugin
+        ExtensionList.lookup(StepDescriptor.class).addListener(listener);
+        ExtensionList.lookup(DeclarativeAgentDescriptor.class).addListener(listener);
+        ExtensionList.lookup(BuildCondition.class).addListener(listener);
+        ExtensionList.lookup(ExportedDescribableParameterDecorator.class).addListener(listener);
+        Jenkins jenkins = Jenkins.getInstance();
+        jenkins.getDescriptorList(Builder.class).addListener(listener);
+        jenkins.getDescriptorList(Publisher.class).addListener(listener);
+        jenkins.getDescriptorList(BuildWrapper.class).addListener(listener);
+        ToolInstallation.all().addListener(listener);
+        Timer.get().submit(PipelineMetadataService::warmUp);
+    }
+
+    /**
+     * Tool installations are saved with their descriptor, or with Jenkins itself for JDKs.
+     */
+    @Extension
+    public static class ToolInstallationListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof ToolDescriptor || o instanceof Jenkins) {
+                METADATA.invalidate("toolMetadata");
+            }
+        }
+    }
+
     private boolean isWrapper(StepDescriptor d) {
         return includeStep(d)
                 && d.takesImplicitBlockArgument()
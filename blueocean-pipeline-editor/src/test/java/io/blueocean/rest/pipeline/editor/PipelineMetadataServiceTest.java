@@ -1,5 +1,7 @@
 package io.blueocean.rest.pipeline.editor;
 
+import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebResponse;
 import hudson.model.JDK;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
@@ -11,6 +13,7 @@ import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.JenkinsRule.JSONWebResponse;
 
 import java.io.IOException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -45,6 +48,31 @@ public class PipelineMetadataServiceTest {
         assert(withSonarQubeEnv != null) : "PipelineStepMetadata withSonarQubeEnv not found";
     }
 
+    @Test
+    public void metadataRevalidatedWithETag() throws Exception {
+        JenkinsRule.WebClient webClient = j.createWebClient();
+        URL url = new URL(j.getURL(), "blue/rest/pipeline-metadata/pipelineStepMetadata?depth=20");
+        WebResponse first = webClient.loadWebResponse(new WebRequest(url));
+        assertEquals(200, first.getStatusCode());
+        String etag = first.getResponseHeaderValue("ETag");
+        assertNotNull(etag);
+        assertFalse(JSONArray.fromObject(first.getContentAsString()).isEmpty());
+
+        WebRequest revalidate = new WebRequest(url);
+        revalidate.setAdditionalHeader("If-None-Match", etag);
+        assertEquals(304, webClient.loadWebResponse(revalidate).getStatusCode());
+    }
+
+    @Test
+    public void metadataComputedOnce() throws Exception {
+        PipelineMetadataService svc = new PipelineMetadataService();
+        ExportedPipelineFunction[] steps = svc.doPipelineStepMetadata();
+        assertSame(steps, svc.doPipelineStepMetadata());
+
+        PipelineMetadataService.invalidate();
+        assertNotSame(steps, svc.doPipelineStepMetadata());
+    }
+
     @Test
     public void declarativeAgents() throws Exception {
         PipelineMetadataService svc = new PipelineMetadataService();
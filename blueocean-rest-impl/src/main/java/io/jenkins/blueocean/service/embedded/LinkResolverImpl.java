@@ -1,15 +1,18 @@
 package io.jenkins.blueocean.service.embedded;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import hudson.Extension;
+import hudson.ExtensionListListener;
 import hudson.model.Item;
 import hudson.model.ItemGroup;
 import hudson.model.Job;
 import hudson.model.Run;
+import hudson.model.listeners.ItemListener;
 import io.jenkins.blueocean.rest.factory.BluePipelineFactory;
 import io.jenkins.blueocean.rest.hal.Link;
 import io.jenkins.blueocean.rest.hal.LinkResolver;
 import io.jenkins.blueocean.rest.model.BluePipeline;
-import io.jenkins.blueocean.rest.model.BlueRunContainer;
 import io.jenkins.blueocean.rest.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,52 +20,106 @@ import org.slf4j.LoggerFactory;
 /**
  * Implementation of {@link LinkResolver}
  *
+ * Links of jobs and folders are cached by full name, until the item is moved or deleted. Links of runs are derived
+ * from the link of their job.
+ *
  * @author Kohsuke Kawaguchi
  * @author Vivek Pandey
  */
 @Extension
 public class LinkResolverImpl extends LinkResolver {
 
+    /**
+     * Maximum number of cached item links. Default 10000.
+     */
+    static final long LINK_CACHE_MAX_SIZE = Long.getLong("blueocean.links.cache.maxSize", 10000);
+
+    private static final Cache<String, ResolvedItem> RESOLVED_ITEMS = CacheBuilder.newBuilder()
+        .maximumSize(LINK_CACHE_MAX_SIZE)
+        .build();
+
     private final Logger logger = LoggerFactory.getLogger(LinkResolverImpl.class);
 
+    public LinkResolverImpl() {
+        // a dynamically loaded plugin may map items differently
+        BluePipelineFactory.all().addListener(new ExtensionListListener() {
+            @Override
+            public void onChange() {
+                RESOLVED_ITEMS.invalidateAll();
+            }
+        });
+    }
+
     @Override
     public Link resolve(Object modelObject) {
-        if (modelObject instanceof Job) {
-            Resource resource =  resolveJob((Job)modelObject);
-            if(resource != null){
-                return resource.getLink();
-            }
-        }else if(modelObject instanceof Item && modelObject instanceof ItemGroup){
-            Resource resource = resolveFolder((Item) modelObject);
-            if(resource!=null){
-                return resource.getLink();
+        if (modelObject instanceof Job || (modelObject instanceof Item && modelObject instanceof ItemGroup)) {
+            ResolvedItem resolved = resolveItem((Item) modelObject);
+            if(resolved != null){
+                return resolved.link;
             }
         }else if(modelObject instanceof Run){
             Run run = (Run) modelObject;
-            Resource resource = resolveRun(run);
-            if(resource != null){
-                return resource.getLink();
+            ResolvedItem resolved = resolveItem(run.getParent());
+            if(resolved != null && resolved.hasRuns){
+                // same as the link of the run found in the pipeline's runs
+                return resolved.link.rel("runs/" + run.getId());
             }
         }
         return null;
     }
 
-    private Resource resolveJob(Job job){
-        return BluePipelineFactory.resolve(job);
+    private ResolvedItem resolveItem(Item item){
+        String fullName = item.getFullName();
+        ResolvedItem resolved = RESOLVED_ITEMS.getIfPresent(fullName);
+        if (resolved == null) {
+            Resource resource = BluePipelineFactory.resolve(item);
+            if (resource == null) {
+                return null;
+            }
+            resolved = new ResolvedItem(resource);
+            RESOLVED_ITEMS.put(fullName, resolved);
+        }
+        return resolved;
     }
 
-    private Resource resolveFolder(Item folder){
-        return BluePipelineFactory.resolve(folder);
+    private static void invalidate(String fullName) {
+        String prefix = fullName + "/";
+        for (String key : RESOLVED_ITEMS.asMap().keySet()) {
+            if (key.equals(fullName) || key.startsWith(prefix)) {
+                RESOLVED_ITEMS.invalidate(key);
+            }
+        }
     }
 
-    private Resource resolveRun(Run run){
-        Resource resource = resolveJob(run.getParent());
-        if(resource instanceof BluePipeline){
-            BluePipeline pipeline = (BluePipeline) resource;
-            BlueRunContainer blueRunContainer = pipeline.getRuns();
-            return blueRunContainer == null ? null : blueRunContainer.get(run.getId());
+    private static final class ResolvedItem {
+        private final Link link;
+        /**
+         * true if the resource is a pipeline exposing the runs of the item
+         */
+        private final boolean hasRuns;
+
+        ResolvedItem(Resource resource) {
+            this.link = resource.getLink();
+            this.hasRuns = resource instanceof BluePipeline && ((BluePipeline) resource).getRuns() != null;
         }
-        return null;
     }
 
+    @Extension
+    public static class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onLoaded() {
+            RESOLVED_ITEMS.invalidateAll();
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            invalidate(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            invalidate(oldFullName);
+            invalidate(newFullName);
+        }
+    }
 }
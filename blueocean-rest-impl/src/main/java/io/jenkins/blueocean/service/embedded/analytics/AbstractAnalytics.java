@@ -17,6 +17,7 @@ import org.kohsuke.stapler.Stapler;
 
 import javax.annotation.CheckForNull;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,11 +29,21 @@ public abstract class AbstractAnalytics extends Analytics {
 
     private static final Logger LOGGER = Logger.getLogger(AbstractAnalytics.class.getName());
 
+    private static final String ANONYMOUS = "ANONYMOUS";
+
+    /**
+     * Hash of the instance identity, computed once.
+     */
+    private volatile String server;
+
     public boolean isEnabled() {
         return !UsageStatistics.DISABLED;
     }
 
     /**
+     * Enqueues the event, it is sent asynchronously by {@link #doTrack(String, Map)}.
+     * {@link AdditionalAnalyticsProperties} are applied on the calling thread, as they may look at the current request.
+     *
      * @param req to track
      */
     public void track(TrackRequest req) {
@@ -50,16 +61,27 @@ public abstract class AbstractAnalytics extends Analytics {
                 allProps.putAll(additionalProperties);
             }
         }
-        String server = server();
-        allProps.put("jenkins", server);
         // Background requests do not have userId
+        String username = null;
         if (Stapler.getCurrentRequest() != null) {
-            String identity = identity(server);
-            allProps.put("userId", identity);
+            User user = User.current();
+            username = user == null ? ANONYMOUS : user.getId();
         }
-        Objects.ToStringHelper eventHelper = Objects.toStringHelper(this).add("name", req.name).add("props", allProps);
+        AnalyticsDispatcher.get().enqueue(this, req.name, allProps, username);
+    }
+
+    /**
+     * Sends an event, on the {@link AnalyticsDispatcher} thread.
+     */
+    final void dispatch(String name, Map<String, Object> allProps, @CheckForNull String username) {
+        String server = server();
+        allProps.put("jenkins", server);
+        if (username != null) {
+            allProps.put("userId", identity(username, server));
+        }
+        Objects.ToStringHelper eventHelper = Objects.toStringHelper(this).add("name", name).add("props", allProps);
         try {
-            doTrack(req.name, allProps);
+            doTrack(name, allProps);
             if (LOGGER.isLoggable(Level.FINE)) {
                 String msg = eventHelper.toString();
                 LOGGER.log(Level.FINE, msg);
@@ -73,6 +95,15 @@ public abstract class AbstractAnalytics extends Analytics {
     protected abstract void doTrack(String name, Map<String, Object> allProps);
 
     protected final String server() {
+        String server = this.server;
+        if (server == null) {
+            server = computeServer();
+            this.server = server;
+        }
+        return server;
+    }
+
+    private static String computeServer() {
         byte[] identityBytes;
         try {
             identityBytes = InstanceIdentity.get().getPublic().getEncoded();
@@ -85,7 +116,40 @@ public abstract class AbstractAnalytics extends Analytics {
 
     protected final String identity(String server) {
         User user = User.current();
-        String username = user == null ? "ANONYMOUS" : user.getId();
+        return identity(user == null ? ANONYMOUS : user.getId(), server);
+    }
+
+    private static String identity(String username, String server) {
         return Hashing.sha256().hashString(username + server).toString();
     }
+
+    /**
+     * @return number of events waiting to be sent
+     */
+    public static int getQueueSize() {
+        return AnalyticsDispatcher.get().getQueueSize();
+    }
+
+    /**
+     * @return number of events dropped because too many were waiting to be sent
+     */
+    public static long getDroppedEventCount() {
+        return AnalyticsDispatcher.get().getDroppedEventCount();
+    }
+
+    /**
+     * @return number of events sent, successfully or not
+     */
+    public static long getDispatchedEventCount() {
+        return AnalyticsDispatcher.get().getDispatchedEventCount();
+    }
+
+    /**
+     * Wait until all events tracked so far are sent or dropped.
+     *
+     * @return false if the timeout elapsed first
+     */
+    public static boolean awaitDispatched(long timeout, TimeUnit unit) throws InterruptedException {
+        return AnalyticsDispatcher.get().awaitDispatched(timeout, unit);
+    }
 }
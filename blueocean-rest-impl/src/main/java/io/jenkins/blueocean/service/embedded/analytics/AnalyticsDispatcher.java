@@ -0,0 +1,153 @@
+package io.jenkins.blueocean.service.embedded.analytics;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded, asynchronous dispatcher of analytics events.
+ *
+ * {@link AbstractAnalytics#track} runs on request threads, so it only enqueues the event here. Identity hashing and
+ * {@link AbstractAnalytics#doTrack} happen on a single dispatcher thread, which takes up to {@link #BATCH_SIZE}
+ * events off the queue at a time. Each event is still sent on its own, {@link AbstractAnalytics#doTrack} takes a
+ * single event.
+ *
+ * When the queue is full the oldest event is dropped, analytics are not worth slowing down or failing a request for.
+ *
+ * @see #getQueueSize()
+ * @see #getDroppedEventCount()
+ * @see #getDispatchedEventCount()
+ */
+final class AnalyticsDispatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(AnalyticsDispatcher.class.getName());
+
+    static final int QUEUE_SIZE = Integer.getInteger("blueocean.analytics.queueSize", 1000);
+    static final int BATCH_SIZE = Integer.getInteger("blueocean.analytics.batchSize", 100);
+
+    private static final AnalyticsDispatcher INSTANCE = new AnalyticsDispatcher();
+
+    private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(Math.max(1, QUEUE_SIZE));
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+
+    private AnalyticsDispatcher() {
+        Thread dispatcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatch();
+            }
+        }, "Blue Ocean analytics dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    static AnalyticsDispatcher get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Enqueue an event, dropping the oldest one if the queue is full.
+     *
+     * @param analytics sending the event
+     * @param name of the event
+     * @param props of the event, including additional properties
+     * @param username to derive the user identity from, {@code null} for background events
+     */
+    void enqueue(@Nonnull AbstractAnalytics analytics, @Nonnull String name, @Nonnull Map<String, Object> props,
+                 @CheckForNull String username) {
+        Event event = new Event(analytics, name, props, username);
+        enqueued.incrementAndGet();
+        while (!queue.offer(event)) {
+            if (queue.poll() != null) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return number of events waiting to be dispatched
+     */
+    int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of events dropped because the queue was full
+     */
+    long getDroppedEventCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return number of events handed to {@link AbstractAnalytics#doTrack}, successfully or not
+     */
+    long getDispatchedEventCount() {
+        return dispatched.get();
+    }
+
+    /**
+     * Wait until all events enqueued so far are dispatched or dropped.
+     *
+     * @return false if the timeout elapsed first
+     */
+    boolean awaitDispatched(long timeout, TimeUnit unit) throws InterruptedException {
+        long target = enqueued.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (dispatched.get() + dropped.get() < target) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private void dispatch() {
+        List<Event> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Event event : batch) {
+                    try {
+                        event.analytics.dispatch(event.name, event.props, event.username);
+                    } catch (RuntimeException e) {
+                        LOGGER.log(Level.WARNING, "Unexpected error dispatching analytics event " + event.name, e);
+                    } finally {
+                        dispatched.incrementAndGet();
+                    }
+                }
+            } catch (InterruptedException e) {
+                LOGGER.log(Level.FINE, "Analytics dispatcher interrupted, exiting", e);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private static final class Event {
+        private final AbstractAnalytics analytics;
+        private final String name;
+        private final Map<String, Object> props;
+        private final String username;
+
+        Event(AbstractAnalytics analytics, String name, Map<String, Object> props, String username) {
+            this.analytics = analytics;
+            this.name = name;
+            this.props = props;
+            this.username = username;
+        }
+    }
+}
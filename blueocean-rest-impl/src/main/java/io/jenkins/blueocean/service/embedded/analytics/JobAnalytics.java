@@ -3,25 +3,81 @@ package io.jenkins.blueocean.service.embedded.analytics;
 import com.google.common.collect.ImmutableMap;
 import hudson.Extension;
 import hudson.ExtensionList;
-import hudson.model.AbstractProject;
+import hudson.ExtensionListListener;
+import hudson.XmlFile;
+import hudson.init.Terminator;
 import hudson.model.AsyncPeriodicWork;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import io.jenkins.blueocean.analytics.Analytics;
 import io.jenkins.blueocean.analytics.Analytics.TrackRequest;
 import jenkins.model.Jenkins;
+import jenkins.util.Timer;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+/**
+ * Sends the number of items of each kind, as recognized by the {@link JobAnalyticsCheck}s.
+ * <p>
+ * The kind of each item is kept up to date as items are created, updated, moved or deleted, or have a run completed,
+ * and persisted in {@code io.jenkins.blueocean.service.embedded.analytics.JobAnalytics.xml}, so that checks are only
+ * evaluated for the items that changed. All items are checked again when there is no such file yet, or when the
+ * installed {@link JobAnalyticsCheck}s or {@link JobAnalyticsExclude}s changed.
+ */
 @Extension
 @Restricted(NoExternalUse.class)
 public final class JobAnalytics extends AsyncPeriodicWork {
 
+    private static final Logger LOGGER = Logger.getLogger(JobAnalytics.class.getName());
+
     private static final String JOB_STATS_EVENT_NAME = "job_stats";
     private static final String OTHER_CATEGORY = "other";
 
+    /**
+     * Delay before writing the categories to disk after a change, in seconds. Pending changes are also written when
+     * Jenkins shuts down. Default 600.
+     */
+    private static final long SAVE_DELAY = Long.getLong("blueocean.analytics.jobs.saveDelay", 600);
+
+    private static final Object LOCK = new Object();
+
+    /**
+     * Category of each counted item by full name, {@code null} until loaded or computed. Excluded items are absent.
+     */
+    private static Map<String, String> categories;
+
+    /**
+     * Full names of the items that changed while all items are being checked, {@code null} otherwise
+     */
+    private static Set<String> changedDuringSweep;
+
+    private static boolean saveScheduled;
+
+    private static boolean listening;
+
     public JobAnalytics() {
         super("jobAnalytics");
     }
@@ -36,30 +92,18 @@ public final class JobAnalytics extends AsyncPeriodicWork {
         if (analytics == null) {
             return;
         }
-        Jenkins jenkins = Jenkins.getInstance();
         ExtensionList<JobAnalyticsCheck> checks = ExtensionList.lookup(JobAnalyticsCheck.class);
-        ExtensionList<JobAnalyticsExclude> excludes = ExtensionList.lookup(JobAnalyticsExclude.class);
 
         // Initialize the tally
         Tally tally = new Tally();
         checks.forEach(check -> tally.zero(check.getName()));
         tally.zero(OTHER_CATEGORY);
 
-        jenkins.allItems().forEach(item -> {
-            if (excludes.stream().noneMatch(exclude -> exclude.apply(item))) {
-                boolean matchFound = false;
-                for (JobAnalyticsCheck check : checks) {
-                    if (check.apply(item)) {
-                        tally.count(check.getName());
-                        matchFound = true;
-                        break;
-                    }
-                }
-                if (!matchFound) {
-                    tally.count(OTHER_CATEGORY);
-                }
-            }
-        });
+        Set<String> names = tally.get().keySet();
+        for (String category : getCategories().values()) {
+            // checks of uninstalled plugins no longer have a name
+            tally.count(names.contains(category) ? category : OTHER_CATEGORY);
+        }
         analytics.track(new TrackRequest(
             JOB_STATS_EVENT_NAME,
             ImmutableMap.copyOf(tally.get())
@@ -70,4 +114,317 @@ public final class JobAnalytics extends AsyncPeriodicWork {
     public long getRecurrencePeriod() {
         return DAY;
     }
+
+    /**
+     * @return a copy of the categories, computed first if needed. Items are checked without holding {@link #LOCK}, so
+     * that item and run events are not held up meanwhile. Items that change in the meantime are checked again.
+     */
+    private static Map<String, String> getCategories() {
+        synchronized (LOCK) {
+            if (categories != null) {
+                return new HashMap<>(categories);
+            }
+            changedDuringSweep = new HashSet<>();
+        }
+        Map<String, String> all = computeAll();
+        Set<String> changed;
+        synchronized (LOCK) {
+            changed = changedDuringSweep;
+            changedDuringSweep = null;
+            if (categories == null) {
+                categories = all;
+                scheduleSave();
+            }
+        }
+        if (changed != null) {
+            try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+                for (String fullName : changed) {
+                    Item item = Jenkins.getInstance().getItemByFullName(fullName);
+                    if (item != null) {
+                        update(item);
+                    } else {
+                        remove(fullName);
+                    }
+                }
+            }
+        }
+        synchronized (LOCK) {
+            return new HashMap<>(categories != null ? categories : all);
+        }
+    }
+
+    private static Map<String, String> computeAll() {
+        Map<String, String> all = new HashMap<>();
+        try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+            Jenkins.getInstance().allItems().forEach(item -> {
+                String category = categorize(item);
+                if (category != null) {
+                    all.put(item.getFullName(), category);
+                }
+            });
+        }
+        return all;
+    }
+
+    /**
+     * @return the name of the first matching check, {@link #OTHER_CATEGORY} if none matches, or {@code null} if the
+     * item is excluded
+     */
+    @CheckForNull
+    private static String categorize(@Nonnull Item item) {
+        for (JobAnalyticsExclude exclude : ExtensionList.lookup(JobAnalyticsExclude.class)) {
+            if (exclude.apply(item)) {
+                return null;
+            }
+        }
+        for (JobAnalyticsCheck check : ExtensionList.lookup(JobAnalyticsCheck.class)) {
+            if (check.apply(item)) {
+                return check.getName();
+            }
+        }
+        return OTHER_CATEGORY;
+    }
+
+    /**
+     * Check the item again, and its parent, e.g. a multibranch pipeline is declarative when its primary branch is.
+     * The categories are only written when one of them changed.
+     */
+    private static void update(@Nonnull Item item) {
+        synchronized (LOCK) {
+            if (categories == null) {
+                changedDuringSweep(item.getFullName());
+                return;
+            }
+        }
+        String category;
+        Item parent = item.getParent() instanceof Item ? (Item) item.getParent() : null;
+        String parentCategory = null;
+        try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+            category = categorize(item);
+            if (parent != null) {
+                parentCategory = categorize(parent);
+            }
+        }
+        synchronized (LOCK) {
+            if (categories == null) {
+                changedDuringSweep(item.getFullName());
+                return;
+            }
+            boolean changed = put(item.getFullName(), category);
+            if (parent != null) {
+                changed |= put(parent.getFullName(), parentCategory);
+            }
+            if (changed) {
+                scheduleSave();
+            }
+        }
+    }
+
+    /**
+     * Must be called holding {@link #LOCK}.
+     *
+     * @return whether the category of the item changed
+     */
+    private static boolean put(String fullName, @CheckForNull String category) {
+        String previous = category == null ? categories.remove(fullName) : categories.put(fullName, category);
+        return !Objects.equals(previous, category);
+    }
+
+    /**
+     * Forget the item with the given full name and all its descendants.
+     */
+    private static void remove(@Nonnull String fullName) {
+        synchronized (LOCK) {
+            if (categories == null) {
+                changedDuringSweep(fullName);
+                return;
+            }
+            String childPrefix = fullName + "/";
+            boolean changed = false;
+            Iterator<String> it = categories.keySet().iterator();
+            while (it.hasNext()) {
+                String name = it.next();
+                if (name.equals(fullName) || name.startsWith(childPrefix)) {
+                    it.remove();
+                    changed = true;
+                }
+            }
+            if (changed) {
+                scheduleSave();
+            }
+        }
+    }
+
+    /**
+     * Must be called holding {@link #LOCK}.
+     */
+    private static void changedDuringSweep(String fullName) {
+        if (changedDuringSweep != null) {
+            changedDuringSweep.add(fullName);
+        }
+    }
+
+    /**
+     * Check all items again on next send, e.g. after a plugin adding checks was installed.
+     */
+    private static void invalidate() {
+        synchronized (LOCK) {
+            categories = null;
+            scheduleSave();
+        }
+    }
+
+    /**
+     * @return what the categories depend on besides the items
+     */
+    private static List<String> getChecks() {
+        List<String> checks = new ArrayList<>();
+        for (JobAnalyticsCheck check : ExtensionList.lookup(JobAnalyticsCheck.class)) {
+            checks.add(check.getName());
+        }
+        for (JobAnalyticsExclude exclude : ExtensionList.lookup(JobAnalyticsExclude.class)) {
+            checks.add(exclude.getClass().getName());
+        }
+        return checks;
+    }
+
+    private static XmlFile getConfigFile() {
+        return new XmlFile(Jenkins.XSTREAM2, new File(Jenkins.getInstance().getRootDir(), JobAnalytics.class.getName() + ".xml"));
+    }
+
+    private static void load() {
+        Map<String, String> loaded = null;
+        XmlFile file = getConfigFile();
+        if (file.exists()) {
+            try {
+                State state = (State) file.read();
+                if (getChecks().equals(state.checks) && state.categories != null) {
+                    loaded = new HashMap<>(state.categories);
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to read " + file + ", all items will be checked again", e);
+            }
+        }
+        synchronized (LOCK) {
+            categories = loaded;
+            if (!listening) {
+                listening = true;
+                ExtensionListListener listener = new ExtensionListListener() {
+                    @Override
+                    public void onChange() {
+                        invalidate();
+                    }
+                };
+                ExtensionList.lookup(JobAnalyticsCheck.class).addListener(listener);
+                ExtensionList.lookup(JobAnalyticsExclude.class).addListener(listener);
+            }
+        }
+    }
+
+    /**
+     * Must be called holding {@link #LOCK}.
+     */
+    private static void scheduleSave() {
+        if (saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+        Timer.get().schedule(JobAnalytics::save, SAVE_DELAY, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Write pending changes, which would otherwise wait for {@link #SAVE_DELAY}.
+     */
+    @Terminator
+    public static void saveOnShutdown() {
+        synchronized (LOCK) {
+            if (!saveScheduled) {
+                return;
+            }
+        }
+        save();
+    }
+
+    private static void save() {
+        Map<String, String> snapshot;
+        synchronized (LOCK) {
+            saveScheduled = false;
+            snapshot = categories == null ? null : new HashMap<>(categories);
+        }
+        XmlFile file = getConfigFile();
+        try {
+            if (snapshot == null) {
+                // checked again on next send
+                Files.deleteIfExists(file.getFile().toPath());
+            } else {
+                file.write(new State(getChecks(), snapshot));
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write " + file, e);
+        }
+    }
+
+    /**
+     * Persisted form of the categories.
+     */
+    private static final class State {
+        private final List<String> checks;
+        private final Map<String, String> categories;
+
+        State(List<String> checks, Map<String, String> categories) {
+            this.checks = checks;
+            this.categories = categories;
+        }
+    }
+
+    @Extension
+    public static class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onLoaded() {
+            load();
+        }
+
+        @Override
+        public void onCreated(Item item) {
+            update(item);
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            update(item);
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            update(item);
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            remove(item.getFullName());
+            ItemGroup<?> parent = item.getParent();
+            if (parent instanceof Item) {
+                update((Item) parent);
+            }
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // descendants get their own event
+            remove(oldFullName);
+            update(item);
+        }
+    }
+
+    /**
+     * Checks may look at the actions a run adds to its job, e.g. whether it is a declarative pipeline. Most runs do not
+     * change the category of their job, and then nothing is written.
+     */
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+            update(run.getParent());
+        }
+    }
 }
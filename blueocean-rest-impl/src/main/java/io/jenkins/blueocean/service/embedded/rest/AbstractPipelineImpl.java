@@ -35,6 +35,7 @@ import io.jenkins.blueocean.rest.model.BlueTestSummary;
 import io.jenkins.blueocean.rest.model.BlueTrendContainer;
 import io.jenkins.blueocean.rest.model.Resource;
 import io.jenkins.blueocean.service.embedded.util.Disabler;
+import io.jenkins.blueocean.service.embedded.util.PermissionCache;
 import io.jenkins.blueocean.service.embedded.util.FavoriteUtil;
 import org.kohsuke.stapler.WebMethod;
 import org.kohsuke.stapler.json.JsonBody;
@@ -327,11 +328,11 @@ public class AbstractPipelineImpl extends BluePipeline {
 
     public static Map<String, Boolean> getPermissions(AbstractItem item){
         return ImmutableMap.of(
-            BluePipeline.CREATE_PERMISSION, item.getACL().hasPermission(Item.CREATE),
-            BluePipeline.CONFIGURE_PERMISSION, item.getACL().hasPermission(Item.CONFIGURE),
-            BluePipeline.READ_PERMISSION, item.getACL().hasPermission(Item.READ),
-            BluePipeline.START_PERMISSION, item.getACL().hasPermission(Item.BUILD),
-            BluePipeline.STOP_PERMISSION, item.getACL().hasPermission(Item.CANCEL)
+            BluePipeline.CREATE_PERMISSION, PermissionCache.hasPermission(item, Item.CREATE),
+            BluePipeline.CONFIGURE_PERMISSION, PermissionCache.hasPermission(item, Item.CONFIGURE),
+            BluePipeline.READ_PERMISSION, PermissionCache.hasPermission(item, Item.READ),
+            BluePipeline.START_PERMISSION, PermissionCache.hasPermission(item, Item.BUILD),
+            BluePipeline.STOP_PERMISSION, PermissionCache.hasPermission(item, Item.CANCEL)
         );
     }
 
@@ -1,15 +1,30 @@
 package io.jenkins.blueocean.service.embedded.rest;
 
+import java.io.IOException;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nonnull;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.acegisecurity.Authentication;
 import org.apache.commons.lang.BooleanUtils;
+import org.kohsuke.stapler.HttpResponses;
 import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
 import org.kohsuke.stapler.export.Exported;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,11 +33,19 @@ import com.google.common.base.Optional;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 
+import hudson.Extension;
 import hudson.model.Action;
 import hudson.model.CauseAction;
+import hudson.model.Job;
 import hudson.model.Result;
 import hudson.model.Run;
+import hudson.model.RunMap;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import io.jenkins.blueocean.commons.ServiceException;
+import io.jenkins.blueocean.commons.stapler.Export;
 import io.jenkins.blueocean.rest.Reachable;
 import io.jenkins.blueocean.rest.factory.BlueTestResultFactory;
 import io.jenkins.blueocean.rest.hal.Link;
@@ -39,6 +62,9 @@ import io.jenkins.blueocean.rest.model.BlueTestResultContainer;
 import io.jenkins.blueocean.rest.model.BlueTestSummary;
 import io.jenkins.blueocean.rest.model.Container;
 import io.jenkins.blueocean.rest.model.GenericResource;
+import jenkins.model.Jenkins;
+import jenkins.model.lazy.LazyBuildMixIn;
+import jenkins.util.Timer;
 
 /**
  * Basic {@link BlueRun} implementation.
@@ -60,6 +86,19 @@ public abstract class AbstractRunImpl<T extends Run> extends BlueRun {
         .expireAfterAccess(1, TimeUnit.DAYS)
         .build();
 
+    /**
+     * Number of build numbers probed on each side of a run to find its neighbours, see {@link #getLinks()}
+     */
+    private static final int NEIGHBOUR_PROBE_LIMIT = Integer.getInteger("blueocean.runs.neighbourProbeLimit", 20);
+
+    /**
+     * Completed and removed when the run with this externalizable id completes, for callers of a blocking stop, or
+     * when it is finalized or deleted if it never completes. Entries of runs that never finalize, e.g. when Jenkins is shutting down, expire.
+     */
+    private static final Cache<String, CompletableFuture<Void>> STOPPING = CacheBuilder.newBuilder()
+        .expireAfterWrite(1, TimeUnit.HOURS)
+        .build();
+
     protected final T run;
     protected final BlueOrganization organization;
 
@@ -147,8 +186,9 @@ public abstract class AbstractRunImpl<T extends Run> extends BlueRun {
 
     @Override
     public BlueRunResult getResult() {
-        // A runs result is always unknown until it has finished running
-        if (getStateObj() == BlueRunState.RUNNING) {
+        // A runs result is unknown until it has finished building, it is final while steps that run after
+        // finalization are still running
+        if (getStateObj() == BlueRunState.RUNNING && run.isBuilding()) {
             return BlueRunResult.UNKNOWN;
         } else {
             Result result = run.getResult();
@@ -284,34 +324,106 @@ public abstract class AbstractRunImpl<T extends Run> extends BlueRun {
         }
     }
 
+    /**
+     * Requests the run to stop and, when blocking, waits until it completes or the timeout expires. The wait is woken
+     * by {@link RunListenerImpl} rather than by polling the run, and does not wait for the run to be finalized. When
+     * the container supports it the request is suspended while waiting, see {@link CompletionResponse}, rather than
+     * holding on to the request thread.
+     */
     protected BlueRun stop(Boolean blocking, Integer timeOutInSecs, StoppableRun stoppableRun){
-            if(blocking == null){
-                blocking = false;
-            }
-            try {
-                long start = System.currentTimeMillis();
-                if(timeOutInSecs == null){
-                    timeOutInSecs = DEFAULT_BLOCKING_STOP_TIMEOUT_IN_SECS;
-                }
-                if(timeOutInSecs < 0){
-                    throw new ServiceException.BadRequestException("timeOutInSecs must be >= 0");
-                }
+        if(blocking == null){
+            blocking = false;
+        }
+        if(timeOutInSecs == null){
+            timeOutInSecs = DEFAULT_BLOCKING_STOP_TIMEOUT_IN_SECS;
+        }
+        if(timeOutInSecs < 0){
+            throw new ServiceException.BadRequestException("timeOutInSecs must be >= 0");
+        }
+        CompletableFuture<Void> completed;
+        try {
+            // registered before stopping so that the run cannot complete unnoticed in between
+            completed = blocking && timeOutInSecs > 0 && run.isLogUpdated()
+                ? STOPPING.asMap().computeIfAbsent(run.getExternalizableId(), id -> new CompletableFuture<>())
+                : null;
+
+            stoppableRun.stop();
+        } catch (Exception e) {
+            throw new ServiceException.UnexpectedErrorException(String.format("Failed to stop run %s: %s", run.getId(), e.getMessage()), e);
+        }
+        if(completed == null || completed.isDone()){
+            return this;
+        }
 
-                stoppableRun.stop();
+        StaplerRequest request = Stapler.getCurrentRequest();
+        if(request != null && request.isAsyncSupported()){
+            throw new CompletionResponse(completed, timeOutInSecs);
+        }
+        try {
+            completed.get(timeOutInSecs, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            // caller looks at the state of the run
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException.UnexpectedErrorException(String.format("Interrupted while stopping run %s", run.getId()), e);
+        } catch (Exception e) {
+            throw new ServiceException.UnexpectedErrorException(String.format("Failed to stop run %s: %s", run.getId(), e.getMessage()), e);
+        }
+        return this;
+    }
 
-                long timeOutInMillis = timeOutInSecs*1000;
-                long sleepingInterval = timeOutInMillis/10; //one tenth of timeout
-                do{
-                    if(isCompletedOrAborted()){
-                        return this;
-                    }
-                    Thread.sleep(sleepingInterval);
-                }while(blocking && (System.currentTimeMillis() - start) < timeOutInMillis);
+    /**
+     * Suspends the request of a blocking stop until the run completes or the timeout expires, then serves the run as
+     * {@link io.jenkins.blueocean.commons.stapler.TreeResponse} would have. The response is written from a
+     * {@link Timer} thread with the authentication and the {@code tree} and {@code depth} parameters of the request.
+     */
+    private class CompletionResponse extends HttpResponses.HttpResponseException {
+        private final CompletableFuture<Void> completed;
+        private final int timeOutInSecs;
+
+        CompletionResponse(CompletableFuture<Void> completed, int timeOutInSecs) {
+            this.completed = completed;
+            this.timeOutInSecs = timeOutInSecs;
+        }
 
-            } catch (Exception e) {
-                throw new ServiceException.UnexpectedErrorException(String.format("Failed to stop run %s: %s", run.getId(), e.getMessage()), e);
+        @Override
+        public void generateResponse(StaplerRequest req, StaplerResponse rsp, Object node) throws IOException, ServletException {
+            final String tree = req.getParameter("tree");
+            final int depth;
+            try {
+                String s = req.getParameter("depth");
+                depth = s != null ? Integer.parseInt(s) : 0;
+            } catch (NumberFormatException e) {
+                throw new ServletException("Depth parameter must be a number");
             }
-        return this;
+            final Authentication auth = Jenkins.getAuthentication();
+            final AsyncContext async = req.startAsync();
+            // timed out below, the container must not complete the request on its own
+            async.setTimeout(0);
+
+            final AtomicBoolean responded = new AtomicBoolean();
+            final Runnable respond = () -> {
+                if (!responded.compareAndSet(false, true)) {
+                    return;
+                }
+                try (ACLContext ignored = ACL.as(auth)) {
+                    HttpServletResponse response = (HttpServletResponse) async.getResponse();
+                    response.setHeader("X-Jenkins", Jenkins.VERSION);
+                    response.setHeader("X-Jenkins-Session", Jenkins.SESSION_HASH);
+                    response.setContentType("application/json;charset=UTF-8");
+                    Export.toJson(AbstractRunImpl.this, tree, depth, response.getWriter());
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.error(String.format("Failed to respond to stop of run %s", run.getId()), e);
+                } finally {
+                    async.complete();
+                }
+            };
+            final ScheduledFuture<?> timeout = Timer.get().schedule(respond, timeOutInSecs, TimeUnit.SECONDS);
+            completed.whenCompleteAsync((ignored, e) -> {
+                timeout.cancel(false);
+                respond.run();
+            }, Timer.get());
+        }
     }
 
     /**
@@ -338,30 +450,84 @@ public abstract class AbstractRunImpl<T extends Run> extends BlueRun {
         return parent.getLink().rel("runs/"+getId());
     }
 
-    private boolean isCompletedOrAborted(){
-        Result result = run.getResult();
-        return result != null && (result == Result.ABORTED || result.isCompleteBuild());
-    }
-
     @Override
     public Links getLinks() {
         Links links = super.getLinks().add("parent", parent.getLink());
-        Run nextRun = run.getNextBuild();
-        Run prevRun = run.getPreviousBuild();
+        Link runLink = LinkResolver.resolveLink(run);
+        if (runLink == null) {
+            return links;
+        }
+        Link runsLink = runLink.ancestor();
 
-        if(nextRun != null) {
-            Link nextRunLink = LinkResolver.resolveLink(nextRun);
-            links.add("nextRun", nextRunLink);
+        int nextRun = getNeighbourNumber(+1);
+        if(nextRun > 0) {
+            links.add("nextRun", runsLink.rel(Integer.toString(nextRun)));
         }
 
-        if(prevRun != null) {
-            Link prevRunLink = LinkResolver.resolveLink(prevRun);
-            links.add("prevRun", prevRunLink);
+        int prevRun = getNeighbourNumber(-1);
+        if(prevRun > 0) {
+            links.add("prevRun", runsLink.rel(Integer.toString(prevRun)));
         }
 
         return links;
     }
 
+    /**
+     * Finds the number of the next or previous run from the build numbers of the job, so that serializing a run does
+     * not load its neighbours. Only when there is a gap of more than {@link #NEIGHBOUR_PROBE_LIMIT} numbers, or the job
+     * does not lazy load its runs, the neighbour is looked up through {@link Run#getNextBuild()} or
+     * {@link Run#getPreviousBuild()}.
+     *
+     * @param direction +1 for the next run, -1 for the previous run
+     * @return number of the neighbouring run, or 0 if there is none
+     */
+    private int getNeighbourNumber(int direction) {
+        Job<?, ?> job = run.getParent();
+        if (job instanceof LazyBuildMixIn.LazyLoadingJob) {
+            RunMap<?> runs = ((LazyBuildMixIn.LazyLoadingJob<?, ?>) job).getLazyBuildMixIn()._getRuns();
+            for (int i = 1, n = run.getNumber() + direction; i <= NEIGHBOUR_PROBE_LIMIT && n > 0; i++, n += direction) {
+                if (runs.runExists(n)) {
+                    return n;
+                }
+            }
+            if (direction < 0 && run.getNumber() - NEIGHBOUR_PROBE_LIMIT <= 1) {
+                // probed down to the first build number
+                return 0;
+            }
+        }
+        Run neighbour = direction > 0 ? run.getNextBuild() : run.getPreviousBuild();
+        return neighbour == null ? 0 : neighbour.getNumber();
+    }
+
+    /**
+     * Wakes up callers waiting for a run to stop. The result of a run is final once it completes, finalization may
+     * come much later.
+     */
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+            complete(run);
+        }
+
+        @Override
+        public void onFinalized(Run<?, ?> run) {
+            complete(run);
+        }
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            complete(run);
+        }
+
+        private static void complete(Run<?, ?> run) {
+            CompletableFuture<Void> completed = STOPPING.asMap().remove(run.getExternalizableId());
+            if (completed != null) {
+                completed.complete(null);
+            }
+        }
+    }
+
     public static class BlueCauseImpl extends BlueCause {
 
         private final hudson.model.Cause cause;
@@ -9,6 +9,7 @@ import io.jenkins.blueocean.rest.hal.Link;
 import io.jenkins.blueocean.rest.model.BlueActionProxy;
 import org.apache.commons.lang.StringUtils;
 import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.export.ExportedBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -103,8 +104,8 @@ public class ActionProxiesImpl extends BlueActionProxy {
 
     }
 
-    // Should be called only in request context
     private static boolean isTreeRequest(){
-        return StringUtils.isNotBlank(Stapler.getCurrentRequest().getParameter("tree"));
+        StaplerRequest request = Stapler.getCurrentRequest();
+        return request != null && StringUtils.isNotBlank(request.getParameter("tree"));
     }
 }
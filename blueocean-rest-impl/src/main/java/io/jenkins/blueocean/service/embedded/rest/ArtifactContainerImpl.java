@@ -1,21 +1,34 @@
 package io.jenkins.blueocean.service.embedded.rest;
 
-import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterators;
 import hudson.Functions;
+import hudson.Util;
 import hudson.model.Run;
 import io.jenkins.blueocean.rest.Reachable;
 import io.jenkins.blueocean.rest.factory.BlueArtifactFactory;
 import io.jenkins.blueocean.rest.hal.Link;
 import io.jenkins.blueocean.rest.model.BlueArtifact;
 import io.jenkins.blueocean.rest.model.BlueArtifactContainer;
+import io.jenkins.blueocean.rest.pageable.Pageables;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
 
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 import java.util.Iterator;
 
+/**
+ * Artifacts of a run, enumerated as the requested page is served. The {@code path} parameter only lists artifacts
+ * whose path starts with it, and the total number of artifacts of the run is served in the {@value #TOTAL_COUNT_HEADER}
+ * header.
+ * <p>
+ * {@code start} pages by offset, through all the artifacts before the page. The {@code after} parameter takes the path
+ * of the last artifact of the previous page instead, and the listing seeks to it: {@code ?after=a/b/2.txt&limit=100}
+ * serves the 100 artifacts following {@code a/b/2.txt}, {@code start} then counts from there.
+ */
 public class ArtifactContainerImpl extends BlueArtifactContainer {
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     final private Run run;
     final private Link self;
 
@@ -32,24 +45,35 @@ public class ArtifactContainerImpl extends BlueArtifactContainer {
     @Override
     public BlueArtifact get(final String name) {
         // Check security for artifacts
-        if(Functions.isArtifactsPermissionEnabled() && !run.hasPermission(Run.ARTIFACTS)) {
+        if(!hasArtifactsPermission()) {
             return null;
         }
-        return Iterators.find(iterator(), new Predicate<BlueArtifact>() {
-            @Override
-            public boolean apply(@Nullable BlueArtifact input) {
-                return input != null && input.getId().equals(name);
-            }
-        }, null);
+        return BlueArtifactFactory.find(run, this, name);
     }
 
     @Override
     @Nonnull
     public Iterator<BlueArtifact> iterator() {
         // Check security for artifacts
-        if(Functions.isArtifactsPermissionEnabled() && !run.hasPermission(Run.ARTIFACTS)) {
+        if(!hasArtifactsPermission()) {
             return ImmutableList.<BlueArtifact>of().iterator();
         }
-        return BlueArtifactFactory.resolve(run, this).iterator();
+        StaplerRequest request = Stapler.getCurrentRequest();
+        String pathPrefix = request == null ? null : Util.fixEmpty(request.getParameter("path"));
+        String after = request == null ? null : Util.fixEmpty(request.getParameter("after"));
+        return BlueArtifactFactory.resolveIterator(run, this, pathPrefix, after);
+    }
+
+    @Override
+    public Iterator<BlueArtifact> iterator(int start, int limit) {
+        StaplerResponse response = Stapler.getCurrentResponse();
+        if (response != null && hasArtifactsPermission()) {
+            response.setHeader(TOTAL_COUNT_HEADER, String.valueOf(BlueArtifactFactory.countAll(run, this)));
+        }
+        return Pageables.slice(iterator(), start, limit);
+    }
+
+    private boolean hasArtifactsPermission() {
+        return !Functions.isArtifactsPermissionEnabled() || run.hasPermission(Run.ARTIFACTS);
     }
 }
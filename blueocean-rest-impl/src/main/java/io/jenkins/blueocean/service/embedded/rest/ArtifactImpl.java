@@ -1,56 +1,79 @@
 package io.jenkins.blueocean.service.embedded.rest;
 
 import com.google.common.base.Function;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Collections2;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterators;
 import hudson.Extension;
-import hudson.Functions;
 import hudson.Util;
 import hudson.model.Run;
+import io.jenkins.blueocean.commons.ServiceException;
 import io.jenkins.blueocean.rest.Reachable;
 import io.jenkins.blueocean.rest.factory.BlueArtifactFactory;
 import io.jenkins.blueocean.rest.hal.Link;
 import io.jenkins.blueocean.rest.model.BlueArtifact;
-import org.kohsuke.stapler.Stapler;
+import jenkins.util.VirtualFile;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.Iterator;
-import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class ArtifactImpl extends BlueArtifact {
     final private Run run;
-    final private Run.Artifact artifact;
+    final private String name;
+    final private String path;
+    final private String href;
+    final private long size;
 
     public ArtifactImpl(Run run, Run.Artifact artifact, Link parent) {
+        this(run, artifact.getFileName(), artifact.relativePath, artifact.getHref(), getFileSize(artifact), parent);
+    }
+
+    ArtifactImpl(Run run, String name, String path, String href, long size, Link parent) {
         super(parent);
         this.run = run;
-        this.artifact = artifact;
+        this.name = name;
+        this.path = path;
+        this.href = href;
+        this.size = size;
+    }
+
+    private static long getFileSize(Run.Artifact artifact) {
+        try {
+            return artifact.getFileSize();
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 
     @Override
     public String getName() {
-        return artifact.getFileName();
+        return name;
     }
 
     @Override
     public String getPath() {
-        return artifact.relativePath;
+        return path;
     }
 
     @Override
     public String getUrl() {
-        return String.format("/%sartifact/%s", run.getUrl(), artifact.getHref());
+        return String.format("/%sartifact/%s", run.getUrl(), href);
     }
 
     @Override
     public long getSize() {
-        try {
-            return artifact.getFileSize();
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+        return size;
     }
 
     @Override
@@ -58,11 +81,22 @@ public class ArtifactImpl extends BlueArtifact {
         return true;
     }
 
+    /**
+     * Lists the files of the artifact manager as they are consumed, in the order of {@link Run#getArtifacts()}, and
+     * looks up single artifacts directly.
+     */
     @Extension(ordinal = -1)
     public static class FactoryImpl extends BlueArtifactFactory {
+
+        private static final long COUNT_CACHE_MAX_SIZE = Long.getLong("blueocean.artifacts.countCacheSize", 10000);
+
+        /** Number of artifacts of completed runs */
+        private static final Cache<String, Integer> COUNTS = CacheBuilder.newBuilder()
+            .maximumSize(COUNT_CACHE_MAX_SIZE)
+            .build();
+
         @Override
         public Collection<BlueArtifact> getArtifacts(final Run<?, ?> run, final Reachable parent) {
-            // TODO: we need to figure out if calling run.getArtifacts() is expensive or not
             return Collections2.transform(run.getArtifacts(), new Function<Run.Artifact, BlueArtifact>() {
                 @Override
                 public BlueArtifact apply(Run.Artifact artifact) {
@@ -70,5 +104,218 @@ public class ArtifactImpl extends BlueArtifact {
                 }
             });
         }
+
+        @Override
+        public Iterator<BlueArtifact> iterator(Run<?, ?> run, Reachable parent, @Nullable String pathPrefix) {
+            return new ArtifactIterator(run, parent.getLink(), pathPrefix == null ? "" : pathPrefix);
+        }
+
+        @CheckForNull
+        @Override
+        public Iterator<BlueArtifact> iteratorAfter(Run<?, ?> run, Reachable parent, @Nullable String pathPrefix, @Nonnull String after) {
+            ArtifactIterator iterator = new ArtifactIterator(run, parent.getLink(), pathPrefix == null ? "" : pathPrefix);
+            try {
+                return iterator.seek(after) ? iterator : null;
+            } catch (IOException e) {
+                throw new ServiceException.UnexpectedErrorException("Failed to list artifacts of " + run, e);
+            }
+        }
+
+        @CheckForNull
+        @Override
+        public BlueArtifact getArtifact(Run<?, ?> run, Reachable parent, @Nonnull String id) {
+            String prefix = ArtifactImpl.class.getName() + ":";
+            if (!id.startsWith(prefix)) {
+                return null;
+            }
+            String encodedPath = id.substring(prefix.length());
+            String path;
+            try {
+                path = URLDecoder.decode(encodedPath.replace("+", "%2B"), "UTF-8");
+            } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                return null;
+            }
+            if (!encodedPath.equals(Util.rawEncode(path))) {
+                return null;
+            }
+            // only paths the listing would give
+            StringBuilder href = new StringBuilder();
+            for (String segment : path.split("/", -1)) {
+                if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) {
+                    return null;
+                }
+                href.append(href.length() == 0 ? "" : "/").append(Util.rawEncode(segment));
+            }
+            try {
+                VirtualFile file = run.getArtifactManager().root().child(path);
+                if (!file.isFile()) {
+                    return null;
+                }
+                return new ArtifactImpl(run, file.getName(), path, href.toString(), file.length(), parent.getLink());
+            } catch (IOException e) {
+                throw new ServiceException.UnexpectedErrorException("Failed to look up artifact " + path, e);
+            }
+        }
+
+        @Override
+        public int count(Run<?, ?> run, Reachable parent) {
+            if (run.isBuilding()) {
+                return super.count(run, parent);
+            }
+            try {
+                if (!run.getArtifactManager().root().exists()) {
+                    // artifacts were deleted
+                    COUNTS.invalidate(key(run));
+                    return 0;
+                }
+                return COUNTS.get(key(run), () -> super.count(run, parent));
+            } catch (IOException | ExecutionException e) {
+                throw new ServiceException.UnexpectedErrorException("Failed to count artifacts of " + run, e);
+            }
+        }
+
+        /**
+         * @return cache key of the run, a run of another job may get the same id once this job is deleted or renamed
+         */
+        private static String key(Run<?, ?> run) {
+            return run.getExternalizableId() + '@' + run.getStartTimeInMillis();
+        }
+    }
+
+    /**
+     * Depth first walk of the artifacts with names sorted like {@link Run#getArtifacts()}, skipping directories that
+     * cannot contain artifacts matching the prefix.
+     */
+    private static final class ArtifactIterator extends AbstractIterator<BlueArtifact> {
+        private final Run<?, ?> run;
+        private final Link parent;
+        private final String pathPrefix;
+        private final Deque<Directory> directories = new ArrayDeque<>();
+
+        ArtifactIterator(Run<?, ?> run, Link parent, String pathPrefix) {
+            this.run = run;
+            this.parent = parent;
+            this.pathPrefix = pathPrefix;
+            try {
+                VirtualFile root = run.getArtifactManager().root();
+                if (root.isDirectory()) {
+                    directories.push(new Directory(root, "", ""));
+                }
+            } catch (IOException e) {
+                throw new ServiceException.UnexpectedErrorException("Failed to list artifacts of " + run, e);
+            }
+        }
+
+        /**
+         * Continue the walk after the artifact with this path. Only lists the directories on the way to it, siblings
+         * are found by a binary search of their sorted names.
+         *
+         * @return false if there is no such artifact matching the prefix
+         */
+        boolean seek(String after) throws IOException {
+            Directory directory = directories.peek();
+            if (directory == null || !after.startsWith(pathPrefix)) {
+                return false;
+            }
+            String[] names = after.split("/", -1);
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].isEmpty()) {
+                    return false;
+                }
+                VirtualFile child = directory.seek(names[i]);
+                if (child == null) {
+                    return false;
+                }
+                if (i == names.length - 1) {
+                    return !child.isDirectory();
+                }
+                if (!child.isDirectory()) {
+                    return false;
+                }
+                String name = child.getName();
+                directory = new Directory(child, directory.path + name + "/", directory.href + Util.rawEncode(name) + "/");
+                directories.push(directory);
+            }
+            return false;
+        }
+
+        @Override
+        protected BlueArtifact computeNext() {
+            try {
+                while (!directories.isEmpty()) {
+                    Directory directory = directories.peek();
+                    if (!directory.hasNext()) {
+                        directories.pop();
+                        continue;
+                    }
+                    VirtualFile child = directory.next();
+                    String path = directory.path + child.getName();
+                    String href = directory.href + Util.rawEncode(child.getName());
+                    if (child.isDirectory()) {
+                        String dirPath = path + "/";
+                        if (dirPath.startsWith(pathPrefix) || pathPrefix.startsWith(dirPath)) {
+                            directories.push(new Directory(child, dirPath, href + "/"));
+                        }
+                    } else if (path.startsWith(pathPrefix)) {
+                        return new ArtifactImpl(run, child.getName(), path, href, child.length(), parent);
+                    }
+                }
+                return endOfData();
+            } catch (IOException e) {
+                throw new ServiceException.UnexpectedErrorException("Failed to list artifacts of " + run, e);
+            }
+        }
+
+        private static final class Directory {
+            private final VirtualFile dir;
+            private final VirtualFile[] children;
+            private final String path;
+            private final String href;
+            private int next;
+
+            Directory(VirtualFile dir, String path, String href) throws IOException {
+                this.dir = dir;
+                this.children = dir.list();
+                Arrays.sort(children);
+                this.path = path;
+                this.href = href;
+            }
+
+            boolean hasNext() {
+                return next < children.length;
+            }
+
+            VirtualFile next() {
+                return children[next++];
+            }
+
+            /**
+             * Position after the child with this name, or before the first child sorting after it if there is none.
+             *
+             * @return the child with this name, or null
+             */
+            @CheckForNull
+            VirtualFile seek(String name) {
+                // compared as VirtualFile, names sort the same whether the file exists or not
+                VirtualFile probe = dir.child(name);
+                int i = Arrays.binarySearch(children, probe);
+                if (i < 0) {
+                    next = -i - 1;
+                    return null;
+                }
+                // names may compare equal without being equal, e.g. ignoring case
+                while (i > 0 && children[i - 1].compareTo(probe) == 0) {
+                    i--;
+                }
+                next = i;
+                for (int j = i; j < children.length && children[j].compareTo(probe) == 0; j++) {
+                    if (children[j].getName().equals(name)) {
+                        next = j + 1;
+                        return children[j];
+                    }
+                }
+                return null;
+            }
+        }
     }
 }
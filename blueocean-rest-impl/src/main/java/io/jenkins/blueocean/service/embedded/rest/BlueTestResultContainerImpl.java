@@ -39,16 +39,8 @@ public class BlueTestResultContainerImpl extends BlueTestResultContainer {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public BlueTestResult get(final String name) {
-        Result resolved = resolve();
-
-        if (resolved.summary == null || resolved.results == null) {
-            throw new NotFoundException("no tests");
-        }
-        BlueTestResult testResult = Iterables.find(resolved.results, //
-                                                   input -> input != null && input.getId().equals(name), //
-                                                   null);
+        BlueTestResult testResult = BlueTestResultFactory.find(run, parent, name);
         if (testResult == null) {
             throw new NotFoundException("not found");
         }
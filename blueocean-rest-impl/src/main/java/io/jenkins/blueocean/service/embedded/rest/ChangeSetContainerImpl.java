@@ -1,6 +1,7 @@
 package io.jenkins.blueocean.service.embedded.rest;
 
-import hudson.model.AbstractBuild;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import hudson.model.Run;
 import hudson.scm.ChangeLogSet;
 import io.jenkins.blueocean.rest.hal.Link;
@@ -8,20 +9,18 @@ import io.jenkins.blueocean.rest.model.BlueChangeSetEntry;
 import io.jenkins.blueocean.rest.model.BlueOrganization;
 import io.jenkins.blueocean.rest.model.BlueRun;
 import io.jenkins.blueocean.rest.model.Container;
-import jenkins.scm.RunWithSCM;
-import org.jenkinsci.plugins.workflow.cps.replay.ReplayCause;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 public class ChangeSetContainerImpl extends Container<BlueChangeSetEntry> {
 
     private final BlueOrganization organization;
     private final BlueRun blueRun;
-    private final Run run;
+    private final Run<?, ?> run;
 
-    public ChangeSetContainerImpl(BlueOrganization organization, BlueRun blueRun, Run run) {
+    public ChangeSetContainerImpl(BlueOrganization organization, BlueRun blueRun, Run<?, ?> run) {
         super();
         this.organization = organization;
         this.blueRun = blueRun;
@@ -35,50 +34,24 @@ public class ChangeSetContainerImpl extends Container<BlueChangeSetEntry> {
 
     @Override
     public BlueChangeSetEntry get(String name) {
-        for (Iterator i = this.iterator(); i.hasNext(); ) {
-            BlueChangeSetEntry set = (BlueChangeSetEntry) i.next();
-            if (name.equals(set.getCommitId())) {
-                return set;
-            }
+        int position = ChangeSetIndex.get(run).indexOf(name);
+        if (position < 0) {
+            return null;
         }
-        return null;
+        return Iterators.get(iterator(), position, null);
     }
 
     @Override
     public Iterator<BlueChangeSetEntry> iterator() {
-        Run run = this.run;
-        List<BlueChangeSetEntry> changesets = new LinkedList<>();
-        int checkoutCount = 0;
-
         // If this run is a replay then return the changesets from the original run
-        ReplayCause replayCause = (ReplayCause) run.getCause(ReplayCause.class);
-        while (replayCause != null) {
-            Run originalRun = this.run.getParent().getBuildByNumber(replayCause.getOriginalNumber());
-            if (originalRun != null) {
-                run = originalRun;
-                replayCause = (ReplayCause) run.getCause(ReplayCause.class);
-            } else {
-                // the replay we are dependant on no longer exists
-                break;
-            }
-        }
-
-        if (run instanceof AbstractBuild) {
-            for (ChangeLogSet<? extends ChangeLogSet.Entry> cs : ((AbstractBuild<?, ?>) run).getChangeSets()) {
-                for (ChangeLogSet.Entry e : cs) {
-                    changesets.add(new ChangeSetResource(this.organization, e, this).setCheckoutCount(checkoutCount));
-                }
-                checkoutCount++;
-            }
-
-        } else if (run instanceof RunWithSCM) {
-            for (ChangeLogSet<? extends ChangeLogSet.Entry> cs : ((RunWithSCM<?, ?>) run).getChangeSets()) {
-                for (ChangeLogSet.Entry e : cs) {
-                    changesets.add(new ChangeSetResource(this.organization, e, this).setCheckoutCount(checkoutCount));
-                }
-                checkoutCount++;
-            }
+        Run<?, ?> origin = ChangeSetIndex.get(run).getOrigin(run);
+        List<Iterable<BlueChangeSetEntry>> changesets = new ArrayList<>();
+        int checkoutCount = 0;
+        for (ChangeLogSet<? extends ChangeLogSet.Entry> cs : ChangeSetIndex.getChangeSets(origin)) {
+            final int count = checkoutCount++;
+            changesets.add(Iterables.transform(cs, e ->
+                new ChangeSetResource(this.organization, e, this).setCheckoutCount(count)));
         }
-        return changesets.iterator();
+        return Iterables.concat(changesets).iterator();
     }
 }
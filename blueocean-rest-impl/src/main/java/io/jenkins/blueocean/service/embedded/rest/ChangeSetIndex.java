@@ -0,0 +1,229 @@
+package io.jenkins.blueocean.service.embedded.rest;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+import hudson.scm.ChangeLogSet;
+import jenkins.scm.RunWithSCM;
+import org.jenkinsci.plugins.workflow.cps.replay.ReplayCause;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Where the changesets of a run come from, and the position and URL of each commit, so that looking up a commit does
+ * not go through all changesets and activity lists get the commit URL of each run without parsing changelogs.
+ * <p>
+ * Indexes of completed runs are cached. They only keep commit ids and URLs, not the changelog entries, which
+ * reference their run. Deleting a run drops its index and those of its replays.
+ */
+@Restricted(NoExternalUse.class)
+public final class ChangeSetIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(ChangeSetIndex.class.getName());
+
+    private static final long CACHE_MAX_SIZE = Long.getLong("blueocean.changesets.indexCacheSize", 10000);
+
+    /**
+     * Cache keys of the indexes of replays, by externalizable id of each run they resolve through: the runs they
+     * replay, replays of replays included, down to the run their changesets come from
+     */
+    private static final Multimap<String, String> REPLAYS =
+        Multimaps.synchronizedSetMultimap(HashMultimap.<String, String>create());
+
+    private static final Cache<String, ChangeSetIndex> CACHE = CacheBuilder.newBuilder()
+        .maximumSize(CACHE_MAX_SIZE)
+        .<String, ChangeSetIndex>removalListener(notification -> {
+            String key = notification.getKey();
+            ChangeSetIndex index = notification.getValue();
+            if (key != null && index != null) {
+                for (int number : index.replayed) {
+                    REPLAYS.remove(originKey(key, number), key);
+                }
+            }
+        })
+        .build();
+
+    /** Number of the run the changesets come from, which differs from the run for replays */
+    private final int origin;
+    /** Numbers of the runs resolved through to the origin, the origin included, empty if the run isn't a replay */
+    private final int[] replayed;
+    /** Position of the first entry with each commit id */
+    private final Map<String, Integer> positions;
+    /** Commit URL by commit id, absent when there is no repository browser */
+    private final Map<String, String> urls;
+
+    private ChangeSetIndex(int origin, int[] replayed, Map<String, Integer> positions, Map<String, String> urls) {
+        this.origin = origin;
+        this.replayed = replayed;
+        this.positions = positions;
+        this.urls = urls;
+    }
+
+    /**
+     * @return index of the run, only cached once the run is completed as changesets are added while it runs
+     */
+    @Nonnull
+    public static ChangeSetIndex get(@Nonnull Run<?, ?> run) {
+        if (run.isBuilding()) {
+            return compute(run);
+        }
+        try {
+            String key = key(run);
+            return CACHE.get(key, () -> {
+                ChangeSetIndex index = compute(run);
+                for (int number : index.replayed) {
+                    REPLAYS.put(originKey(key, number), key);
+                }
+                return index;
+            });
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.WARNING, "Could not index the changesets of " + run, e.getCause());
+            return compute(run);
+        }
+    }
+
+    /**
+     * @return cache key of the run, a run of another job may get the same id once this job is deleted or renamed
+     */
+    private static String key(Run<?, ?> run) {
+        return run.getExternalizableId() + '@' + run.getStartTimeInMillis();
+    }
+
+    /**
+     * @return externalizable id of the run with the given number in the job of the run with the given id or key
+     */
+    private static String originKey(String externalizableId, int origin) {
+        return externalizableId.substring(0, externalizableId.lastIndexOf('#') + 1) + origin;
+    }
+
+    private static ChangeSetIndex compute(Run<?, ?> run) {
+        List<Run<?, ?>> chain = resolveChain(run);
+        Run<?, ?> origin = chain.get(chain.size() - 1);
+        int[] replayed = new int[chain.size() - 1];
+        for (int i = 0; i < replayed.length; i++) {
+            replayed[i] = chain.get(i + 1).getNumber();
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        Map<String, String> urls = new HashMap<>();
+        int position = 0;
+        for (ChangeLogSet<? extends ChangeLogSet.Entry> cs : getChangeSets(origin)) {
+            for (ChangeLogSet.Entry e : cs) {
+                String commitId = e.getCommitId();
+                if (commitId != null && !positions.containsKey(commitId)) {
+                    positions.put(commitId, position);
+                    String url = ChangeSetResource.getUrl(e);
+                    if (url != null) {
+                        urls.put(commitId, url);
+                    }
+                }
+                position++;
+            }
+        }
+        return new ChangeSetIndex(origin.getNumber(), replayed, positions, urls);
+    }
+
+    /**
+     * @return the run the changesets of a replay come from, following replays of replays, or the run itself
+     */
+    @Nonnull
+    static Run<?, ?> resolveOrigin(@Nonnull Run<?, ?> run) {
+        List<Run<?, ?>> chain = resolveChain(run);
+        return chain.get(chain.size() - 1);
+    }
+
+    /**
+     * @return the run, then the runs it replays down to the one its changesets come from
+     */
+    @Nonnull
+    private static List<Run<?, ?>> resolveChain(@Nonnull Run<?, ?> run) {
+        List<Run<?, ?>> chain = new ArrayList<>();
+        Run<?, ?> origin = run;
+        chain.add(origin);
+        ReplayCause replayCause = origin.getCause(ReplayCause.class);
+        while (replayCause != null) {
+            Run<?, ?> originalRun = run.getParent().getBuildByNumber(replayCause.getOriginalNumber());
+            if (originalRun != null) {
+                origin = originalRun;
+                chain.add(origin);
+                replayCause = origin.getCause(ReplayCause.class);
+            } else {
+                // the replay we are dependant on no longer exists
+                break;
+            }
+        }
+        return chain;
+    }
+
+    @Nonnull
+    static List<ChangeLogSet<? extends ChangeLogSet.Entry>> getChangeSets(@Nonnull Run<?, ?> run) {
+        if (run instanceof AbstractBuild) {
+            return ((AbstractBuild<?, ?>) run).getChangeSets();
+        } else if (run instanceof RunWithSCM) {
+            return ((RunWithSCM<?, ?>) run).getChangeSets();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return the run the changesets of this run come from, see {@link #resolveOrigin(Run)}
+     */
+    @Nonnull
+    public Run<?, ?> getOrigin(@Nonnull Run<?, ?> run) {
+        if (origin == run.getNumber()) {
+            return run;
+        }
+        Run<?, ?> originalRun = run.getParent().getBuildByNumber(origin);
+        return originalRun != null ? originalRun : resolveOrigin(run);
+    }
+
+    /**
+     * @return position of the first entry with this commit id among all changesets, or -1
+     */
+    public int indexOf(@Nonnull String commitId) {
+        Integer position = positions.get(commitId);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * @return link to the commit in its repository browser, or {@code null}
+     */
+    @CheckForNull
+    public String getCommitUrl(@Nonnull String commitId) {
+        return urls.get(commitId);
+    }
+
+    /**
+     * Replays resolve through the runs they replay, so their indexes go with any of them.
+     */
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            String id = run.getExternalizableId();
+            CACHE.invalidate(key(run));
+            Collection<String> replays;
+            synchronized (REPLAYS) {
+                replays = new ArrayList<>(REPLAYS.get(id));
+            }
+            CACHE.invalidateAll(replays);
+        }
+    }
+}
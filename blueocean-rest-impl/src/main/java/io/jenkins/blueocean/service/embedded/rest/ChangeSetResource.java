@@ -61,6 +61,10 @@ public class ChangeSetResource extends BlueChangeSetEntry {
 
     @Override
     public String getUrl() {
+        return getUrl(changeSet);
+    }
+
+    static String getUrl(ChangeLogSet.Entry changeSet) {
         RepositoryBrowser browser = changeSet.getParent().getBrowser();
         if(browser != null) {
             try {
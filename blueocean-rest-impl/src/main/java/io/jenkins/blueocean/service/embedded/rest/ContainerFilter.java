@@ -1,6 +1,8 @@
 package io.jenkins.blueocean.service.embedded.rest;
 
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterables;
 import hudson.ExtensionList;
 import hudson.ExtensionPoint;
 import hudson.model.Item;
@@ -39,6 +41,17 @@ public abstract class ContainerFilter implements ExtensionPoint {
         return filter(items, filterNames);
     }
 
+    /**
+     * Filters the item list based on the current StaplerRequest, as items are iterated
+     */
+    public static <T extends Item> Iterable<T> filterLazily(Iterable<T> items) {
+        String[] filterNames = filterNames();
+        if(filterNames.length == 0){
+            return items;
+        }
+        return Iterables.filter(items, Predicates.and(getFilters(filterNames)));
+    }
+
     /**
      * Filters the item list based on the supplied filter name
      */
@@ -0,0 +1,204 @@
+package io.jenkins.blueocean.service.embedded.rest;
+
+import com.cloudbees.hudson.plugins.folder.AbstractFolder;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Run;
+import hudson.model.Saveable;
+import hudson.model.TaskListener;
+import hudson.model.User;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.plugins.favorite.Favorites;
+import hudson.plugins.favorite.listener.FavoriteListener;
+import io.jenkins.blueocean.commons.stapler.Export;
+import io.jenkins.blueocean.rest.model.BlueFavorite;
+import io.jenkins.blueocean.service.embedded.util.FavoriteUtil;
+import jenkins.model.Jenkins;
+import org.acegisecurity.AccessDeniedException;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per user favorite cards, as shown on the dashboard: the serialized {@link BlueFavorite} of each favorite
+ * pipeline, with its latest run. Serves the favorites preloaded on the dashboard and {@link FavoriteContainerImpl}.
+ * <p>
+ * A card is rendered once and kept until a run of its item, or of one of the item's descendants, starts, completes
+ * or is deleted, or the item is updated. A user's list of favorites is kept until the user adds or removes a
+ * favorite.
+ */
+@Restricted(NoExternalUse.class)
+public final class FavoriteCardCache {
+
+    /**
+     * Maximum number of users whose favorite cards are cached. Default 1000.
+     */
+    static final long FAVORITE_CARD_CACHE_MAX_USERS = Long.getLong("blueocean.preload.favorites.cache.maxUsers", 1000);
+
+    /**
+     * Rendered in place of a favorite that does not resolve to a {@link BlueFavorite}.
+     */
+    private static final String NO_CARD = "";
+
+    private static final Cache<String, UserCards> CACHE = CacheBuilder.newBuilder()
+        .maximumSize(FAVORITE_CARD_CACHE_MAX_USERS)
+        .expireAfterAccess(30, TimeUnit.MINUTES)
+        .build();
+
+    private FavoriteCardCache() {}
+
+    /**
+     * Get the favorite cards of the user, who must be the current user.
+     *
+     * @param user current user
+     * @param start number of favorites to skip, as {@link FavoriteContainerImpl#iterator(int, int)} does, folders
+     * included
+     * @param limit maximum number of cards
+     * @return serialized {@link BlueFavorite}s, in the order of the user's favorites
+     */
+    @Nonnull
+    public static List<String> getCards(@Nonnull User user, int start, int limit) throws IOException {
+        UserCards userCards = CACHE.getIfPresent(user.getId());
+        if (userCards == null) {
+            userCards = new UserCards(user);
+            CACHE.put(user.getId(), userCards);
+        }
+        List<String> cards = new ArrayList<>();
+        List<String> fullNames = userCards.fullNames;
+        for (String fullName : fullNames.subList(Math.min(Math.max(start, 0), fullNames.size()), fullNames.size())) {
+            if (cards.size() >= limit) {
+                break;
+            }
+            String card = userCards.cards.get(fullName);
+            if (card == null) {
+                card = render(fullName);
+                userCards.cards.put(fullName, card);
+            }
+            if (!card.equals(NO_CARD)) {
+                cards.add(card);
+            }
+        }
+        return cards;
+    }
+
+    private static String render(String fullName) throws IOException {
+        Item item;
+        try {
+            item = Jenkins.getInstance().getItemByFullName(fullName);
+        } catch (AccessDeniedException e) {
+            item = null;
+        }
+        // folders are not shown as cards
+        BlueFavorite favorite = item == null || item instanceof AbstractFolder ? null : FavoriteUtil.getFavorite(item);
+        return favorite == null ? NO_CARD : Export.toJson(favorite);
+    }
+
+    /**
+     * Drop the cards of the item and its ancestors, e.g. a favorite multibranch pipeline shows its primary branch.
+     */
+    static void invalidate(@CheckForNull Item item) {
+        while (item != null) {
+            for (UserCards userCards : CACHE.asMap().values()) {
+                userCards.cards.remove(item.getFullName());
+            }
+            ItemGroup<?> parent = item.getParent();
+            item = parent instanceof Item ? (Item) parent : null;
+        }
+    }
+
+    private static final class UserCards {
+        /**
+         * Full names of the favorites in the order of {@link Favorites#getFavorites(User)}.
+         */
+        private final List<String> fullNames;
+        private final ConcurrentMap<String, String> cards = new ConcurrentHashMap<>();
+
+        UserCards(User user) {
+            List<String> names = new ArrayList<>();
+            for (Item item : Favorites.getFavorites(user)) {
+                names.add(item.getFullName());
+            }
+            this.fullNames = Collections.unmodifiableList(names);
+        }
+    }
+
+    @Extension
+    public static class FavoriteListenerImpl extends FavoriteListener {
+        @Override
+        public void onAddFavourite(Item item, User user) {
+            CACHE.invalidate(user.getId());
+        }
+
+        @Override
+        public void onRemoveFavourite(Item item, User user) {
+            CACHE.invalidate(user.getId());
+        }
+    }
+
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onStarted(Run<?, ?> run, TaskListener listener) {
+            invalidate(run.getParent());
+        }
+
+        @Override
+        public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+            invalidate(run.getParent());
+        }
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            invalidate(run.getParent());
+        }
+    }
+
+    @Extension
+    public static class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onUpdated(Item item) {
+            invalidate(item);
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            CACHE.invalidateAll();
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            CACHE.invalidateAll();
+        }
+    }
+
+    /**
+     * Cards show the user's permissions, which may change with the configuration of Jenkins or of an item.
+     */
+    @Extension
+    public static class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Jenkins || o instanceof ItemGroup) {
+                // folder permissions are inherited by its items
+                CACHE.invalidateAll();
+            } else if (o instanceof Item) {
+                invalidate((Item) o);
+            }
+        }
+    }
+}
@@ -2,7 +2,10 @@ package io.jenkins.blueocean.service.embedded.rest;
 
 import com.cloudbees.hudson.plugins.folder.AbstractFolder;
 import hudson.model.Item;
+import hudson.model.User;
 import hudson.plugins.favorite.Favorites;
+import io.jenkins.blueocean.commons.ServiceException;
+import io.jenkins.blueocean.commons.stapler.SerializedBean;
 import io.jenkins.blueocean.rest.Reachable;
 import io.jenkins.blueocean.rest.Utils;
 import io.jenkins.blueocean.rest.hal.Link;
@@ -10,9 +13,11 @@ import io.jenkins.blueocean.rest.model.BlueFavorite;
 import io.jenkins.blueocean.rest.model.BlueFavoriteContainer;
 import io.jenkins.blueocean.rest.pageable.PagedResponse;
 import io.jenkins.blueocean.service.embedded.util.FavoriteUtil;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import javax.annotation.Nonnull;
 import javax.servlet.http.HttpServletResponse;
 import jenkins.model.Jenkins;
 import org.apache.commons.lang.StringUtils;
@@ -65,8 +70,27 @@ public class FavoriteContainerImpl extends BlueFavoriteContainer {
         return iterator(start, limit);
     }
 
+    /**
+     * The current user's favorites are served from the {@link FavoriteCardCache} when requested without {@code tree}
+     * or {@code depth} parameters, as the dashboard does.
+     */
     @Override
     public Iterator<BlueFavorite> iterator(int start, int limit) {
+        StaplerRequest request = Stapler.getCurrentRequest();
+        User current = User.current();
+        if (request != null && request.getParameter("tree") == null && request.getParameter("depth") == null
+            && current != null && current.getId().equals(user.user.getId())) {
+            try {
+                List<BlueFavorite> cards = new ArrayList<>();
+                for (String card : FavoriteCardCache.getCards(current, start, limit)) {
+                    cards.add(new CachedFavorite(card));
+                }
+                return cards.iterator();
+            } catch (IOException e) {
+                throw new ServiceException.UnexpectedErrorException("Failed to serialize the favorites of " + current.getId(), e);
+            }
+        }
+
         List<BlueFavorite> favorites = new ArrayList<>();
 
         Iterator<Item> favoritesIterator = Favorites.getFavorites(user.user).iterator();
@@ -91,6 +115,33 @@ public class FavoriteContainerImpl extends BlueFavoriteContainer {
         return self;
     }
 
+    /**
+     * A favorite served as cached, see {@link FavoriteCardCache}.
+     */
+    private static final class CachedFavorite extends BlueFavorite implements SerializedBean {
+        private final String json;
+
+        CachedFavorite(String json) {
+            this.json = json;
+        }
+
+        @Nonnull
+        @Override
+        public String getJson() {
+            return json;
+        }
+
+        @Override
+        public Object getItem() {
+            throw new UnsupportedOperationException("Only serialized");
+        }
+
+        @Override
+        public Link getLink() {
+            throw new UnsupportedOperationException("Only serialized");
+        }
+    }
+
     /**
      * Delete all of the user's favorites.
      */
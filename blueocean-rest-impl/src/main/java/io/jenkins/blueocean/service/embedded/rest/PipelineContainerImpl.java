@@ -1,40 +1,65 @@
 package io.jenkins.blueocean.service.embedded.rest;
 
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Collections2;
+import com.google.common.collect.Iterators;
+import hudson.Extension;
 import hudson.model.Item;
 import hudson.model.ItemGroup;
 import hudson.model.TopLevelItem;
+import hudson.model.listeners.ItemListener;
 import hudson.security.FullControlOnceLoggedInAuthorizationStrategy;
 import io.jenkins.blueocean.commons.ServiceException;
 import io.jenkins.blueocean.rest.Reachable;
+import io.jenkins.blueocean.rest.Utils;
 import io.jenkins.blueocean.rest.factory.BluePipelineFactory;
 import io.jenkins.blueocean.rest.factory.organization.OrganizationFactory;
 import io.jenkins.blueocean.rest.hal.Link;
 import io.jenkins.blueocean.rest.model.BlueOrganization;
 import io.jenkins.blueocean.rest.model.BluePipeline;
 import io.jenkins.blueocean.rest.model.BluePipelineContainer;
+import io.jenkins.blueocean.rest.model.BluePipelineFolder;
+import io.jenkins.blueocean.service.embedded.util.PermissionCache;
 import jenkins.model.Jenkins;
 import org.acegisecurity.AccessDeniedException;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest;
 
 import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Vivek Pandey
  */
 public class PipelineContainerImpl extends BluePipelineContainer {
+    /**
+     * How long the number of pipelines in a container is cached, in seconds. Default 10, 0 disables the cache.
+     */
+    static final long COUNT_CACHE_TTL = Long.getLong("blueocean.pipelines.countCache.ttl", 10);
+
+    /**
+     * Folder and pipeline counts, by item group, user and filter.
+     */
+    private static final Cache<String, int[]> COUNTS = CacheBuilder.newBuilder()
+        .maximumSize(Long.getLong("blueocean.pipelines.countCache.maxSize", 1000))
+        .expireAfterWrite(COUNT_CACHE_TTL, TimeUnit.SECONDS)
+        .build();
+
     private final @Nonnull ItemGroup itemGroup;
+    private final String itemGroupName;
     private final Link self;
 
     public PipelineContainerImpl(BlueOrganization organization, ItemGroup itemGroup, Reachable parent) {
         super(organization);
         this.itemGroup = itemGroup instanceof Jenkins ? new PermissionFilteredItemGroup((Jenkins) itemGroup) : itemGroup;
+        this.itemGroupName = itemGroup.getFullName();
         this.self = parent.getLink().rel("pipelines");
     }
     @Override
@@ -59,16 +84,79 @@ public class PipelineContainerImpl extends BluePipelineContainer {
         return getPipelines(itemGroup.getItems());
     }
 
+    /**
+     * Skips to the requested page lazily, so only the pipelines up to the end of the page get created and only those
+     * of the page get serialized. Items without a {@link BluePipeline} are skipped the same way they are left out of
+     * the page.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<BluePipeline> iterator(int start, int limit) {
+        Iterator<BluePipeline> pipelines = toPipelines(ContainerFilter.filterLazily((Collection<? extends Item>) itemGroup.getItems()).iterator());
+        Utils.skip(pipelines, start);
+        return Iterators.limit(pipelines, limit);
+    }
+
     public  Iterator<BluePipeline> getPipelines(Collection<? extends Item> items){
-        items = ContainerFilter.filter(items);
-        List<BluePipeline> pipelines = new ArrayList<>();
-        for (Item item : items) {
-            BluePipeline pipeline  = BluePipelineFactory.getPipelineInstance(item, this);
-            if(pipeline != null){
-                pipelines.add(pipeline);
+        return toPipelines(ContainerFilter.filterLazily(items).iterator());
+    }
+
+    private Iterator<BluePipeline> toPipelines(Iterator<? extends Item> items) {
+        Iterator<BluePipeline> pipelines = Iterators.transform(items, item -> BluePipelineFactory.getPipelineInstance(item, this));
+        return Iterators.filter(pipelines, Predicates.notNull());
+    }
+
+    /**
+     * Number of pipelines in this container that are, or are not, {@link BluePipelineFolder}s, as seen by the current
+     * user with the current request filter.
+     * <p>
+     * Counting needs the {@link BluePipeline} of every item, so the counts are cached for a few seconds.
+     *
+     * @param folders true to count folders, false to count the other pipelines
+     * @return number of pipelines
+     */
+    public int countPipelines(boolean folders) {
+        int[] counts = null;
+        String key = null;
+        if (COUNT_CACHE_TTL > 0) {
+            StaplerRequest request = Stapler.getCurrentRequest();
+            key = itemGroupName + '\n' + Jenkins.getAuthentication().getName() + '\n'
+                + (request == null ? null : request.getParameter("filter"));
+            counts = COUNTS.getIfPresent(key);
+        }
+        if (counts == null) {
+            counts = new int[2];
+            for (BluePipeline p : this) {
+                counts[p instanceof BluePipelineFolder ? 0 : 1]++;
             }
+            if (key != null) {
+                COUNTS.put(key, counts);
+            }
+        }
+        return folders ? counts[0] : counts[1];
+    }
+
+    @Extension
+    public static class CountInvalidator extends ItemListener {
+        @Override
+        public void onCreated(Item item) {
+            COUNTS.invalidateAll();
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            COUNTS.invalidateAll();
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            COUNTS.invalidateAll();
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            COUNTS.invalidateAll();
         }
-        return pipelines.iterator();
     }
 
     /**
@@ -93,7 +181,7 @@ public class PipelineContainerImpl extends BluePipelineContainer {
             return Collections2.filter(this.jenkins.getItems(), new Predicate<TopLevelItem>() {
                 @Override
                 public boolean apply(TopLevelItem input) {
-                    return input.hasPermission(Item.READ);
+                    return PermissionCache.hasPermission(input, Item.READ);
                 }
             });
         }
@@ -105,6 +105,10 @@ public class PipelineFolderImpl extends BluePipelineFolder {
 
     @Override
     public Integer getNumberOfFolders() {
+        BluePipelineContainer pipelines = getPipelines();
+        if (pipelines instanceof PipelineContainerImpl) {
+            return ((PipelineContainerImpl) pipelines).countPipelines(true);
+        }
         int count=0;
         for(BluePipeline p:getPipelines ()){
             if(p instanceof BluePipelineFolder){
@@ -116,6 +120,10 @@ public class PipelineFolderImpl extends BluePipelineFolder {
 
     @Override
     public Integer getNumberOfPipelines() {
+        BluePipelineContainer pipelines = getPipelines();
+        if (pipelines instanceof PipelineContainerImpl) {
+            return ((PipelineContainerImpl) pipelines).countPipelines(false);
+        }
         int count=0;
         for(BluePipeline p:getPipelines ()){
             if(!(p instanceof BluePipelineFolder)){
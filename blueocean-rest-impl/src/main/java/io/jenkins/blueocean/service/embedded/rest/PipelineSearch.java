@@ -1,11 +1,14 @@
 package io.jenkins.blueocean.service.embedded.rest;
 
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
 import hudson.Extension;
 import hudson.Plugin;
 import hudson.model.Item;
 import hudson.model.ItemGroup;
 import io.jenkins.blueocean.commons.ServiceException;
-import io.jenkins.blueocean.commons.ServiceException.UnexpectedErrorException;
 import io.jenkins.blueocean.rest.OmniSearch;
 import io.jenkins.blueocean.rest.Query;
 import io.jenkins.blueocean.rest.factory.organization.OrganizationFactory;
@@ -13,17 +16,17 @@ import io.jenkins.blueocean.rest.model.BlueOrganization;
 import io.jenkins.blueocean.rest.model.BluePipeline;
 import io.jenkins.blueocean.rest.pageable.Pageable;
 import io.jenkins.blueocean.rest.pageable.Pageables;
-import io.jenkins.blueocean.service.embedded.util.GlobMatcher;
 import jenkins.model.Jenkins;
+import org.acegisecurity.AccessDeniedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
+import javax.annotation.CheckForNull;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Returns flattened view of pipelines
@@ -50,6 +53,14 @@ public class PipelineSearch extends OmniSearch<BluePipeline>{
 
     private static final Logger logger = LoggerFactory.getLogger(PipelineSearch.class);
 
+    /**
+     * Resolved excludedFromFlattening classes, absent if not found. Expire in case a plugin providing it gets loaded.
+     */
+    private static final Cache<String, Optional<Class>> EXCLUDED_CLASSES = CacheBuilder.newBuilder()
+        .maximumSize(100)
+        .expireAfterWrite(10, TimeUnit.MINUTES)
+        .build();
+
     @Override
     public String getType() {
         return "pipeline";
@@ -57,38 +68,20 @@ public class PipelineSearch extends OmniSearch<BluePipeline>{
 
     @Override
     public Pageable<BluePipeline> search(Query q) {
-        String s = q.param(EXCLUDED_FROM_FLATTENING_PARAM);
         ItemGroup orgItemGroup = findItemGroup(q);
+        List<Class> excludeList = getExcludeList(q.param(EXCLUDED_FROM_FLATTENING_PARAM));
 
-        List<Class> excludeList=new ArrayList<>();
-        if(s!=null){
-            for(String s1:s.split(",")){
-                Class c = null;
-                try {
-                    c = Class.forName(s1);
-                } catch (ClassNotFoundException e) {
-                    try {
-                        //TODO: There should be better ways to find a class from a plugin.
-                        Plugin p = Jenkins.getInstance().getPlugin("blueocean-pipeline-api-impl");
-                        if(p != null){
-                            c = p.getWrapper().classLoader.loadClass(s1);
-                        }else{
-                            logger.error("blueocean-pipeline-api-impl plugin not found!");
-                        }
-                    } catch (ClassNotFoundException e1) {
-                        logger.error(e.getMessage(), e1);
-                    }
-                    //ignored, give other OmniSearch implementations chance, they might handle it
-                    //throw new ServiceException.BadRequestException(String.format("%s parameter has invalid value: %s", EXCLUDED_FROM_FLATTENING_PARAM, s1), e);
-                }
-                if(c!=null){
-                    excludeList.add(c);
+        String pipeline = q.param(getType());
+        Collection<Item> items = new ArrayList<>();
+        if (pipeline != null) {
+            // Only the items with a matching name, no need to walk the whole tree
+            for (String fullName : PipelineSearchIndex.find(pipeline)) {
+                Item item = getItem(fullName);
+                if (item != null && isDescendant(item, orgItemGroup) && !exclude(item.getParent(), excludeList)) {
+                    items.add(item);
                 }
             }
-        }
-
-        Collection<Item> items = new ArrayList<>();
-        if(!excludeList.isEmpty()) {
+        } else if(!excludeList.isEmpty()) {
             for (Item item : getAllItems(orgItemGroup)) {
                 if (!exclude(item.getParent(), excludeList)) {
                     items.add(item);
@@ -104,8 +97,6 @@ public class PipelineSearch extends OmniSearch<BluePipeline>{
             throw new ServiceException.UnexpectedErrorException("Could not find organization");
         }
         final Iterator<BluePipeline> pipelineIterator = new PipelineContainerImpl(org, orgItemGroup, org).getPipelines(items);
-        final List<BluePipeline> pipelines = new ArrayList<>();
-        String pipeline = q.param(getType());
         if(pipeline == null) {
             return Pageables.wrap(new Iterable<BluePipeline>() {
                 @Override
@@ -114,31 +105,69 @@ public class PipelineSearch extends OmniSearch<BluePipeline>{
                 }
             });
         }else{
-            GlobMatcher matcher = pipeline.contains("*") ? new GlobMatcher(pipeline) : null;
-            if (matcher != null) {
-                while (pipelineIterator.hasNext()) {
-                    BluePipeline p = pipelineIterator.next();
-                    String decodedName = null;
-                    try {
-                        decodedName = URLDecoder.decode(p.getFullDisplayName(), "UTF-8");
-                    } catch (UnsupportedEncodingException e) {
-                        throw new UnexpectedErrorException("Could not decode '" + p.getFullDisplayName() + "'", e);
-                    }
-                    if (matcher.matches(decodedName)) {
-                        pipelines.add(p);
-                    }
+            return Pageables.wrap(Lists.newArrayList(pipelineIterator));
+        }
+    }
+
+    private List<Class> getExcludeList(String s) {
+        List<Class> excludeList=new ArrayList<>();
+        if(s!=null){
+            for(String s1:s.split(",")){
+                Optional<Class> c = EXCLUDED_CLASSES.getIfPresent(s1);
+                if (c == null) {
+                    c = Optional.fromNullable(findClass(s1));
+                    EXCLUDED_CLASSES.put(s1, c);
+                }
+                if(c.isPresent()){
+                    excludeList.add(c.get());
                 }
+            }
+        }
+        return excludeList;
+    }
 
-            } else {
-                while (pipelineIterator.hasNext()) {
-                    BluePipeline p = pipelineIterator.next();
-                    if (pipeline.equals(p.getFullDisplayName())) {
-                        pipelines.add(p);
-                    }
+    private Class findClass(String s1) {
+        Class c = null;
+        try {
+            c = Class.forName(s1);
+        } catch (ClassNotFoundException e) {
+            try {
+                //TODO: There should be better ways to find a class from a plugin.
+                Plugin p = Jenkins.getInstance().getPlugin("blueocean-pipeline-api-impl");
+                if(p != null){
+                    c = p.getWrapper().classLoader.loadClass(s1);
+                }else{
+                    logger.error("blueocean-pipeline-api-impl plugin not found!");
                 }
+            } catch (ClassNotFoundException e1) {
+                logger.error(e.getMessage(), e1);
+            }
+            //ignored, give other OmniSearch implementations chance, they might handle it
+            //throw new ServiceException.BadRequestException(String.format("%s parameter has invalid value: %s", EXCLUDED_FROM_FLATTENING_PARAM, s1), e);
+        }
+        return c;
+    }
+
+    /**
+     * Look up the item as the current user, as walking the item groups from the root would find it.
+     */
+    private @CheckForNull Item getItem(String fullName) {
+        try {
+            return Jenkins.getInstance().getItemByFullName(fullName);
+        } catch (AccessDeniedException e) {
+            return null;
+        }
+    }
+
+    private boolean isDescendant(Item item, ItemGroup group) {
+        ItemGroup parent = item.getParent();
+        while (parent != group) {
+            if (!(parent instanceof Item)) {
+                return false;
             }
-            return Pageables.wrap(pipelines);
+            parent = ((Item) parent).getParent();
         }
+        return true;
     }
 
     private List<Item> getAllItems(ItemGroup org) {
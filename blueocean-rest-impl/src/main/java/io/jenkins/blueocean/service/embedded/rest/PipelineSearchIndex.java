@@ -0,0 +1,289 @@
+package io.jenkins.blueocean.service.embedded.rest;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import io.jenkins.blueocean.rest.factory.organization.OrganizationFactory;
+import io.jenkins.blueocean.rest.model.BluePipeline;
+import io.jenkins.blueocean.service.embedded.util.GlobMatcher;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.Nonnull;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory index of item full names and full display names, used by {@link PipelineSearch} to find the items
+ * matching a pipeline name before building any {@link BluePipeline}.
+ * <p>
+ * The display name of an item is indexed the way {@link BluePipeline#getFullDisplayName()} renders it, see
+ * {@link AbstractPipelineImpl#getFullDisplayName}. The index covers all items regardless of permissions, callers
+ * must look up the items as the current user.
+ */
+@Restricted(NoExternalUse.class)
+public final class PipelineSearchIndex {
+
+    /**
+     * Orders full names like a depth first walk of the item groups, where children are sorted by name.
+     */
+    static final Comparator<String> PATH_ORDER = new Comparator<String>() {
+        @Override
+        public int compare(String a, String b) {
+            String[] as = a.split("/");
+            String[] bs = b.split("/");
+            for (int i = 0; i < Math.min(as.length, bs.length); i++) {
+                int c = as[i].compareToIgnoreCase(bs[i]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            if (as.length != bs.length) {
+                return as.length - bs.length;
+            }
+            return a.compareTo(b);
+        }
+    };
+
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * Indexed items by full name.
+     */
+    private static final ConcurrentSkipListMap<String, Entry> BY_FULL_NAME = new ConcurrentSkipListMap<>(PATH_ORDER);
+
+    /**
+     * Full names by lower case decoded display name followed by {@link #SEPARATOR} and full name, for prefix lookups.
+     */
+    private static final ConcurrentSkipListMap<String, String> BY_DISPLAY_NAME = new ConcurrentSkipListMap<>();
+
+    private static volatile boolean loaded;
+
+    private PipelineSearchIndex() {}
+
+    /**
+     * Find the items whose pipeline full display name matches.
+     *
+     * @param pipeline exact encoded full display name, or a glob pattern matched against the decoded full display
+     *                 name, ignoring case
+     * @return full names of the matching items, in {@link #PATH_ORDER}
+     */
+    @Nonnull
+    static SortedSet<String> find(@Nonnull String pipeline) {
+        ensureLoaded();
+        SortedSet<String> fullNames = new TreeSet<>(PATH_ORDER);
+        if (pipeline.contains("*")) {
+            GlobMatcher matcher = new GlobMatcher(pipeline);
+            for (String fullName : withPrefix(globPrefix(pipeline)).values()) {
+                Entry entry = BY_FULL_NAME.get(fullName);
+                if (entry != null && matcher.matches(entry.decodedDisplayName)) {
+                    fullNames.add(fullName);
+                }
+            }
+        } else {
+            String decoded;
+            try {
+                decoded = decode(pipeline);
+            } catch (IllegalArgumentException e) {
+                // not something we have encoded
+                return fullNames;
+            }
+            for (String fullName : withPrefix(lowerCase(decoded) + SEPARATOR).values()) {
+                Entry entry = BY_FULL_NAME.get(fullName);
+                if (entry != null && pipeline.equals(entry.displayName)) {
+                    fullNames.add(fullName);
+                }
+            }
+        }
+        return fullNames;
+    }
+
+    private static NavigableMap<String, String> withPrefix(String prefix) {
+        return BY_DISPLAY_NAME.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+    }
+
+    /**
+     * @return the literal start of the glob pattern, in lower case
+     */
+    private static String globPrefix(String pattern) {
+        int end = 0;
+        while (end < pattern.length() && "*?[\\".indexOf(pattern.charAt(end)) < 0) {
+            end++;
+        }
+        return lowerCase(pattern.substring(0, end));
+    }
+
+    private static void ensureLoaded() {
+        if (!loaded) {
+            synchronized (PipelineSearchIndex.class) {
+                if (!loaded) {
+                    BY_FULL_NAME.clear();
+                    BY_DISPLAY_NAME.clear();
+                    addTree(Jenkins.getInstance());
+                    loaded = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Index, or re-index, the item and all its descendants.
+     */
+    private static synchronized void addTree(ItemGroup<?> group) {
+        try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+            if (group instanceof Item) {
+                add((Item) group);
+            }
+            for (Item item : group.getItems()) {
+                if (item instanceof ItemGroup) {
+                    addTree((ItemGroup<?>) item);
+                } else {
+                    add(item);
+                }
+            }
+        }
+    }
+
+    private static Entry add(Item item) {
+        Entry entry = new Entry(item);
+        Entry previous = BY_FULL_NAME.put(entry.fullName, entry);
+        if (previous != null) {
+            BY_DISPLAY_NAME.remove(previous.displayNameKey());
+        }
+        BY_DISPLAY_NAME.put(entry.displayNameKey(), entry.fullName);
+        return entry;
+    }
+
+    /**
+     * Drop the item with the given full name and all its descendants.
+     */
+    private static synchronized void removeTree(String fullName) {
+        String childPrefix = fullName + "/";
+        Iterator<Map.Entry<String, Entry>> it = BY_FULL_NAME.tailMap(fullName, true).entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            if (!e.getKey().equals(fullName) && !e.getKey().startsWith(childPrefix)) {
+                break;
+            }
+            BY_DISPLAY_NAME.remove(e.getValue().displayNameKey());
+            it.remove();
+        }
+    }
+
+    /**
+     * Re-index the item, and its descendants only if it is new to the index under its full name or its display name
+     * changed, as their entries are derived from both.
+     */
+    private static void update(Item item) {
+        if (!loaded) {
+            return;
+        }
+        boolean descendantsChanged;
+        synchronized (PipelineSearchIndex.class) {
+            try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+                Entry previous = BY_FULL_NAME.get(item.getFullName());
+                Entry entry = add(item);
+                descendantsChanged = item instanceof ItemGroup
+                    && (previous == null || !previous.displayName.equals(entry.displayName));
+            }
+        }
+        if (descendantsChanged) {
+            addTree((ItemGroup<?>) item);
+        }
+    }
+
+    private static String decode(String displayName) {
+        try {
+            return URLDecoder.decode(displayName, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String lowerCase(String s) {
+        return s.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static final class Entry {
+        private final String fullName;
+        /**
+         * As in {@link BluePipeline#getFullDisplayName()}
+         */
+        private final String displayName;
+        private final String decodedDisplayName;
+
+        Entry(Item item) {
+            this.fullName = item.getFullName();
+            this.displayName = AbstractPipelineImpl.getFullDisplayName(
+                OrganizationFactory.getInstance().getContainingOrg(item), item);
+            this.decodedDisplayName = decode(displayName);
+        }
+
+        String displayNameKey() {
+            return lowerCase(decodedDisplayName) + SEPARATOR + fullName;
+        }
+    }
+
+    @Extension
+    public static class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onLoaded() {
+            loaded = false;
+        }
+
+        @Override
+        public void onCreated(Item item) {
+            update(item);
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            update(item);
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            if (loaded) {
+                removeTree(item.getFullName());
+            }
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            if (loaded) {
+                removeTree(oldFullName);
+                update(item);
+            }
+        }
+    }
+
+    /**
+     * Catches every configuration change, including those without {@link ItemListener#onUpdated(Item)}, e.g. branch
+     * projects updated by indexing.
+     */
+    @Extension
+    public static class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Item) {
+                update((Item) o);
+            }
+        }
+    }
+}
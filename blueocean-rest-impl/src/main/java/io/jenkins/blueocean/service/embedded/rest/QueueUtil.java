@@ -30,6 +30,27 @@ public class QueueUtil {
         return null;
     }
 
+    /**
+     * Computes the expected build number of a queued item, without resolving the pipeline or building
+     * any {@link BlueQueueItem}. Uses the same estimate as {@link #getQueuedItems(BlueOrganization, Job)}.
+     *
+     * @param queueId of the item
+     * @param job the item is queued for
+     * @return the expected build number or -1 if the item is not in the queue for this job
+     */
+    public static int getExpectedBuildNumber(final long queueId, @Nonnull Job job) {
+        if (!(job instanceof BuildableItem)) {
+            return -1;
+        }
+        List<hudson.model.Queue.Item> items = Jenkins.getInstance().getQueue().getItems((BuildableItem) job);
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getId() == queueId) {
+                return items.size() == 1 ? job.getNextBuildNumber() : job.getNextBuildNumber() + i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Find a corresponding run for the queueId
      * @param job to search
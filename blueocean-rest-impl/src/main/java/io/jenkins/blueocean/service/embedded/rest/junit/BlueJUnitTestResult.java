@@ -2,6 +2,7 @@ package io.jenkins.blueocean.service.embedded.rest.junit;
 
 import com.google.common.collect.Iterables;
 import hudson.Extension;
+import hudson.Util;
 import hudson.model.Run;
 import hudson.tasks.junit.CaseResult;
 import hudson.tasks.junit.TestResultAction;
@@ -14,33 +15,71 @@ import org.apache.commons.lang.StringUtils;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
+import javax.annotation.CheckForNull;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
 
 /**
+ * Test of a running build, backed by its {@link CaseResult}, or of a completed build, backed by its
+ * {@link JUnitTestIndex} entry.
+ *
  * TODO: move to junit plugin
  */
 @Restricted(NoExternalUse.class)
 public class BlueJUnitTestResult extends BlueTestResult {
 
-    protected final CaseResult testResult;
+    /** Loaded on demand for indexed tests */
+    protected CaseResult testResult;
+
+    private final JUnitTestIndex index;
+    private final int position;
+    private final Run<?, ?> run;
 
     public BlueJUnitTestResult(CaseResult testResult, Link parent) {
         super(parent);
         this.testResult = testResult;
+        this.index = null;
+        this.position = -1;
+        this.run = null;
+    }
+
+    BlueJUnitTestResult(JUnitTestIndex index, int position, Run<?, ?> run, Link parent) {
+        super(parent);
+        this.index = index;
+        this.position = position;
+        this.run = run;
+    }
+
+    private CaseResult getCaseResult() {
+        if (testResult == null) {
+            testResult = index.getCaseResult(position, run);
+            if (testResult == null) {
+                throw new NotFoundException("Test results are gone");
+            }
+        }
+        return testResult;
     }
 
     @Override
     public String getName() {
+        return index != null ? index.getName(position) : getName(testResult);
+    }
+
+    static String getName(CaseResult testResult) {
         return testResult.getDisplayName() + " – " + testResult.getClassName();
     }
 
     @Override
     public Status getStatus() {
+        return index != null ? index.getStatus(position) : toStatus(testResult.getStatus());
+    }
+
+    static Status toStatus(CaseResult.Status caseStatus) {
         Status status;
-        switch (testResult.getStatus()) {
+        switch (caseStatus) {
             case SKIPPED:
                 status = Status.SKIPPED;
                 break;
@@ -61,8 +100,12 @@ public class BlueJUnitTestResult extends BlueTestResult {
 
     @Override
     public State getTestState() {
+        return index != null ? index.getState(position) : toState(testResult.getStatus());
+    }
+
+    static State toState(CaseResult.Status caseStatus) {
         State state;
-        switch (testResult.getStatus()) {
+        switch (caseStatus) {
             case REGRESSION:
                 state = State.REGRESSION;
                 break;
@@ -77,26 +120,34 @@ public class BlueJUnitTestResult extends BlueTestResult {
 
     @Override
     public float getDuration() {
-        return testResult.getDuration();
+        return index != null ? index.getDuration(position) : testResult.getDuration();
     }
 
     @Override
     public String getErrorStackTrace() {
-        return testResult.getErrorStackTrace();
+        return index != null ? index.getErrorStackTrace(position) : testResult.getErrorStackTrace();
     }
 
     @Override
     public String getErrorDetails() {
-        return testResult.getErrorDetails();
+        return index != null ? index.getErrorDetails(position) : testResult.getErrorDetails();
     }
 
     @Override
     protected String getUniqueId() {
+        return index != null ? index.getId(position) : getUniqueId(testResult);
+    }
+
+    static String getUniqueId(CaseResult testResult) {
         return testResult.getClassName() + ":" + testResult.getId();
     }
 
     @Override
     public int getAge() {
+        return index != null ? index.getAge(position) : getAge(testResult);
+    }
+
+    static int getAge(CaseResult testResult) {
         int age;
         if (!testResult.isPassed() && testResult.getRun() != null) {
             age = testResult.getRun().getNumber() - testResult.getFailedSince() + 1;
@@ -108,12 +159,12 @@ public class BlueJUnitTestResult extends BlueTestResult {
 
     @Override
     public String getStdErr() {
-        return serveLog(testResult.getStderr());
+        return serveLog(getCaseResult().getStderr());
     }
 
     @Override
     public String getStdOut() {
-        return serveLog(testResult.getStdout());
+        return serveLog(getCaseResult().getStdout());
     }
 
     private String serveLog(String log) {
@@ -126,6 +177,9 @@ public class BlueJUnitTestResult extends BlueTestResult {
     @Override
     public boolean hasStdLog()
     {
+        if (index != null) {
+            return index.hasStdLog(position);
+        }
         return StringUtils.isNotBlank( testResult.getStderr() ) //
             || StringUtils.isNotBlank( testResult.getStdout() );
     }
@@ -138,6 +192,17 @@ public class BlueJUnitTestResult extends BlueTestResult {
             if (action == null) {
                 return Result.notFound();
             }
+            JUnitTestIndex index = JUnitTestIndex.get(run);
+            if (index != null) {
+                if (index.size() == 0) {
+                    return Result.notFound();
+                }
+                Link link = parent.getLink();
+                Iterable<BlueTestResult> results = () -> IntStream.range(0, index.size())
+                    .<BlueTestResult>mapToObj(i -> new BlueJUnitTestResult(index, i, run, link))
+                    .iterator();
+                return Result.of(results, index.getSummary(link));
+            }
             List<CaseResult> testsToTransform = new ArrayList<>();
             testsToTransform.addAll(action.getFailedTests());
             testsToTransform.addAll(action.getSkippedTests());
@@ -145,6 +210,21 @@ public class BlueJUnitTestResult extends BlueTestResult {
             return Result.of(Iterables.transform(testsToTransform, //
                                                  input ->  new BlueJUnitTestResult(input, parent.getLink())));
         }
+
+        @CheckForNull
+        @Override
+        public BlueTestResult getBlueTestResult(Run<?, ?> run, Reachable parent, String id) {
+            JUnitTestIndex index = JUnitTestIndex.get(run);
+            if (index == null) {
+                return super.getBlueTestResult(run, parent, id);
+            }
+            String prefix = Util.rawEncode(BlueJUnitTestResult.class.getName()) + ":";
+            if (!id.startsWith(prefix)) {
+                return null;
+            }
+            int i = index.indexOf(id.substring(prefix.length()));
+            return i < 0 ? null : new BlueJUnitTestResult(index, i, run, parent.getLink());
+        }
     }
 
 }
@@ -0,0 +1,477 @@
+package io.jenkins.blueocean.service.embedded.rest.junit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+import hudson.tasks.junit.CaseResult;
+import hudson.tasks.junit.TestResultAction;
+import io.jenkins.blueocean.rest.hal.Link;
+import io.jenkins.blueocean.rest.model.BlueTestResult;
+import io.jenkins.blueocean.rest.model.BlueTestResult.State;
+import io.jenkins.blueocean.rest.model.BlueTestResult.Status;
+import io.jenkins.blueocean.rest.model.BlueTestSummary;
+import jenkins.util.Timer;
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Everything the test tab shows of the JUnit results of a completed run, so that listing, filtering, paging and
+ * looking up tests does not load the {@link TestResultAction} and all its {@link CaseResult}s. Only standard output
+ * and error still need the {@link CaseResult}, see {@link #getCaseResult(int, Run)}.
+ * <p>
+ * Tests are ordered failed, skipped then passed, like {@link TestResultAction#getFailedTests()},
+ * {@link TestResultAction#getSkippedTests()} and {@link TestResultAction#getPassedTests()}, and kept in primitive
+ * columns. The index is built once, when the run is finalized, and written in a compact binary form to
+ * {@value #FILE_NAME} in the build directory, as tens of thousands of tests are too many for XStream.
+ * Runs that completed before are indexed on first access.
+ * <p>
+ * State and age are derived from the index of the previous run rather than from the JUnit history, which loads the
+ * results of previous runs, so filtering on them is a lookup.
+ */
+@Restricted(NoExternalUse.class)
+public final class JUnitTestIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(JUnitTestIndex.class.getName());
+
+    static final String FILE_NAME = "blueocean-junit-index.bin";
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Status[] STATUSES = Status.values();
+    private static final State[] STATES = State.values();
+
+    /**
+     * Maximum number of tests, across all indexes, kept in memory.
+     */
+    private static final long CACHE_MAX_TESTS = Long.getLong("blueocean.tests.indexCacheMaxTests", 500000);
+
+    private static final Cache<String, JUnitTestIndex> CACHE = CacheBuilder.newBuilder()
+        .maximumWeight(CACHE_MAX_TESTS)
+        .weigher((String key, JUnitTestIndex index) -> Math.max(1, index.size()))
+        .build();
+
+    /** {@link BlueJUnitTestResult#getUniqueId()} of each test */
+    private final String[] ids;
+    private final String[] names;
+    private final byte[] statuses;
+    private final byte[] states;
+    private final int[] ages;
+    private final float[] durations;
+    private final String[] errorDetails;
+    private final String[] errorStackTraces;
+    private final boolean[] stdLogs;
+
+    /** Position by {@link Util#rawEncode(String) encoded} id, as in {@link BlueTestResult#getId()} */
+    private final Map<String, Integer> indexById;
+
+    private JUnitTestIndex(int size) {
+        ids = new String[size];
+        names = new String[size];
+        statuses = new byte[size];
+        states = new byte[size];
+        ages = new int[size];
+        durations = new float[size];
+        errorDetails = new String[size];
+        errorStackTraces = new String[size];
+        stdLogs = new boolean[size];
+        indexById = new HashMap<>(size * 2);
+    }
+
+    /**
+     * @param run completed run
+     * @return index of the JUnit results of the run, or {@code null} if it is still building or has no JUnit results
+     */
+    @CheckForNull
+    public static JUnitTestIndex get(@Nonnull Run<?, ?> run) {
+        if (run.isBuilding() || run.getAction(TestResultAction.class) == null) {
+            return null;
+        }
+        try {
+            return CACHE.get(key(run), () -> loadOrBuild(run));
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.WARNING, "Could not index the test results of " + run, e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * @return cache key of the run, a run of another job may get the same id once this job is deleted or renamed
+     */
+    private static String key(Run<?, ?> run) {
+        return run.getExternalizableId() + '@' + run.getStartTimeInMillis();
+    }
+
+    private static JUnitTestIndex loadOrBuild(Run<?, ?> run) throws IOException {
+        File file = new File(run.getRootDir(), FILE_NAME);
+        if (file.exists()) {
+            try {
+                JUnitTestIndex index = read(file);
+                if (index != null) {
+                    return index;
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to read " + file + ", indexing the tests again", e);
+            }
+        }
+        TestResultAction action = run.getAction(TestResultAction.class);
+        if (action == null) {
+            throw new IOException("No test results");
+        }
+        JUnitTestIndex index = build(action, run, previous(run));
+        try {
+            index.write(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write " + file, e);
+        }
+        return index;
+    }
+
+    /**
+     * The previous run with JUnit results, as {@link CaseResult#getPreviousResult()} uses, if it is indexed already.
+     * That is the case when every run is indexed as it completes, other runs fall back to the JUnit history rather than
+     * indexing all previous runs.
+     */
+    @CheckForNull
+    private static Previous previous(Run<?, ?> run) {
+        Run<?, ?> previous = run.getPreviousBuild();
+        while (previous != null && previous.getAction(TestResultAction.class) == null) {
+            previous = previous.getPreviousBuild();
+        }
+        if (previous == null) {
+            return new Previous(null, 0);
+        }
+        boolean indexed = CACHE.getIfPresent(key(previous)) != null
+            || new File(previous.getRootDir(), FILE_NAME).exists();
+        if (previous.isBuilding() || !indexed) {
+            return null;
+        }
+        JUnitTestIndex index = get(previous);
+        return index == null ? null : new Previous(index, previous.getNumber());
+    }
+
+    /**
+     * @param previous index of the previous run to derive the state and age of each test from, {@code null} to get
+     * them from the JUnit history
+     */
+    @Nonnull
+    static JUnitTestIndex build(@Nonnull TestResultAction action, @Nonnull Run<?, ?> run,
+                                @CheckForNull Previous previous) {
+        List<CaseResult> cases = new ArrayList<>();
+        cases.addAll(action.getFailedTests());
+        cases.addAll(action.getSkippedTests());
+        cases.addAll(action.getPassedTests());
+        JUnitTestIndex index = new JUnitTestIndex(cases.size());
+        for (int i = 0; i < cases.size(); i++) {
+            CaseResult c = cases.get(i);
+            index.ids[i] = BlueJUnitTestResult.getUniqueId(c);
+            index.names[i] = BlueJUnitTestResult.getName(c);
+            if (previous == null) {
+                CaseResult.Status status = c.getStatus();
+                index.statuses[i] = (byte) BlueJUnitTestResult.toStatus(status).ordinal();
+                index.states[i] = (byte) BlueJUnitTestResult.toState(status).ordinal();
+                index.ages[i] = BlueJUnitTestResult.getAge(c);
+            } else {
+                previous.derive(index, i, c, run.getNumber());
+            }
+            index.durations[i] = c.getDuration();
+            index.errorDetails[i] = c.getErrorDetails();
+            index.errorStackTraces[i] = c.getErrorStackTrace();
+            index.stdLogs[i] = StringUtils.isNotBlank(c.getStderr()) || StringUtils.isNotBlank(c.getStdout());
+            index.putId(i);
+        }
+        return index;
+    }
+
+    private void putId(int i) {
+        String encoded = Util.rawEncode(ids[i]);
+        // share the id when there is nothing to encode, as is usually the case
+        indexById.putIfAbsent(encoded.equals(ids[i]) ? ids[i] : encoded, i);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @param encodedId {@link BlueJUnitTestResult#getUniqueId()} of the test, encoded as in
+     * {@link BlueTestResult#getId()}
+     * @return position of the test, or -1
+     */
+    public int indexOf(@Nonnull String encodedId) {
+        Integer i = indexById.get(encodedId);
+        return i == null ? -1 : i;
+    }
+
+    @Nonnull
+    public String getId(int i) {
+        return ids[i];
+    }
+
+    @Nonnull
+    public String getName(int i) {
+        return names[i];
+    }
+
+    @Nonnull
+    public Status getStatus(int i) {
+        return STATUSES[statuses[i]];
+    }
+
+    @Nonnull
+    public State getState(int i) {
+        return STATES[states[i]];
+    }
+
+    public int getAge(int i) {
+        return ages[i];
+    }
+
+    public float getDuration(int i) {
+        return durations[i];
+    }
+
+    @CheckForNull
+    public String getErrorDetails(int i) {
+        return errorDetails[i];
+    }
+
+    @CheckForNull
+    public String getErrorStackTrace(int i) {
+        return errorStackTraces[i];
+    }
+
+    public boolean hasStdLog(int i) {
+        return stdLogs[i];
+    }
+
+    /**
+     * Same counts as {@link io.jenkins.blueocean.rest.factory.BlueTestResultFactory.Result#of(Iterable)}, without
+     * going through the tests.
+     */
+    @Nonnull
+    public BlueTestSummary getSummary(Link parent) {
+        long skipped = 0;
+        long passed = 0;
+        long failed = 0;
+        long regressions = 0;
+        long existingFailed = 0;
+        long fixed = 0;
+        for (int i = 0; i < size(); i++) {
+            switch (getStatus(i)) {
+                case SKIPPED:
+                    skipped++;
+                    break;
+                case PASSED:
+                    passed++;
+                    if (getState(i) == State.FIXED) {
+                        fixed++;
+                    }
+                    break;
+                case FAILED:
+                    failed++;
+                    if (getState(i) == State.REGRESSION) {
+                        regressions++;
+                    } else {
+                        existingFailed++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return new BlueTestSummary(passed, failed, fixed, existingFailed, regressions, skipped, size(), parent);
+    }
+
+    /**
+     * Loads the test results of the run, only use it for what is not indexed.
+     *
+     * @return the case result of test {@code i}, or {@code null} if the results are gone
+     */
+    @CheckForNull
+    public CaseResult getCaseResult(int i, @Nonnull Run<?, ?> run) {
+        TestResultAction action = run.getAction(TestResultAction.class);
+        if (action == null) {
+            return null;
+        }
+        List<CaseResult> bucket;
+        switch (getStatus(i)) {
+            case FAILED:
+                bucket = action.getFailedTests();
+                break;
+            case SKIPPED:
+                bucket = action.getSkippedTests();
+                break;
+            default:
+                bucket = action.getPassedTests();
+                break;
+        }
+        for (CaseResult c : bucket) {
+            if (ids[i].equals(BlueJUnitTestResult.getUniqueId(c))) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    private void write(File file) throws IOException {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tmp))))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(size());
+            for (int i = 0; i < size(); i++) {
+                writeString(out, ids[i]);
+                writeString(out, names[i]);
+                out.writeByte(statuses[i]);
+                out.writeByte(states[i]);
+                out.writeInt(ages[i]);
+                out.writeFloat(durations[i]);
+                writeString(out, errorDetails[i]);
+                writeString(out, errorStackTraces[i]);
+                out.writeBoolean(stdLogs[i]);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return the index, or {@code null} if it was written in another format
+     */
+    @CheckForNull
+    private static JUnitTestIndex read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            JUnitTestIndex index = new JUnitTestIndex(in.readInt());
+            for (int i = 0; i < index.size(); i++) {
+                index.ids[i] = readString(in);
+                index.names[i] = readString(in);
+                index.statuses[i] = in.readByte();
+                index.states[i] = in.readByte();
+                index.ages[i] = in.readInt();
+                index.durations[i] = in.readFloat();
+                index.errorDetails[i] = readString(in);
+                index.errorStackTraces[i] = readString(in);
+                index.stdLogs[i] = in.readBoolean();
+                index.putId(i);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Unlike {@link DataOutputStream#writeUTF(String)}, allows {@code null} and strings longer than 64k, e.g. stack
+     * traces.
+     */
+    private static void writeString(DataOutputStream out, @CheckForNull String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @CheckForNull
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Index of the previous run with JUnit results, none if {@link #index} is {@code null}.
+     */
+    static final class Previous {
+        private final JUnitTestIndex index;
+        private final int number;
+
+        Previous(@CheckForNull JUnitTestIndex index, int number) {
+            this.index = index;
+            this.number = number;
+        }
+
+        /**
+         * Same status, state and age as {@link CaseResult#getStatus()} and {@link CaseResult#getFailedSince()} give,
+         * looking up the test in the previous index rather than loading previous results.
+         */
+        void derive(JUnitTestIndex target, int i, CaseResult c, int runNumber) {
+            int p = index == null ? -1 : index.indexOf(Util.rawEncode(target.ids[i]));
+            boolean previousPassed = p >= 0 && index.getStatus(p) == Status.PASSED;
+            Status status;
+            State state = State.UNKNOWN;
+            int age = 0;
+            if (c.isSkipped()) {
+                status = Status.SKIPPED;
+                // skipped tests never failed, so their failedSince is 0
+                age = runNumber + 1;
+            } else if (c.isPassed()) {
+                status = Status.PASSED;
+                if (p >= 0 && !previousPassed) {
+                    state = State.FIXED;
+                }
+            } else {
+                status = Status.FAILED;
+                if (p < 0 || previousPassed) {
+                    // failing since this run
+                    age = 1;
+                    if (previousPassed) {
+                        state = State.REGRESSION;
+                    }
+                } else {
+                    age = runNumber - number + index.getAge(p);
+                }
+            }
+            target.statuses[i] = (byte) status.ordinal();
+            target.states[i] = (byte) state.ordinal();
+            target.ages[i] = age;
+        }
+    }
+
+    /**
+     * Indexes the tests as soon as the run is complete, in the background as large results take a while to load.
+     */
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onFinalized(Run<?, ?> run) {
+            if (run.getAction(TestResultAction.class) != null) {
+                Timer.get().execute(() -> get(run));
+            }
+        }
+    }
+}
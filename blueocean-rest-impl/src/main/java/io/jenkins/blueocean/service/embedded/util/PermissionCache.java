@@ -0,0 +1,105 @@
+package io.jenkins.blueocean.service.embedded.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.AccessControlled;
+import hudson.security.Permission;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches permission checks of the current user, so that serializing many Blue models evaluates each
+ * (object, permission) pair once.
+ * <p>
+ * Results are kept for the duration of the current request. They can also be kept for a few seconds across
+ * requests, per user, by setting {@code blueocean.permissions.cache.ttl}. That cache is dropped whenever Jenkins or
+ * an item configuration is saved, which includes changes to the security realm and authorization strategy.
+ */
+@Restricted(NoExternalUse.class)
+public final class PermissionCache {
+
+    /**
+     * How long permission checks of an item are cached across requests, in seconds. Default 0, disabled.
+     */
+    static final long PERMISSION_CACHE_TTL = Long.getLong("blueocean.permissions.cache.ttl", 0);
+
+    private static final String REQUEST_ATTRIBUTE = PermissionCache.class.getName();
+
+    private static final Cache<List<String>, Boolean> CACHE = CacheBuilder.newBuilder()
+        .maximumSize(Long.getLong("blueocean.permissions.cache.maxSize", 10000))
+        .expireAfterWrite(PERMISSION_CACHE_TTL, TimeUnit.SECONDS)
+        .build();
+
+    private PermissionCache() {}
+
+    /**
+     * Same as {@link AccessControlled#hasPermission(Permission)}, cached.
+     */
+    public static boolean hasPermission(@Nonnull AccessControlled owner, @Nonnull Permission permission) {
+        String user = Jenkins.getAuthentication().getName();
+        Map<List<Object>, Boolean> requestCache = requestCache();
+        List<Object> requestKey = null;
+        if (requestCache != null) {
+            requestKey = Arrays.<Object>asList(user, owner, permission);
+            Boolean allowed = requestCache.get(requestKey);
+            if (allowed != null) {
+                return allowed;
+            }
+        }
+        List<String> key = null;
+        Boolean allowed = null;
+        if (PERMISSION_CACHE_TTL > 0 && owner instanceof Item) {
+            key = Arrays.asList(user, ((Item) owner).getFullName(), permission.getId());
+            allowed = CACHE.getIfPresent(key);
+        }
+        if (allowed == null) {
+            allowed = owner.hasPermission(permission);
+            if (key != null) {
+                CACHE.put(key, allowed);
+            }
+        }
+        if (requestKey != null) {
+            requestCache.put(requestKey, allowed);
+        }
+        return allowed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<List<Object>, Boolean> requestCache() {
+        StaplerRequest request = Stapler.getCurrentRequest();
+        if (request == null) {
+            return null;
+        }
+        Map<List<Object>, Boolean> cache = (Map<List<Object>, Boolean>) request.getAttribute(REQUEST_ATTRIBUTE);
+        if (cache == null) {
+            cache = new ConcurrentHashMap<>();
+            request.setAttribute(REQUEST_ATTRIBUTE, cache);
+        }
+        return cache;
+    }
+
+    @Extension
+    public static class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Jenkins || o instanceof Item) {
+                CACHE.invalidateAll();
+            }
+        }
+    }
+}
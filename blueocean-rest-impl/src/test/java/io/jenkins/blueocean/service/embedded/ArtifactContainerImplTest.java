@@ -5,6 +5,11 @@ import hudson.model.FreeStyleProject;
 import hudson.model.Run;
 import hudson.tasks.ArtifactArchiver;
 import hudson.tasks.Shell;
+import io.jenkins.blueocean.rest.Reachable;
+import io.jenkins.blueocean.rest.factory.BlueArtifactFactory;
+import io.jenkins.blueocean.rest.hal.Link;
+import io.jenkins.blueocean.rest.model.BlueArtifact;
+import io.jenkins.blueocean.service.embedded.rest.ArtifactContainerImpl;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -30,8 +35,66 @@ public class ArtifactContainerImplTest extends BaseTest {
         Assert.assertEquals(0, ((Map) artifacts.get(0)).get("size"));
         Assert.assertEquals("test/me/out/0.txt", ((Map) artifacts.get(0)).get("path"));
         Assert.assertEquals("/job/artifactTest/1/artifact/test/me/out/0.txt", ((Map) artifacts.get(0)).get("url"));
+
+        // a cursor page is the same as the offset page following it
+        String url = "/organizations/jenkins/pipelines/"+JOB_NAME+"/runs/"+r.getId()+"/artifacts/";
+        List byOffset = request().get(url + "?start=50&limit=10").build(List.class);
+        String after = (String) ((Map) request().get(url + "?start=49&limit=1").build(List.class).get(0)).get("path");
+        List byCursor = request().get(url + "?after=" + after + "&limit=10").build(List.class);
+        Assert.assertEquals(10, byCursor.size());
+        Assert.assertEquals(byOffset, byCursor);
      }
 
+    @Test
+    public void testArtifactsByPath() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject(JOB_NAME);
+        p.getBuildersList().add(new Shell("#!/bin/bash\nmkdir -p a/b c; touch a/1.txt a/b/2.txt c/3.txt 'c/4 5.txt'"));
+        p.getPublishersList().add(new ArtifactArchiver("**/*"));
+        Run r = j.buildAndAssertSuccess(p);
+
+        List artifacts = request().get("/organizations/jenkins/pipelines/"+JOB_NAME+"/runs/"+r.getId()+"/artifacts/?path=a/").build(List.class);
+        Assert.assertEquals(2, artifacts.size());
+        Assert.assertEquals("a/1.txt", ((Map) artifacts.get(0)).get("path"));
+        Assert.assertEquals("a/b/2.txt", ((Map) artifacts.get(1)).get("path"));
+
+        artifacts = request().get("/organizations/jenkins/pipelines/"+JOB_NAME+"/runs/"+r.getId()+"/artifacts/?after=a/1.txt").build(List.class);
+        Assert.assertEquals(3, artifacts.size());
+        Assert.assertEquals("a/b/2.txt", ((Map) artifacts.get(0)).get("path"));
+        Assert.assertEquals("c/3.txt", ((Map) artifacts.get(1)).get("path"));
+        Assert.assertEquals("c/4 5.txt", ((Map) artifacts.get(2)).get("path"));
+
+        artifacts = request().get("/organizations/jenkins/pipelines/"+JOB_NAME+"/runs/"+r.getId()+"/artifacts/?path=a/&after=a/1.txt").build(List.class);
+        Assert.assertEquals(1, artifacts.size());
+        Assert.assertEquals("a/b/2.txt", ((Map) artifacts.get(0)).get("path"));
+
+        // not an artifact of the listing
+        Assert.assertTrue(request().get("/organizations/jenkins/pipelines/"+JOB_NAME+"/runs/"+r.getId()+"/artifacts/?after=a/0.txt").build(List.class).isEmpty());
+        Assert.assertTrue(request().get("/organizations/jenkins/pipelines/"+JOB_NAME+"/runs/"+r.getId()+"/artifacts/?after=a/b").build(List.class).isEmpty());
+        Assert.assertTrue(request().get("/organizations/jenkins/pipelines/"+JOB_NAME+"/runs/"+r.getId()+"/artifacts/?path=c/&after=a/1.txt").build(List.class).isEmpty());
+
+        Reachable parent = new Reachable() {
+            @Override
+            public Link getLink() {
+                return new Link("/organizations/jenkins/pipelines/" + JOB_NAME + "/runs/" + r.getId() + "/");
+            }
+        };
+        Assert.assertEquals(4, BlueArtifactFactory.countAll(r, parent));
+
+        ArtifactContainerImpl container = new ArtifactContainerImpl(r, parent);
+        BlueArtifact last = null;
+        for (BlueArtifact artifact : container) {
+            last = artifact;
+        }
+        Assert.assertNotNull(last);
+        Assert.assertEquals("c/4 5.txt", last.getPath());
+        BlueArtifact found = container.get(last.getId());
+        Assert.assertNotNull(found);
+        Assert.assertEquals(last.getPath(), found.getPath());
+        Assert.assertEquals(last.getUrl(), found.getUrl());
+        Assert.assertEquals("/job/artifactTest/1/artifact/c/4%205.txt", found.getUrl());
+        Assert.assertNull(container.get(last.getId().replace("c%2F", "..%2F")));
+    }
+
     // TODO: needs viveks input
     @Test @Ignore
     public void testArtifact() throws Exception {
@@ -1,16 +1,24 @@
 package io.jenkins.blueocean.service.embedded;
 
 import com.google.common.collect.ImmutableMap;
+import hudson.model.Item;
 import hudson.model.Project;
 import hudson.model.User;
 import hudson.plugins.favorite.Favorites;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import io.jenkins.blueocean.service.embedded.rest.FavoriteCardCache;
+import jenkins.model.Jenkins;
 import org.junit.Test;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 /**
  * @author cliffmeyers
@@ -55,6 +63,51 @@ public class FavoritesApiTest extends BaseTest {
         assertEquals(1, favorites.size());
     }
 
+    @Test
+    public void testFavoriteCardCache() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        MockAuthorizationStrategy authorizationStrategy = new MockAuthorizationStrategy()
+            .grant(Jenkins.READ).everywhere().to("alice")
+            .grant(Item.READ).onItems(j.createFreeStyleProject("job1"), j.createFreeStyleProject("job2")).to("alice");
+        j.jenkins.setAuthorizationStrategy(authorizationStrategy);
+        User user = User.get("alice");
+        Favorites.addFavorite(user, j.jenkins.getItemByFullName("job1"));
+        Favorites.addFavorite(user, j.jenkins.getItemByFullName("job2"));
+
+        List<Map> favorites = getFavorites("alice", "");
+        assertEquals(2, favorites.size());
+        // the depth parameter keeps the cache out
+        assertEquals(getFavorites("alice", "?depth=0"), favorites);
+        assertEquals(favorites, getFavorites("alice", ""));
+
+        try (ACLContext ignored = ACL.as(user.impersonate())) {
+            List<String> cards = FavoriteCardCache.getCards(user, 0, 100);
+            assertEquals(2, cards.size());
+            assertSame(cards.get(0), FavoriteCardCache.getCards(user, 0, 100).get(0));
+            assertEquals(Collections.singletonList(cards.get(1)), FavoriteCardCache.getCards(user, 1, 100));
+        }
+
+        new RequestBuilder(baseUrl)
+            .put("/organizations/jenkins/pipelines/job1/favorite/")
+            .auth("alice", "alice")
+            .data(ImmutableMap.of("favorite", false))
+            .build(Map.class);
+        favorites = getFavorites("alice", "");
+        assertEquals(1, favorites.size());
+        assertEquals(getFavorites("alice", "?depth=0"), favorites);
+
+        // e.g. saved from the global security configuration
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy().grant(Jenkins.READ).everywhere().to("alice"));
+        j.jenkins.save();
+        assertEquals(0, getFavorites("alice", "").size());
+    }
+
+    private List<Map> getFavorites(String username, String query) {
+        return new RequestBuilder(baseUrl)
+            .get("/users/" + username + "/favorites/" + query)
+            .auth(username, username)
+            .build(List.class);
+    }
 
     @Test
     public void deleteUserFavoritesUnauthenticatedTest() {
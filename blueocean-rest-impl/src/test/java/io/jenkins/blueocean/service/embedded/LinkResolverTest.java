@@ -64,4 +64,15 @@ public class LinkResolverTest extends BaseTest {
         Assert.assertEquals("/blue/rest/organizations/jenkins/pipelines/folder1/pipelines/folder2/pipelines/folder3/pipelines/test3/runs/"+r.getId()+"/",LinkResolver.resolveLink(r).getHref());
     }
 
+    @Test
+    public void linkUpdatedOnRenameTest() throws IOException, ExecutionException, InterruptedException {
+        MockFolder folder1 = j.createFolder("folder1");
+        Project p1 = folder1.createProject(FreeStyleProject.class, "test1");
+        Run r = (Run) p1.scheduleBuild2(0).get();
+        Assert.assertEquals("/blue/rest/organizations/jenkins/pipelines/folder1/pipelines/test1/runs/"+r.getId()+"/",LinkResolver.resolveLink(r).getHref());
+
+        p1.renameTo("test2");
+        Assert.assertEquals("/blue/rest/organizations/jenkins/pipelines/folder1/pipelines/test2/",LinkResolver.resolveLink(p1).getHref());
+        Assert.assertEquals("/blue/rest/organizations/jenkins/pipelines/folder1/pipelines/test2/runs/"+r.getId()+"/",LinkResolver.resolveLink(r).getHref());
+    }
 }
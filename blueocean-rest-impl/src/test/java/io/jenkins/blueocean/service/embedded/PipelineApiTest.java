@@ -9,6 +9,7 @@ import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
 import hudson.model.BuildListener;
 import hudson.model.Cause;
 import hudson.model.CauseAction;
@@ -20,6 +21,7 @@ import hudson.model.Job;
 import hudson.model.ParametersAction;
 import hudson.model.ParametersDefinitionProperty;
 import hudson.model.Project;
+import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.StringParameterDefinition;
 import hudson.model.StringParameterValue;
@@ -27,6 +29,10 @@ import hudson.model.User;
 import hudson.security.HudsonPrivateSecurityRealm;
 import hudson.security.LegacyAuthorizationStrategy;
 import hudson.tasks.ArtifactArchiver;
+import hudson.tasks.BuildStepDescriptor;
+import hudson.tasks.BuildStepMonitor;
+import hudson.tasks.Publisher;
+import hudson.tasks.Recorder;
 import hudson.tasks.Shell;
 import hudson.tasks.junit.JUnitResultArchiver;
 import hudson.tasks.junit.TestResultAction;
@@ -59,6 +65,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -211,6 +218,9 @@ public class PipelineApiTest extends BaseTest {
 
         responses = get("/organizations/jenkins/pipelines/?limit=40", List.class);
         assertEquals(40, responses.size());
+
+        responses = get("/organizations/jenkins/pipelines/?start=100&limit=40", List.class);
+        assertEquals(10, responses.size());
     }
 
 
@@ -384,6 +394,73 @@ public class PipelineApiTest extends BaseTest {
         assertTrue(resp.get("result").equals("ABORTED") || resp.get("result").equals("UNKNOWN"));
     }
 
+    @Test
+    public void blockingStopReturnsOnCompletion() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject("p1");
+        p.getBuildersList().add(new Shell("sleep 600000"));
+        p.getPublishersList().add(new SlowFinalizationRecorder());
+        FreeStyleBuild b = p.scheduleBuild2(0).waitForStart();
+        j.waitForMessage("sleep 600000", b);
+
+        try {
+            long start = System.currentTimeMillis();
+            Map resp = put("/organizations/jenkins/pipelines/p1/runs/"+b.getId()+"/stop/?blocking=true&timeOutInSecs=60", Map.class);
+            long elapsed = System.currentTimeMillis() - start;
+
+            // the run is not finalized before the recorder is released, it still runs with its result final
+            assertTrue("blocking stop took " + elapsed + "ms", elapsed < 30000);
+            assertTrue(b.isLogUpdated());
+            assertEquals("RUNNING", resp.get("state"));
+            assertEquals("ABORTED", resp.get("result"));
+        } finally {
+            SlowFinalizationRecorder.RELEASED.countDown();
+        }
+        j.assertBuildStatus(Result.ABORTED, j.waitForCompletion(b));
+    }
+
+    /**
+     * Keeps the run from being finalized until released
+     */
+    public static class SlowFinalizationRecorder extends Recorder {
+        static final CountDownLatch RELEASED = new CountDownLatch(1);
+
+        @Override
+        public boolean needsToRunAfterFinalization() {
+            return true;
+        }
+
+        @Override
+        public BuildStepMonitor getRequiredMonitorService() {
+            return BuildStepMonitor.NONE;
+        }
+
+        @Override
+        public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) {
+            long deadline = System.currentTimeMillis() + 60000;
+            while (RELEASED.getCount() > 0 && System.currentTimeMillis() < deadline) {
+                try {
+                    RELEASED.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // left over from stopping the build, keep waiting
+                }
+            }
+            return true;
+        }
+
+        @TestExtension("blockingStopReturnsOnCompletion")
+        public static class DescriptorImpl extends BuildStepDescriptor<Publisher> {
+            @Override
+            public boolean isApplicable(Class<? extends AbstractProject> jobType) {
+                return true;
+            }
+
+            @Override
+            public String getDisplayName() {
+                return "Slow finalization";
+            }
+        }
+    }
+
 
     @Test
     public void findPipelineRunsForAPipelineTest() throws Exception {
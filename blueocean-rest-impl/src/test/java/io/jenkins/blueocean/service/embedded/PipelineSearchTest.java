@@ -78,6 +78,30 @@ public class PipelineSearchTest extends BaseTest {
         Assert.assertEquals("aa", ((Map) req.get(0)).get("name"));
     }
 
+    @Test
+    public void testOrganizationSearchAfterRename() throws IOException {
+        FreeStyleProject p = j.createFreeStyleProject("aa");
+        request().get("/search/?q=type:pipeline;pipeline:aa;organization:jenkins").build(List.class);
+
+        p.renameTo("cc");
+        Assert.assertEquals(0, request()
+            .get("/search/?q=type:pipeline;pipeline:aa;organization:jenkins")
+            .build(List.class).size());
+
+        List req = request()
+            .get("/search/?q=type:pipeline;pipeline:c*;organization:jenkins")
+            .build(List.class);
+        Assert.assertEquals(1, req.size());
+        Assert.assertEquals("cc", ((Map) req.get(0)).get("name"));
+
+        p.setDisplayName("dd");
+        req = request()
+            .get("/search/?q=type:pipeline;pipeline:dd;organization:jenkins")
+            .build(List.class);
+        Assert.assertEquals(1, req.size());
+        Assert.assertEquals("cc", ((Map) req.get(0)).get("name"));
+    }
+
     @Test
     public void testSearchPipeline() throws IOException {
         j.createFreeStyleProject("aa");
@@ -105,4 +129,31 @@ public class PipelineSearchTest extends BaseTest {
         Assert.assertEquals("aa", ((Map) req.get(0)).get("name"));
         Assert.assertEquals("bb", ((Map) req.get(1)).get("name"));
     }
+
+    @Test
+    public void testSearchAfterFolderDisplayNameChange() throws IOException {
+        MockFolder folder = j.createFolder("Cool");
+        folder.createProject(FreeStyleProject.class, "yy");
+        folder.createProject(FreeStyleProject.class, "zz");
+
+        List req = request()
+            .get("/search/?q=type:pipeline;pipeline:Cool/*;organization:jenkins")
+            .build(List.class);
+        Assert.assertEquals(2, req.size());
+
+        // the display names of the folder's projects change with it
+        folder.setDisplayName("Hot");
+
+        req = request()
+            .get("/search/?q=type:pipeline;pipeline:Hot/*;organization:jenkins")
+            .build(List.class);
+        Assert.assertEquals(2, req.size());
+        Assert.assertEquals("Cool/yy", ((Map) req.get(0)).get("fullName"));
+        Assert.assertEquals("Cool/zz", ((Map) req.get(1)).get("fullName"));
+
+        req = request()
+            .get("/search/?q=type:pipeline;pipeline:Cool/*;organization:jenkins")
+            .build(List.class);
+        Assert.assertEquals(0, req.size());
+    }
 }
@@ -15,6 +15,7 @@ import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class AnalyticsTest {
     @Rule
@@ -46,7 +47,7 @@ public class AnalyticsTest {
     }
 
     @Test
-    public void track() {
+    public void track() throws Exception {
         ImmutableMap<String, Object> props = ImmutableMap.<String, Object>of(
             "prop1", "value1",
             "prop2", 2,
@@ -54,6 +55,7 @@ public class AnalyticsTest {
             "blueoceanVersion", Jenkins.getInstance().getPlugin("blueocean-commons").getWrapper().getVersion()
         );
         analytics.track(new TrackRequest("test", props));
+        Assert.assertTrue(AnalyticsDispatcher.get().awaitDispatched(10, TimeUnit.SECONDS));
 
         Map<String, Object> expectedProps = Maps.newHashMap(props);
         expectedProps.put("jenkins", analytics.getServer());
@@ -66,8 +68,9 @@ public class AnalyticsTest {
     }
 
     @Test
-    public void trackWithoutProps() {
+    public void trackWithoutProps() throws Exception {
         analytics.track(new TrackRequest("test", null));
+        Assert.assertTrue(AnalyticsDispatcher.get().awaitDispatched(10, TimeUnit.SECONDS));
 
         Map<String, Object> expectedProps = Maps.newHashMap();
         expectedProps.put("jenkins", analytics.getServer());
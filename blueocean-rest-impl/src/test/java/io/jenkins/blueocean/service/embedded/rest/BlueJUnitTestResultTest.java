@@ -2,15 +2,24 @@ package io.jenkins.blueocean.service.embedded.rest;
 
 import com.google.common.base.Charsets;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import com.google.common.io.Resources;
 import hudson.model.Run;
+import hudson.tasks.junit.CaseResult;
+import hudson.tasks.junit.TestResultAction;
 import io.jenkins.blueocean.rest.Reachable;
+import io.jenkins.blueocean.rest.factory.BlueTestResultFactory;
 import io.jenkins.blueocean.rest.factory.BlueRunFactory;
 import io.jenkins.blueocean.rest.hal.Link;
 import io.jenkins.blueocean.rest.model.BluePipelineNode;
 import io.jenkins.blueocean.rest.model.BlueRun;
+import io.jenkins.blueocean.rest.model.BlueTestResult;
+import io.jenkins.blueocean.rest.model.BlueTestSummary;
+import io.jenkins.blueocean.service.embedded.rest.junit.BlueJUnitTestResult;
+import io.jenkins.blueocean.service.embedded.rest.junit.JUnitTestIndex;
 import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.junit.Assert;
 import org.junit.ClassRule;
 import org.junit.Rule;
@@ -18,7 +27,12 @@ import org.junit.Test;
 import org.jvnet.hudson.test.BuildWatcher;
 import org.jvnet.hudson.test.JenkinsRule;
 
+import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -54,4 +68,94 @@ public class BlueJUnitTestResultTest {
         BluePipelineNode node = mock(BluePipelineNode.class);
         when(node.getId()).thenReturn("6");
     }
+
+    @Test
+    public void indexesTestResults() throws Exception {
+        URL resource = Resources.getResource(getClass(), "BlueJUnitTestResultTest.jenkinsfile");
+        String jenkinsFile = Resources.toString(resource, Charsets.UTF_8);
+
+        WorkflowJob p = j.createProject(WorkflowJob.class, "project");
+        p.setDefinition(new CpsFlowDefinition(jenkinsFile, false));
+        p.save();
+
+        WorkflowRun r = j.waitForCompletion(p.scheduleBuild2(0).waitForStart());
+        Reachable parent = () -> new Link("test");
+
+        JUnitTestIndex index = JUnitTestIndex.get(r);
+        Assert.assertNotNull(index);
+        Assert.assertEquals(3, index.size());
+
+        TestResultAction action = r.getAction(TestResultAction.class);
+        List<CaseResult> cases = new ArrayList<>();
+        cases.addAll(action.getFailedTests());
+        cases.addAll(action.getSkippedTests());
+        cases.addAll(action.getPassedTests());
+        List<BlueTestResult> indexed = Lists.newArrayList(BlueTestResultFactory.resolve(r, parent).results);
+        Assert.assertEquals(cases.size(), indexed.size());
+        for (int i = 0; i < cases.size(); i++) {
+            BlueTestResult expected = new BlueJUnitTestResult(cases.get(i), parent.getLink());
+            BlueTestResult actual = indexed.get(i);
+            Assert.assertEquals(expected.getId(), actual.getId());
+            Assert.assertEquals(expected.getName(), actual.getName());
+            Assert.assertEquals(expected.getStatus(), actual.getStatus());
+            Assert.assertEquals(expected.getTestState(), actual.getTestState());
+            Assert.assertEquals(expected.getAge(), actual.getAge());
+            Assert.assertEquals(expected.getErrorDetails(), actual.getErrorDetails());
+            Assert.assertEquals(expected.hasStdLog(), actual.hasStdLog());
+
+            BlueTestResult found = BlueTestResultFactory.find(r, parent, expected.getId());
+            Assert.assertNotNull(found);
+            Assert.assertEquals(expected.getName(), found.getName());
+        }
+        Assert.assertNull(BlueTestResultFactory.find(r, parent, "does not exist"));
+
+        BlueTestSummary summary = BlueTestResultFactory.resolve(r, parent).summary;
+        Assert.assertNotNull(summary);
+        Assert.assertEquals(1, summary.getFailedTotal());
+        Assert.assertEquals(2, summary.getPassedTotal());
+        Assert.assertEquals(3, summary.getTotal());
+    }
+
+    @Test
+    public void indexDerivesStateAndAgeFromPreviousRun() throws Exception {
+        WorkflowJob p = j.createProject(WorkflowJob.class, "project");
+        p.setDefinition(new CpsFlowDefinition(
+            "node {\n" +
+            "    def failing = [1: ['foo3'], 2: ['foo1', 'foo3'], 3: ['foo1']][currentBuild.number]\n" +
+            "    def xml = '<testsuite tests=\"3\">'\n" +
+            "    for (c in ['foo1', 'foo2', 'foo3']) {\n" +
+            "        xml += failing.contains(c) ? \"<testcase classname='${c}' name='t'><failure>x</failure></testcase>\" : \"<testcase classname='${c}' name='t'/>\"\n" +
+            "    }\n" +
+            "    writeFile file: 'result.xml', text: xml + '</testsuite>'\n" +
+            "    junit 'result.xml'\n" +
+            "}", false));
+        Reachable parent = () -> new Link("test");
+
+        for (int n = 1; n <= 3; n++) {
+            WorkflowRun r = j.waitForCompletion(p.scheduleBuild2(0).waitForStart());
+            Assert.assertNotNull(JUnitTestIndex.get(r));
+            Assert.assertTrue(new File(r.getRootDir(), "blueocean-junit-index.bin").exists());
+
+            // same as what the JUnit history gives
+            for (CaseResult c : r.getAction(TestResultAction.class).getResult().getSuites().iterator().next().getCases()) {
+                BlueTestResult expected = new BlueJUnitTestResult(c, parent.getLink());
+                BlueTestResult actual = BlueTestResultFactory.find(r, parent, expected.getId());
+                Assert.assertNotNull(actual);
+                Assert.assertEquals(expected.getName(), expected.getStatus(), actual.getStatus());
+                Assert.assertEquals(expected.getName(), expected.getTestState(), actual.getTestState());
+                Assert.assertEquals(expected.getName(), expected.getAge(), actual.getAge());
+            }
+        }
+
+        WorkflowRun r = p.getLastBuild();
+        Map<String, BlueTestResult> byClass = new HashMap<>();
+        for (BlueTestResult result : BlueTestResultFactory.resolve(r, parent).results) {
+            byClass.put(result.getName().substring(result.getName().lastIndexOf(' ') + 1), result);
+        }
+        Assert.assertEquals(BlueTestResult.Status.FAILED, byClass.get("foo1").getStatus());
+        Assert.assertEquals(2, byClass.get("foo1").getAge());
+        Assert.assertEquals(BlueTestResult.Status.PASSED, byClass.get("foo3").getStatus());
+        Assert.assertEquals(BlueTestResult.State.FIXED, byClass.get("foo3").getTestState());
+        Assert.assertEquals(0, byClass.get("foo2").getAge());
+    }
 }
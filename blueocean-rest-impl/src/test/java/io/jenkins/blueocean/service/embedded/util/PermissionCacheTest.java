@@ -0,0 +1,147 @@
+package io.jenkins.blueocean.service.embedded.util;
+
+import hudson.model.Descriptor;
+import hudson.model.Item;
+import hudson.model.UnprotectedRootAction;
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.security.AuthorizationStrategy;
+import hudson.security.Permission;
+import jenkins.model.Jenkins;
+import org.acegisecurity.Authentication;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import org.kohsuke.stapler.StaplerResponse;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class PermissionCacheTest {
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Before
+    public void setUp() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new CountingAuthorizationStrategy());
+        CountingAuthorizationStrategy.CHECKS.set(0);
+        CountingAuthorizationStrategy.READERS.clear();
+        CountingAuthorizationStrategy.READERS.add("alice");
+        j.createFreeStyleProject("p");
+    }
+
+    @Test
+    public void scopedToRequestAndAuthentication() throws Exception {
+        JenkinsRule.WebClient wc = j.createWebClient().login("alice");
+        CountingAuthorizationStrategy.CHECKS.set(0);
+
+        // alice twice, checked once, then bob, checked on his own
+        assertEquals("true,true,false", check(wc));
+        assertEquals(2, CountingAuthorizationStrategy.CHECKS.get());
+
+        // nothing carried over to the next request
+        assertEquals("true,true,false", check(wc));
+        assertEquals(4, CountingAuthorizationStrategy.CHECKS.get());
+    }
+
+    @Test
+    public void permissionChangeSeenByNextRequest() throws Exception {
+        JenkinsRule.WebClient wc = j.createWebClient().login("alice");
+        assertEquals("true,true,false", check(wc));
+
+        CountingAuthorizationStrategy.READERS.remove("alice");
+        CountingAuthorizationStrategy.READERS.add("bob");
+        assertEquals("false,false,true", check(wc));
+    }
+
+    @Test
+    public void notCachedOutsideOfRequests() throws Exception {
+        Item p = j.jenkins.getItemByFullName("p");
+        try (ACLContext ignored = ACL.as(User.get("alice").impersonate())) {
+            assertEquals(true, PermissionCache.hasPermission(p, Item.READ));
+            CountingAuthorizationStrategy.READERS.remove("alice");
+            assertEquals(false, PermissionCache.hasPermission(p, Item.READ));
+        }
+        assertEquals(2, CountingAuthorizationStrategy.CHECKS.get());
+    }
+
+    private static String check(JenkinsRule.WebClient wc) throws Exception {
+        return wc.goTo("permission-cache-test/", "text/plain").getWebResponse().getContentAsString().trim();
+    }
+
+    /**
+     * Checks {@link Item#READ} on the same item twice as the current user, then once as bob, in a single request.
+     */
+    @TestExtension
+    public static class CheckAction implements UnprotectedRootAction {
+        public void doIndex(StaplerResponse rsp) throws IOException {
+            Item p;
+            try (ACLContext ignored = ACL.as(ACL.SYSTEM)) {
+                p = Jenkins.getInstance().getItemByFullName("p");
+            }
+            boolean first = PermissionCache.hasPermission(p, Item.READ);
+            boolean second = PermissionCache.hasPermission(p, Item.READ);
+            boolean bob;
+            try (ACLContext ignored = ACL.as(User.get("bob").impersonate())) {
+                bob = PermissionCache.hasPermission(p, Item.READ);
+            }
+            rsp.setContentType("text/plain");
+            rsp.getWriter().print(first + "," + second + "," + bob);
+        }
+
+        @Override
+        public String getIconFileName() {
+            return null;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+
+        @Override
+        public String getUrlName() {
+            return "permission-cache-test";
+        }
+    }
+
+    /**
+     * Grants {@link Item#READ} to {@link #READERS} and counts how often that is checked, everything else to everybody.
+     */
+    public static class CountingAuthorizationStrategy extends AuthorizationStrategy {
+        static final AtomicInteger CHECKS = new AtomicInteger();
+        static final Set<String> READERS = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public ACL getRootACL() {
+            return new ACL() {
+                @Override
+                public boolean hasPermission(Authentication a, Permission permission) {
+                    if (permission != Item.READ) {
+                        return true;
+                    }
+                    CHECKS.incrementAndGet();
+                    return READERS.contains(a.getName());
+                }
+            };
+        }
+
+        @Override
+        public Collection<String> getGroups() {
+            return Collections.emptySet();
+        }
+
+        @TestExtension
+        public static class DescriptorImpl extends Descriptor<AuthorizationStrategy> {}
+    }
+}
@@ -1,13 +1,21 @@
 package io.jenkins.blueocean.rest.factory;
 
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Sets;
 import hudson.ExtensionList;
 import hudson.model.Run;
 import io.jenkins.blueocean.rest.Reachable;
 import io.jenkins.blueocean.rest.model.BlueArtifact;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 
 public abstract class BlueArtifactFactory {
 
@@ -18,6 +26,73 @@ public abstract class BlueArtifactFactory {
      */
     public abstract Collection<BlueArtifact> getArtifacts(Run<?, ?> run, Reachable parent);
 
+    /**
+     * Enumerates artifacts as they are consumed. Factories that can list artifacts without loading all of them should
+     * override this, by default it filters {@link #getArtifacts(Run, Reachable)}.
+     *
+     * @param run to resolve from
+     * @param parent typically the artifact container
+     * @param pathPrefix only artifacts whose {@link BlueArtifact#getPath() path} starts with it, all if null
+     * @return artifacts
+     */
+    public Iterator<BlueArtifact> iterator(Run<?, ?> run, Reachable parent, @Nullable String pathPrefix) {
+        Collection<BlueArtifact> artifacts = getArtifacts(run, parent);
+        if (artifacts == null) {
+            return Collections.emptyIterator();
+        }
+        if (pathPrefix == null) {
+            return artifacts.iterator();
+        }
+        return Iterators.filter(artifacts.iterator(), input -> input != null && input.getPath().startsWith(pathPrefix));
+    }
+
+    /**
+     * Enumerates the artifacts following the one with the given path, as {@link #iterator(Run, Reachable, String)}
+     * would. Factories that can seek to an artifact without listing the ones before it should override this, by
+     * default it skips over them.
+     *
+     * @param run to resolve from
+     * @param parent typically the artifact container
+     * @param pathPrefix only artifacts whose {@link BlueArtifact#getPath() path} starts with it, all if null
+     * @param after {@link BlueArtifact#getPath() path} of the last artifact of the previous page
+     * @return artifacts after that one, or null if this factory doesn't list it
+     */
+    @CheckForNull
+    public Iterator<BlueArtifact> iteratorAfter(Run<?, ?> run, Reachable parent, @Nullable String pathPrefix, @Nonnull String after) {
+        Iterator<BlueArtifact> artifacts = iterator(run, parent, pathPrefix);
+        while (artifacts.hasNext()) {
+            BlueArtifact artifact = artifacts.next();
+            if (artifact != null && after.equals(artifact.getPath())) {
+                return artifacts;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Factories that can look up an artifact without listing its siblings should override this.
+     *
+     * @param run to resolve from
+     * @param parent typically the artifact container
+     * @param id of the artifact, see {@link BlueArtifact#getId()}
+     * @return the artifact with this id, or null
+     */
+    @CheckForNull
+    public BlueArtifact getArtifact(Run<?, ?> run, Reachable parent, @Nonnull String id) {
+        return Iterators.find(iterator(run, parent, null), input -> input != null && input.getId().equals(id), null);
+    }
+
+    /**
+     * Factories that list many artifacts should override this to not go through all of them every time.
+     *
+     * @param run to resolve from
+     * @param parent typically the artifact container
+     * @return number of artifacts
+     */
+    public int count(Run<?, ?> run, Reachable parent) {
+        return Iterators.size(iterator(run, parent, null));
+    }
+
     /**
      * @param run to resolve from
      * @param parent typically the artifact container
@@ -34,4 +109,74 @@ public abstract class BlueArtifactFactory {
         }
         return allArtifacts;
     }
+
+    /**
+     * @param run to resolve from
+     * @param parent typically the artifact container
+     * @param pathPrefix only artifacts whose {@link BlueArtifact#getPath() path} starts with it, all if null
+     * @return artifacts of all factories, enumerated as they are consumed
+     */
+    public static Iterator<BlueArtifact> resolveIterator(Run<?, ?> run, Reachable parent, @Nullable String pathPrefix) {
+        List<Iterator<BlueArtifact>> iterators = new ArrayList<>();
+        for (BlueArtifactFactory factory : ExtensionList.lookup(BlueArtifactFactory.class)) {
+            iterators.add(factory.iterator(run, parent, pathPrefix));
+        }
+        return Iterators.concat(iterators.iterator());
+    }
+
+    /**
+     * @param run to resolve from
+     * @param parent typically the artifact container
+     * @param pathPrefix only artifacts whose {@link BlueArtifact#getPath() path} starts with it, all if null
+     * @param after {@link BlueArtifact#getPath() path} of the last artifact of the previous page, from the start if null
+     * @return artifacts of all factories following that one, enumerated as they are consumed, none if no factory
+     * lists it
+     */
+    public static Iterator<BlueArtifact> resolveIterator(Run<?, ?> run, Reachable parent, @Nullable String pathPrefix, @Nullable String after) {
+        if (after == null) {
+            return resolveIterator(run, parent, pathPrefix);
+        }
+        List<Iterator<BlueArtifact>> iterators = new ArrayList<>();
+        for (BlueArtifactFactory factory : ExtensionList.lookup(BlueArtifactFactory.class)) {
+            if (!iterators.isEmpty()) {
+                iterators.add(factory.iterator(run, parent, pathPrefix));
+                continue;
+            }
+            Iterator<BlueArtifact> iterator = factory.iteratorAfter(run, parent, pathPrefix, after);
+            if (iterator != null) {
+                iterators.add(iterator);
+            }
+        }
+        return Iterators.concat(iterators.iterator());
+    }
+
+    /**
+     * @param run to resolve from
+     * @param parent typically the artifact container
+     * @param id of the artifact, see {@link BlueArtifact#getId()}
+     * @return the artifact with this id from the first factory that has it, or null
+     */
+    @CheckForNull
+    public static BlueArtifact find(Run<?, ?> run, Reachable parent, @Nonnull String id) {
+        for (BlueArtifactFactory factory : ExtensionList.lookup(BlueArtifactFactory.class)) {
+            BlueArtifact artifact = factory.getArtifact(run, parent, id);
+            if (artifact != null) {
+                return artifact;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param run to resolve from
+     * @param parent typically the artifact container
+     * @return number of artifacts of all factories
+     */
+    public static int countAll(Run<?, ?> run, Reachable parent) {
+        int count = 0;
+        for (BlueArtifactFactory factory : ExtensionList.lookup(BlueArtifactFactory.class)) {
+            count += factory.count(run, parent);
+        }
+        return count;
+    }
 }
@@ -28,6 +28,23 @@ public abstract class BlueTestResultFactory implements ExtensionPoint {
         return Result.notFound();
     }
 
+    /**
+     * Implementations that can look up a single test without going through all of them should override this.
+     *
+     * @param run to find the test for
+     * @param parent run or node that this belongs to
+     * @param id of the test, see {@link BlueTestResult#getId()}
+     * @return the test with this id, or null
+     */
+    @CheckForNull
+    public BlueTestResult getBlueTestResult(Run<?,?> run, final Reachable parent, @Nonnull String id) {
+        Result result = getBlueTestResults(run, parent);
+        if (result == null || result.results == null || result.summary == null) {
+            return null;
+        }
+        return Iterables.find(result.results, input -> input != null && input.getId().equals(id), null);
+    }
+
     /**
      * Result of {@link #getBlueTestResults(Run, Reachable)} that holds summary and iterable of BlueTestResult
      */
@@ -130,6 +147,23 @@ public abstract class BlueTestResultFactory implements ExtensionPoint {
         return getResult(results, summary);
     }
 
+    /**
+     * @param run to find the test for
+     * @param parent run or node that this belongs to
+     * @param id of the test, see {@link BlueTestResult#getId()}
+     * @return the test with this id from the first factory that has it, or null
+     */
+    @CheckForNull
+    public static BlueTestResult find(Run<?,?> run, Reachable parent, @Nonnull String id) {
+        for (BlueTestResultFactory factory : allFactories()) {
+            BlueTestResult result = factory.getBlueTestResult(run, parent, id);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
     private static Result getResult(Iterable<BlueTestResult> results, BlueTestSummary summary) {
         if (summary.getTotal() == 0) {
             summary = null;
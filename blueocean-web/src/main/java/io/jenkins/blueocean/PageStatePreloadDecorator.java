@@ -26,16 +26,174 @@ package io.jenkins.blueocean;
 import hudson.Extension;
 import io.jenkins.blueocean.commons.PageStatePreloader;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
+ * Runs the {@link PageStatePreloader}s of a page.
+ * <p>
+ * Preloaders run one after the other on the page request thread, as most of them serialize REST models, which read
+ * the current Stapler request. Once {@link #PRELOAD_TIME_BUDGET} is spent the remaining preloaders are skipped,
+ * leaving the client to fetch that data itself. A preloader that is already running is not cut short.
+ *
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
  */
 @Extension
 public class PageStatePreloadDecorator extends BluePageDecorator {
 
+    private static final Logger LOGGER = Logger.getLogger(PageStatePreloadDecorator.class.getName());
+
+    /**
+     * Time in milliseconds after which the remaining preloaders of a page are skipped. Default 2000.
+     */
+    static final long PRELOAD_TIME_BUDGET = Long.getLong("blueocean.preload.timeBudget", 2000);
+
+    private static final ConcurrentMap<String, Timing> TIMINGS = new ConcurrentHashMap<>();
+
     public List<PageStatePreloader> getPageStatePreloaders(){
         return PageStatePreloader.all();
     }
 
+    /**
+     * Get the state of all preloaders that ran within the budget, in preloader order.
+     */
+    public List<PreloadedState> getPreloadedStates() {
+        return preload(getPageStatePreloaders(), PRELOAD_TIME_BUDGET);
+    }
+
+    /**
+     * Timing statistics per preloader class name, for monitoring.
+     */
+    public static Map<String, Timing> getPreloaderTimings() {
+        return Collections.unmodifiableMap(TIMINGS);
+    }
+
+    static List<PreloadedState> preload(@Nonnull List<PageStatePreloader> preloaders, long timeBudgetMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        List<PreloadedState> states = new ArrayList<>(preloaders.size());
+        for (PageStatePreloader preloader : preloaders) {
+            if (System.nanoTime() - deadline > 0) {
+                skipped(preloader, timeBudgetMillis);
+                continue;
+            }
+            try {
+                addState(states, preloader, newTask(preloader).call());
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Error running page state preloader " + preloader.getClass().getName(), e);
+            }
+        }
+        return states;
+    }
+
+    private static Callable<String> newTask(final PageStatePreloader preloader) {
+        return new Callable<String>() {
+            @Override
+            public String call() {
+                long start = System.nanoTime();
+                try {
+                    return preloader.getStateJson();
+                } finally {
+                    timing(preloader).record(System.nanoTime() - start);
+                }
+            }
+        };
+    }
+
+    private static void skipped(PageStatePreloader preloader, long timeBudgetMillis) {
+        timing(preloader).skipped.incrementAndGet();
+        LOGGER.log(Level.FINE, "Page state preloader {0} missed the {1}ms page budget, skipped",
+                   new Object[]{preloader.getClass().getName(), timeBudgetMillis});
+    }
+
+    private static void addState(List<PreloadedState> states, PageStatePreloader preloader, @CheckForNull String stateJson) {
+        if (stateJson != null) {
+            states.add(new PreloadedState(preloader.getClass().getName(), preloader.getStatePropertyPath(), stateJson));
+        }
+    }
+
+    private static Timing timing(PageStatePreloader preloader) {
+        String name = preloader.getClass().getName();
+        Timing timing = TIMINGS.get(name);
+        if (timing == null) {
+            TIMINGS.putIfAbsent(name, new Timing());
+            timing = TIMINGS.get(name);
+        }
+        return timing;
+    }
+
+    /**
+     * State produced by a {@link PageStatePreloader}.
+     */
+    public static final class PreloadedState {
+        private final String preloaderClassName;
+        private final String statePropertyPath;
+        private final String stateJson;
+
+        PreloadedState(String preloaderClassName, String statePropertyPath, String stateJson) {
+            this.preloaderClassName = preloaderClassName;
+            this.statePropertyPath = statePropertyPath;
+            this.stateJson = stateJson;
+        }
+
+        public String getPreloaderClassName() {
+            return preloaderClassName;
+        }
+
+        public String getStatePropertyPath() {
+            return statePropertyPath;
+        }
+
+        public String getStateJson() {
+            return stateJson;
+        }
+    }
+
+    /**
+     * Timing statistics of a preloader.
+     */
+    public static final class Timing {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+
+        void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalNanos.get());
+        }
+
+        public long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+
+        /**
+         * @return number of times the preloader missed the page time budget
+         */
+        public long getSkipped() {
+            return skipped.get();
+        }
+    }
 }
@@ -0,0 +1,91 @@
+package io.jenkins.blueocean;
+
+import io.jenkins.blueocean.commons.PageStatePreloader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class PageStatePreloadDecoratorTest {
+
+    @Test
+    public void preloadersAfterBudgetSkipped() {
+        Preloader fast = new Preloader("test.fast", 0);
+        Preloader slow = new SlowPreloader("test.slow", 500);
+        Preloader after = new AfterPreloader("test.after", 0);
+
+        List<PageStatePreloadDecorator.PreloadedState> states =
+            PageStatePreloadDecorator.preload(Arrays.<PageStatePreloader>asList(fast, slow, after), 100);
+
+        // a running preloader is not cut short, but nothing starts once the budget is spent
+        Assert.assertEquals(2, states.size());
+        Assert.assertEquals("test.fast", states.get(0).getStatePropertyPath());
+        Assert.assertEquals("test.slow", states.get(1).getStatePropertyPath());
+        Assert.assertFalse(after.called);
+
+        PageStatePreloadDecorator.Timing timing = PageStatePreloadDecorator.getPreloaderTimings().get(AfterPreloader.class.getName());
+        Assert.assertEquals(1, timing.getSkipped());
+        Assert.assertEquals(0, timing.getCount());
+        timing = PageStatePreloadDecorator.getPreloaderTimings().get(SlowPreloader.class.getName());
+        Assert.assertEquals(1, timing.getCount());
+        Assert.assertTrue(timing.getMaxMillis() >= 500);
+    }
+
+    @Test
+    public void failingPreloaderLeftOut() {
+        Preloader failing = new Preloader("test.failing", 0) {
+            @Override
+            public String getStateJson() {
+                throw new IllegalStateException("broken");
+            }
+        };
+        Preloader fine = new Preloader("test.fine", 0);
+
+        List<PageStatePreloadDecorator.PreloadedState> states =
+            PageStatePreloadDecorator.preload(Arrays.<PageStatePreloader>asList(failing, fine), 2000);
+        Assert.assertEquals(1, states.size());
+        Assert.assertEquals("test.fine", states.get(0).getStatePropertyPath());
+    }
+
+    private static class Preloader extends PageStatePreloader {
+        private final String path;
+        private final long sleepMillis;
+        boolean called;
+
+        Preloader(String path, long sleepMillis) {
+            this.path = path;
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public String getStatePropertyPath() {
+            return path;
+        }
+
+        @Override
+        public String getStateJson() {
+            called = true;
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "{}";
+        }
+    }
+
+    private static class SlowPreloader extends Preloader {
+        SlowPreloader(String path, long sleepMillis) {
+            super(path, sleepMillis);
+        }
+    }
+
+    private static class AfterPreloader extends Preloader {
+        AfterPreloader(String path, long sleepMillis) {
+            super(path, sleepMillis);
+        }
+    }
+}
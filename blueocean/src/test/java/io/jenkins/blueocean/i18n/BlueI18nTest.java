@@ -25,13 +25,20 @@ package io.jenkins.blueocean.i18n;
 
 import hudson.PluginWrapper;
 import io.jenkins.blueocean.service.embedded.BaseTest;
+import net.sf.json.JSONObject;
+import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 /**
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
@@ -101,6 +108,74 @@ public class BlueI18nTest extends BaseTest {
         Assert.assertEquals(response1, response2);
     }
 
+    @Test
+    public void test_304_response_etag() throws Exception {
+        PluginWrapper plugin = BlueI18n.getPlugin("blueocean-dashboard");
+        if (plugin == null) {
+            // Skip. See waitForPluginLoaded() above.
+            return;
+        }
+        String path = "blue/rest/i18n/blueocean-dashboard/" + plugin.getVersion() + "/jenkins.plugins.blueocean.dashboard.Messages/de";
+
+        HttpURLConnection first = open(path, null, null);
+        Assert.assertEquals(HttpServletResponse.SC_OK, first.getResponseCode());
+        String etag = first.getHeaderField("ETag");
+        Assert.assertNotNull(etag);
+        first.disconnect();
+
+        HttpURLConnection revalidate = open(path, etag, null);
+        Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, revalidate.getResponseCode());
+        revalidate.disconnect();
+
+        // the tag covers the bundle content, not when it was read
+        BlueI18n.BundleParams bundleParams = BlueI18n.getBundleParameters("blueocean-dashboard/" + plugin.getVersion() + "/jenkins.plugins.blueocean.dashboard.Messages/de");
+        JSONObject data = new JSONObject();
+        data.put("key", "value");
+        BlueI18n.BundleCacheEntry entry = new BlueI18n.BundleCacheEntry(data, bundleParams);
+        Thread.sleep(10);
+        Assert.assertEquals(entry.getETag(), new BlueI18n.BundleCacheEntry(data, bundleParams).getETag());
+    }
+
+    @Test
+    public void test_gzip_negotiation() throws Exception {
+        PluginWrapper plugin = BlueI18n.getPlugin("blueocean-dashboard");
+        if (plugin == null) {
+            // Skip. See waitForPluginLoaded() above.
+            return;
+        }
+        String path = "blue/rest/i18n/blueocean-dashboard/" + plugin.getVersion() + "/jenkins.plugins.blueocean.dashboard.Messages/de";
+
+        HttpURLConnection gzip = open(path, null, "gzip");
+        Assert.assertEquals(HttpServletResponse.SC_OK, gzip.getResponseCode());
+        Assert.assertEquals("gzip", gzip.getHeaderField("Content-Encoding"));
+        String unzipped;
+        try (InputStream in = new GZIPInputStream(gzip.getInputStream())) {
+            unzipped = IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+        Assert.assertEquals("ok", JSONObject.fromObject(unzipped).get("status"));
+
+        HttpURLConnection refused = open(path, null, "gzip;q=0, identity");
+        Assert.assertEquals(HttpServletResponse.SC_OK, refused.getResponseCode());
+        Assert.assertNull(refused.getHeaderField("Content-Encoding"));
+        String plain;
+        try (InputStream in = refused.getInputStream()) {
+            plain = IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+        Assert.assertEquals("ok", JSONObject.fromObject(plain).get("status"));
+    }
+
+    private HttpURLConnection open(String path, String ifNoneMatch, String acceptEncoding) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL(j.getURL(), path).openConnection();
+        if (ifNoneMatch != null) {
+            connection.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+        // HttpURLConnection doesn't decompress, without the header it sends none
+        if (acceptEncoding != null) {
+            connection.setRequestProperty("Accept-Encoding", acceptEncoding);
+        }
+        return connection;
+    }
+
     @Test
     public void test_404_response_unknown_bundle() {
         PluginWrapper plugin = BlueI18n.getPlugin("blueocean-dashboard");